@@ -5,7 +5,6 @@ import io.dongtai.iast.agent.monitor.MonitorDaemonThread;
 import io.dongtai.iast.agent.monitor.impl.AgentStateMonitor;
 import io.dongtai.iast.agent.report.AgentRegisterReport;
 import io.dongtai.iast.common.constants.AgentConstant;
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.common.state.*;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
@@ -103,7 +102,6 @@ public class AgentLauncher {
                     Runtime.getRuntime().removeShutdownHook(shutdownHook);
                     shutdownHook = null;
                 }
-                ScopeManager.SCOPE_TRACKER.remove();
 
                 if (!AGENT_STATE.isException()) {
                     AGENT_STATE.setState(State.UNINSTALLED);
@@ -17,16 +17,12 @@ public class ServletResponseWrapper extends HttpServletResponseWrapper implement
     private PrintWriter writer = null;
     private ServletWrapperOutputStreamCopier copier = null;
 
-    @SuppressWarnings("unchecked")
     public ServletResponseWrapper(HttpServletResponse response) {
         super(response);
         try {
-            boolean enableVersionHeader = ((Config<Boolean>) ConfigBuilder.getInstance()
-                    .getConfig(ConfigKey.ENABLE_VERSION_HEADER)).get();
-            if (enableVersionHeader) {
-                String versionHeaderKey = ((Config<String>) ConfigBuilder.getInstance()
-                        .getConfig(ConfigKey.VERSION_HEADER_KEY)).get();
-                response.addHeader(versionHeaderKey, AgentConstant.VERSION_VALUE);
+            ConfigSnapshot config = ConfigBuilder.getInstance().getSnapshot();
+            if (config.isEnableVersionHeader()) {
+                response.addHeader(config.getVersionHeaderKey(), AgentConstant.VERSION_VALUE);
             }
         } catch (Throwable ignore) {
         }
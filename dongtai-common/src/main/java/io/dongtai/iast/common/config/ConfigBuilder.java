@@ -6,12 +6,15 @@ import java.util.HashMap;
 import java.util.Map;
 
 public class ConfigBuilder {
-    private static ConfigBuilder instance;
+    private static volatile ConfigBuilder instance;
     private final Map<ConfigKey, Config<?>> configMap = new HashMap<ConfigKey, Config<?>>();
+    private volatile ConfigSnapshot snapshot;
 
     private ConfigBuilder() {
         this.configMap.put(ConfigKey.REPORT_MAX_METHOD_POOL_SIZE,
                 Config.<Integer>create(ConfigKey.REPORT_MAX_METHOD_POOL_SIZE).setDefaultValue(5000));
+        this.configMap.put(ConfigKey.REPORT_MAX_METHOD_POOL_BYTES,
+                Config.<Integer>create(ConfigKey.REPORT_MAX_METHOD_POOL_BYTES).setDefaultValue(8 * 1024 * 1024));
         this.configMap.put(ConfigKey.REPORT_RESPONSE_BODY,
                 Config.<Boolean>create(ConfigKey.REPORT_RESPONSE_BODY).setDefaultValue(true));
         this.configMap.put(ConfigKey.REQUEST_DENY_LIST,
@@ -20,13 +23,21 @@ public class ConfigBuilder {
                 Config.<Boolean>create(ConfigKey.VERSION_HEADER_KEY).setDefaultValue(true));
         this.configMap.put(ConfigKey.VERSION_HEADER_KEY,
                 Config.<String>create(ConfigKey.VERSION_HEADER_KEY).setDefaultValue("DongTai"));
+        this.snapshot = buildSnapshot();
     }
 
     public static ConfigBuilder getInstance() {
-        if (instance == null) {
-            instance = new ConfigBuilder();
+        ConfigBuilder builder = instance;
+        if (builder == null) {
+            synchronized (ConfigBuilder.class) {
+                builder = instance;
+                if (builder == null) {
+                    builder = new ConfigBuilder();
+                    instance = builder;
+                }
+            }
         }
-        return instance;
+        return builder;
     }
 
     public static void clear() {
@@ -37,6 +48,15 @@ public class ConfigBuilder {
         return this.configMap.get(key);
     }
 
+    /**
+     * 获取当前配置快照，热路径上应使用快照而不是 {@link #getConfig(ConfigKey)}
+     *
+     * @return 当前配置快照
+     */
+    public ConfigSnapshot getSnapshot() {
+        return this.snapshot;
+    }
+
     public void updateFromRemote(String content) {
         JSONObject config = null;
         try {
@@ -48,15 +68,29 @@ public class ConfigBuilder {
         update(config);
     }
 
-    public void update(JSONObject config) {
+    public synchronized void update(JSONObject config) {
         if (config == null) {
             return;
         }
         updateBool(config, ConfigKey.JsonKey.JSON_REPORT_RESPONSE_BODY);
         updateInt(config, ConfigKey.JsonKey.JSON_REPORT_MAX_METHOD_POOL_SIZE);
+        updateInt(config, ConfigKey.JsonKey.JSON_REPORT_MAX_METHOD_POOL_BYTES);
         updateBool(config, ConfigKey.JsonKey.JSON_ENABLE_VERSION_HEADER);
         updateString(config, ConfigKey.JsonKey.JSON_VERSION_HEADER_KEY);
         updateRequestDenyList(config);
+        this.snapshot = buildSnapshot();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ConfigSnapshot buildSnapshot() {
+        return new ConfigSnapshot(
+                ((Config<Boolean>) getConfig(ConfigKey.REPORT_RESPONSE_BODY)).get(),
+                ((Config<Integer>) getConfig(ConfigKey.REPORT_MAX_METHOD_POOL_SIZE)).get(),
+                ((Config<Integer>) getConfig(ConfigKey.REPORT_MAX_METHOD_POOL_BYTES)).get(),
+                ((Config<RequestDenyList>) getConfig(ConfigKey.REQUEST_DENY_LIST)).get(),
+                ((Config<Boolean>) getConfig(ConfigKey.ENABLE_VERSION_HEADER)).get(),
+                ((Config<String>) getConfig(ConfigKey.VERSION_HEADER_KEY)).get()
+        );
     }
 
     @SuppressWarnings("unchecked")
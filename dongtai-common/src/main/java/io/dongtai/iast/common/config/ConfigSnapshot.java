@@ -0,0 +1,51 @@
+package io.dongtai.iast.common.config;
+
+/**
+ * 配置快照，创建后不再修改。远程配置更新时由 {@link ConfigBuilder} 重新生成并整体替换，
+ * 热路径上只需读取一次快照引用，不会读到更新了一半的配置
+ */
+public class ConfigSnapshot {
+    private final boolean reportResponseBody;
+    private final int reportMaxMethodPoolSize;
+    private final int reportMaxMethodPoolBytes;
+    private final RequestDenyList requestDenyList;
+    private final boolean enableVersionHeader;
+    private final String versionHeaderKey;
+
+    public ConfigSnapshot(boolean reportResponseBody, int reportMaxMethodPoolSize, int reportMaxMethodPoolBytes,
+                          RequestDenyList requestDenyList, boolean enableVersionHeader, String versionHeaderKey) {
+        this.reportResponseBody = reportResponseBody;
+        this.reportMaxMethodPoolSize = reportMaxMethodPoolSize;
+        this.reportMaxMethodPoolBytes = reportMaxMethodPoolBytes;
+        this.requestDenyList = requestDenyList;
+        this.enableVersionHeader = enableVersionHeader;
+        this.versionHeaderKey = versionHeaderKey;
+    }
+
+    public boolean isReportResponseBody() {
+        return reportResponseBody;
+    }
+
+    public int getReportMaxMethodPoolSize() {
+        return reportMaxMethodPoolSize;
+    }
+
+    /**
+     * 单个请求的方法池在内存中保留的字节数上限，超过后将较早的事件转存到本地文件，0 表示不限制
+     */
+    public int getReportMaxMethodPoolBytes() {
+        return reportMaxMethodPoolBytes;
+    }
+
+    public RequestDenyList getRequestDenyList() {
+        return requestDenyList;
+    }
+
+    public boolean isEnableVersionHeader() {
+        return enableVersionHeader;
+    }
+
+    public String getVersionHeaderKey() {
+        return versionHeaderKey;
+    }
+}
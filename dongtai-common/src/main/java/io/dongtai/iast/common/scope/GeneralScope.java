@@ -19,6 +19,10 @@ public class GeneralScope {
         this.level = decrement(this.level);
     }
 
+    public void reset() {
+        this.level = 0;
+    }
+
     private int decrement(int level) {
         if (level > 0) {
             return level - 1;
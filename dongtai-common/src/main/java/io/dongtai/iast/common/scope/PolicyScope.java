@@ -37,11 +37,12 @@ public class PolicyScope {
         this.sourceLevel = decrement(this.sourceLevel);
     }
 
-    public void enterPropagator(boolean skipScope) {
+    public int enterPropagator(boolean skipScope) {
         this.propagatorLevel++;
         if (skipScope) {
             this.propagatorSkipDepth++;
         }
+        return this.propagatorLevel;
     }
 
     public boolean isValidPropagator() {
@@ -56,6 +57,19 @@ public class PolicyScope {
         }
     }
 
+    /**
+     * leave the propagator scope entered at the given level
+     *
+     * @param level level returned by {@link #enterPropagator(boolean)}
+     * @return true if the propagator is valid before leaving, same as {@link #isValidPropagator()}
+     */
+    public boolean leavePropagator(int level, boolean skipScope) {
+        boolean isValid = this.agentLevel == 0 && !this.overCapacity && this.sourceLevel == 0
+                && (level == 1 || this.propagatorSkipDepth > 0);
+        leavePropagator(skipScope);
+        return isValid;
+    }
+
     public void enterSink() {
         this.sinkLevel++;
     }
@@ -77,6 +91,15 @@ public class PolicyScope {
         this.overCapacity = overCapacity;
     }
 
+    public void reset() {
+        this.agentLevel = 0;
+        this.sourceLevel = 0;
+        this.propagatorLevel = 0;
+        this.propagatorSkipDepth = 0;
+        this.sinkLevel = 0;
+        this.overCapacity = false;
+    }
+
     private int decrement(int level) {
         if (level > 0) {
             return level - 1;
@@ -17,4 +17,10 @@ public class ScopeAggregator {
     public PolicyScope getPolicyScope() {
         return policyScope;
     }
+
+    public void reset() {
+        this.httpRequestScope.reset();
+        this.httpEntryScope.reset();
+        this.policyScope.reset();
+    }
 }
@@ -1,5 +0,0 @@
-package io.dongtai.iast.common.scope;
-
-public class ScopeManager {
-    public static final ScopeTracker SCOPE_TRACKER = new ScopeTracker();
-}
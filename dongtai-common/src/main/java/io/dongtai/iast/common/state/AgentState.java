@@ -5,6 +5,7 @@ public class AgentState {
     private State pendingState;
     private StateCause cause;
     private boolean fallback;
+    private AgentStateListener listener;
     private static AgentState INSTANCE;
 
     public static AgentState getInstance() {
@@ -20,6 +21,7 @@ public class AgentState {
 
     public AgentState setState(State state) {
         this.state = state;
+        notifyStateChanged();
         return this;
     }
 
@@ -38,6 +40,7 @@ public class AgentState {
 
     public AgentState setPendingState(State pendingState) {
         this.pendingState = pendingState;
+        notifyStateChanged();
         return this;
     }
 
@@ -78,21 +81,35 @@ public class AgentState {
         this.state = State.PAUSED;
         this.cause = StateCause.PAUSE_BY_FALLBACK;
         this.fallback = true;
+        notifyStateChanged();
     }
 
     public void fallbackToUninstall() {
         this.state = State.UNINSTALLED;
         this.cause = StateCause.UNINSTALL_BY_FALLBACK;
         this.fallback = true;
+        notifyStateChanged();
     }
 
     public void fallbackRecover() {
         this.state = State.RUNNING;
         this.cause = StateCause.RUNNING_BY_FALLBACK_RECOVER;
         this.fallback = true;
+        notifyStateChanged();
     }
 
     public boolean isFallback() {
         return this.fallback;
     }
+
+    public void setListener(AgentStateListener listener) {
+        this.listener = listener;
+    }
+
+    private void notifyStateChanged() {
+        AgentStateListener l = this.listener;
+        if (l != null) {
+            l.onStateChanged(this);
+        }
+    }
 }
@@ -0,0 +1,8 @@
+package io.dongtai.iast.common.state;
+
+/**
+ * 监听 agent 状态变更，状态或等待状态被修改后触发
+ */
+public interface AgentStateListener {
+    void onStateChanged(AgentState agentState);
+}
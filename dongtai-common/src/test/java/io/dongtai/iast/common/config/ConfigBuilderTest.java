@@ -71,4 +71,28 @@ public class ConfigBuilderTest {
 
         ConfigBuilder.clear();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSnapshot() {
+        ConfigBuilder builder = ConfigBuilder.getInstance();
+        ConfigSnapshot before = builder.getSnapshot();
+        Assert.assertTrue("REPORT_RESPONSE_BODY default", before.isReportResponseBody());
+        Assert.assertEquals("REPORT_MAX_METHOD_POOL_SIZE default", 5000, before.getReportMaxMethodPoolSize());
+        Assert.assertEquals("REPORT_MAX_METHOD_POOL_BYTES default", 8 * 1024 * 1024,
+                before.getReportMaxMethodPoolBytes());
+        Assert.assertNull("REQUEST_DENY_LIST default", before.getRequestDenyList());
+        Assert.assertEquals("VERSION_HEADER_KEY default", "DongTai", before.getVersionHeaderKey());
+
+        builder.updateFromRemote("{\"data\": {\"gather_res_body\": false, \"method_pool_max_length\": 1000, "
+                + "\"method_pool_max_bytes\": 65536}}");
+        ConfigSnapshot after = builder.getSnapshot();
+        Assert.assertNotSame("snapshot replaced", before, after);
+        Assert.assertFalse("REPORT_RESPONSE_BODY updated", after.isReportResponseBody());
+        Assert.assertEquals("REPORT_MAX_METHOD_POOL_SIZE updated", 1000, after.getReportMaxMethodPoolSize());
+        Assert.assertEquals("REPORT_MAX_METHOD_POOL_BYTES updated", 65536, after.getReportMaxMethodPoolBytes());
+        Assert.assertTrue("old snapshot unchanged", before.isReportResponseBody());
+        Assert.assertEquals("old snapshot unchanged", 5000, before.getReportMaxMethodPoolSize());
+
+        ConfigBuilder.clear();
+    }
+}
@@ -2,9 +2,11 @@ package com.secnium.iast.core;
 
 import io.dongtai.iast.common.constants.AgentConstant;
 import io.dongtai.iast.common.state.AgentState;
+import io.dongtai.iast.common.state.AgentStateListener;
 import io.dongtai.iast.common.state.State;
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyManager;
+import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe.XXECheck;
 import io.dongtai.iast.core.init.IEngine;
 import io.dongtai.iast.core.init.impl.ConfigEngine;
 import io.dongtai.iast.core.init.impl.TransformEngine;
@@ -65,6 +67,8 @@ public class AgentEngine {
             agentEngine.init(mode, cfg, inst, policyManager);
             // Time-consuming location
             agentEngine.run();
+            AGENT_STATE.setListener(new SpySwitchListener());
+            SpyDispatcherHandler.setEnabled(EngineManager.isEngineRunning());
 
             stopWatch.stop();
             StartUpTimeReport.sendReport(EngineManager.getAgentId(), (int) stopWatch.getTime());
@@ -91,12 +95,13 @@ public class AgentEngine {
             DongTaiLog.info("Uninstall engine");
             AgentEngine agentEngine = AgentEngine.getInstance();
             assert agentEngine != null;
+            AGENT_STATE.setListener(null);
             agentEngine.destroy();
             ThreadPools.destroy();
             ServiceFactory.getInstance().destroy();
             SpyDispatcherHandler.destroy();
             DongTaiLog.info("Engine uninstallation succeeded");
-            EngineManager.cleanThreadState();
+            EngineManager.removeThreadState();
         } catch (Throwable e) {
             DongTaiLog.error(ErrorCode.ENGINE_DESTROY_FAILED, e);
             AGENT_STATE.setState(State.EXCEPTION);
@@ -134,4 +139,17 @@ public class AgentEngine {
         }
     }
 
+    /**
+     * 引擎暂停/恢复时切换 spy 的全局开关，暂停后插桩代码只调用空实现
+     */
+    private static class SpySwitchListener implements AgentStateListener {
+        @Override
+        public void onStateChanged(AgentState agentState) {
+            boolean running = EngineManager.isEngineRunning();
+            if (running && !SpyDispatcherHandler.isEnabled()) {
+                XXECheck.invalidateAll();
+            }
+            SpyDispatcherHandler.setEnabled(running);
+        }
+    }
 }
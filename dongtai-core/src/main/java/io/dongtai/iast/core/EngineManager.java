@@ -1,16 +1,14 @@
 package io.dongtai.iast.core;
 
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.common.state.AgentState;
 import io.dongtai.iast.core.handler.context.ContextManager;
 import io.dongtai.iast.core.handler.hookpoint.IastServer;
-import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
-import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRanges;
 import io.dongtai.iast.core.service.ServerAddressReport;
 import io.dongtai.iast.core.service.ServiceFactory;
 import io.dongtai.iast.core.utils.PropertyUtils;
 import io.dongtai.iast.core.utils.threadlocal.*;
 
+import java.lang.dongtai.SpyDispatcherHandler;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -25,17 +23,15 @@ public class EngineManager {
     private final int agentId;
     private final boolean saveBytecode;
 
-    public static final RequestContext REQUEST_CONTEXT = new RequestContext();
-    public static final IastTrackMap TRACK_MAP = new IastTrackMap();
-    public static final IastTaintHashCodes TAINT_HASH_CODES = new IastTaintHashCodes();
-    public static final TaintRangesPool TAINT_RANGES_POOL = new TaintRangesPool();
+    /**
+     * per-thread request state: scopes, request context, method pool, taint pool and tracing context
+     */
+    public static final RequestStateTracker REQUEST_STATE = new RequestStateTracker();
     public static IastServer SERVER;
     public static final AgentState AGENT_STATE = AgentState.getInstance();
 
     private static final AtomicInteger reqCounts = new AtomicInteger(0);
 
-    public static final BooleanThreadLocal ENTER_REPLAY_ENTRYPOINT = new BooleanThreadLocal(false);
-
     public static EngineManager getInstance() {
         return instance;
     }
@@ -54,16 +50,19 @@ public class EngineManager {
     }
 
     /**
-     * 清除当前线程的状态，避免线程重用导致的ThreadLocal产生内存泄漏的问题
+     * 清除当前线程的状态，状态对象原地重置后留给该线程的下一个请求复用
      */
     public static void cleanThreadState() {
-        EngineManager.REQUEST_CONTEXT.remove();
-        EngineManager.TRACK_MAP.remove();
-        EngineManager.TAINT_HASH_CODES.remove();
-        EngineManager.TAINT_RANGES_POOL.remove();
-        EngineManager.ENTER_REPLAY_ENTRYPOINT.remove();
-        ContextManager.getContext().remove();
-        ScopeManager.SCOPE_TRACKER.remove();
+        EngineManager.REQUEST_STATE.get().reset();
+        SpyDispatcherHandler.setInRequest(false);
+    }
+
+    /**
+     * 移除当前线程的状态对象，用于引擎卸载，避免ThreadLocal产生内存泄漏的问题
+     */
+    public static void removeThreadState() {
+        EngineManager.REQUEST_STATE.remove();
+        SpyDispatcherHandler.setInRequest(false);
     }
 
     public static void maintainRequestCount() {
@@ -130,10 +129,9 @@ public class EngineManager {
             String newTraceId = ContextManager.currentTraceId();
             headers.put(traceIdKey, newTraceId);
         }
-        REQUEST_CONTEXT.set(requestMeta);
-        TRACK_MAP.set(new HashMap<Integer, MethodEvent>(1024));
-        TAINT_HASH_CODES.set(new HashSet<Integer>());
-        TAINT_RANGES_POOL.set(new HashMap<Integer, TaintRanges>());
-        ScopeManager.SCOPE_TRACKER.getHttpEntryScope().enter();
+        RequestState state = REQUEST_STATE.get();
+        state.setRequestContext(requestMeta);
+        state.getHttpEntryScope().enter();
+        SpyDispatcherHandler.setInRequest(true);
     }
 }
@@ -1,6 +1,5 @@
 package io.dongtai.iast.core.bytecode;
 
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.bytecode.enhance.ClassContext;
 import io.dongtai.iast.core.bytecode.enhance.IastClassDiagram;
@@ -112,7 +111,7 @@ public class IastClassFileTransformer implements ClassFileTransformer {
                             final ProtectionDomain protectionDomain,
                             final byte[] srcByteCodeArray) {
         try {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterAgent();
+            EngineManager.REQUEST_STATE.get().getPolicyScope().enterAgent();
 
             if (internalClassName == null
                     || internalClassName.startsWith("io/dongtai/")
@@ -180,7 +179,7 @@ public class IastClassFileTransformer implements ClassFileTransformer {
             DongTaiLog.warn(ErrorCode.TRANSFORM_CLASS_FAILED, internalClassName, throwable);
         } finally {
             classDiagram.setLoader(null);
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveAgent();
+            EngineManager.REQUEST_STATE.get().getPolicyScope().leaveAgent();
         }
 
         return null;
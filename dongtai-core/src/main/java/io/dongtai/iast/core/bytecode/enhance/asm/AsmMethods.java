@@ -30,6 +30,14 @@ public interface AsmMethods {
             SpyDispatcherHandler.class,
             "getDispatcher"
     );
+    Method SPY_HANDLER$getEntryDispatcher = InnerHelper.getAsmMethod(
+            SpyDispatcherHandler.class,
+            "getEntryDispatcher"
+    );
+    Method SPY_HANDLER$isInRequest = InnerHelper.getAsmMethod(
+            SpyDispatcherHandler.class,
+            "isInRequest"
+    );
     Method SPY$enterHttp = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
             "enterHttp"
@@ -69,19 +77,21 @@ public interface AsmMethods {
             SpyDispatcher.class,
             "isFirstLevelSource"
     );
-    Method SPY$enterPropagator = InnerHelper.getAsmMethod(
+    Method SPY$enterPropagatorScope = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
-            "enterPropagator",
+            "enterPropagatorScope",
             boolean.class
     );
-    Method SPY$leavePropagator = InnerHelper.getAsmMethod(
+    Method SPY$leavePropagatorScope = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
-            "leavePropagator",
+            "leavePropagatorScope",
+            int.class,
             boolean.class
     );
-    Method SPY$isFirstLevelPropagator = InnerHelper.getAsmMethod(
+    Method SPY$isTainted = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
-            "isFirstLevelPropagator"
+            "isTainted",
+            Object.class
     );
     Method SPY$enterSink = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
@@ -116,7 +126,7 @@ public interface AsmMethods {
             Object.class,
             Object[].class,
             Object.class,
-            String.class,
+            int.class,
             String.class,
             String.class,
             String.class,
@@ -134,6 +144,12 @@ public interface AsmMethods {
             String.class
     );
 
+    Method SPY$xmlParserConfigured = InnerHelper.getAsmMethod(
+            SpyDispatcher.class,
+            "xmlParserConfigured",
+            Object.class
+    );
+
     Method SPY$reportService = InnerHelper.getAsmMethod(
             SpyDispatcher.class,
             "reportService",
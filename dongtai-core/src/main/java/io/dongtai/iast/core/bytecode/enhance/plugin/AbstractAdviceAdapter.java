@@ -5,6 +5,7 @@ import io.dongtai.iast.core.bytecode.enhance.MethodContext;
 import io.dongtai.iast.core.bytecode.enhance.asm.AsmMethods;
 import io.dongtai.iast.core.bytecode.enhance.asm.AsmTypes;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNode;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNodeRegistry;
 import io.dongtai.iast.core.utils.AsmUtils;
 import org.objectweb.asm.*;
 import org.objectweb.asm.commons.AdviceAdapter;
@@ -136,7 +137,7 @@ public abstract class AbstractAdviceAdapter extends AdviceAdapter implements Asm
         loadThisOrPushNullIfIsStatic();
         loadArgArray();
         loadLocal(this.nextLocal - 1);
-        push(policyNode.toString());
+        push(PolicyNodeRegistry.register(policyNode));
         push(this.context.getClassName());
         push(this.context.getMatchedClassName());
         push(this.name);
@@ -5,6 +5,7 @@ import io.dongtai.iast.core.bytecode.enhance.plugin.authentication.shiro.Dispatc
 import io.dongtai.iast.core.bytecode.enhance.plugin.core.DispatchClassPlugin;
 import io.dongtai.iast.core.bytecode.enhance.plugin.framework.feign.DispatchFeign;
 import io.dongtai.iast.core.bytecode.enhance.plugin.framework.j2ee.dispatch.DispatchJ2ee;
+import io.dongtai.iast.core.bytecode.enhance.plugin.framework.xml.DispatchXmlParser;
 import io.dongtai.iast.core.bytecode.enhance.plugin.hardcoded.DispatchHardcodedPlugin;
 import io.dongtai.iast.core.bytecode.enhance.plugin.service.jdbc.DispatchJdbc;
 import io.dongtai.iast.core.bytecode.enhance.plugin.service.kafka.DispatchKafka;
@@ -26,6 +27,11 @@ public class PluginRegister {
      */
     private final List<DispatchPlugin> plugins;
 
+    /**
+     * xml parsers may have policy hooks too, so the config tracking wraps the visitor of the matched plugin
+     */
+    private final DispatchPlugin xmlParserPlugin = new DispatchXmlParser();
+
     public PluginRegister() {
         this.plugins = new ArrayList<DispatchPlugin>();
         this.plugins.add(new DispatchSpringApplication());
@@ -52,6 +58,6 @@ public class PluginRegister {
                 break;
             }
         }
-        return classVisitor;
+        return this.xmlParserPlugin.dispatch(classVisitor, context, policy);
     }
 }
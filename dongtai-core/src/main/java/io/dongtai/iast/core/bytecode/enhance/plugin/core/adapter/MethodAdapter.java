@@ -9,6 +9,12 @@ import org.objectweb.asm.MethodVisitor;
 import java.util.Set;
 
 public abstract class MethodAdapter implements AsmTypes, AsmMethods {
+    /**
+     * declare and initialize the locals shared by enter and exit hooks, called before the try block
+     */
+    public void initLocals(MethodAdviceAdapter adapter, MethodContext context, Set<PolicyNode> policyNodes) {
+    }
+
     public abstract void onMethodEnter(MethodAdviceAdapter adapter, MethodVisitor mv, MethodContext context,
                                        Set<PolicyNode> policyNodes);
     public abstract void onMethodExit(MethodAdviceAdapter adapter, MethodVisitor mv, int opcode, MethodContext context,
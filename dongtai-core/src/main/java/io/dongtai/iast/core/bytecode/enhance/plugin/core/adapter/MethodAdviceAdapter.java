@@ -7,6 +7,7 @@ import io.dongtai.iast.core.bytecode.enhance.plugin.AbstractAdviceAdapter;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNode;
 import org.objectweb.asm.Label;
 import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
 
 import java.util.Set;
 
@@ -14,6 +15,7 @@ public class MethodAdviceAdapter extends AbstractAdviceAdapter implements AsmTyp
     private final Set<PolicyNode> policyNodes;
     private final MethodAdapter[] methodAdapters;
     private Label exHandler;
+    private int inRequestLocal;
 
     public MethodAdviceAdapter(MethodVisitor mv, int access, String name, String descriptor, String signature,
                                Set<PolicyNode> policyNodes, MethodContext context, MethodAdapter[] methodAdapters) {
@@ -33,6 +35,13 @@ public class MethodAdviceAdapter extends AbstractAdviceAdapter implements AsmTyp
     @Override
     protected void onMethodEnter() {
         if (this.policyNodes != null && !this.policyNodes.isEmpty()) {
+            for (MethodAdapter methodAdapter : this.methodAdapters) {
+                methodAdapter.initLocals(this, this.context, this.policyNodes);
+            }
+            // read the request flag once before the try block, enter and exit hooks share the same decision
+            invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$isInRequest);
+            this.inRequestLocal = newLocal(Type.BOOLEAN_TYPE);
+            storeLocal(this.inRequestLocal);
             this.tryLabel = new Label();
             visitLabel(this.tryLabel);
             enterMethod();
@@ -42,9 +51,13 @@ public class MethodAdviceAdapter extends AbstractAdviceAdapter implements AsmTyp
     }
 
     private void enterMethod() {
+        Label skipLabel = new Label();
+        loadLocal(this.inRequestLocal);
+        ifZCmp(EQ, skipLabel);
         for (MethodAdapter methodAdapter : this.methodAdapters) {
             methodAdapter.onMethodEnter(this, this.mv, this.context, this.policyNodes);
         }
+        mark(skipLabel);
     }
 
     @Override
@@ -55,9 +68,13 @@ public class MethodAdviceAdapter extends AbstractAdviceAdapter implements AsmTyp
     }
 
     private void leaveMethod(int opcode) {
+        Label skipLabel = new Label();
+        loadLocal(this.inRequestLocal);
+        ifZCmp(EQ, skipLabel);
         for (MethodAdapter methodAdapter : this.methodAdapters) {
             methodAdapter.onMethodExit(this, this.mv, opcode, this.context, this.policyNodes);
         }
+        mark(skipLabel);
     }
 
     @Override
@@ -4,71 +4,132 @@ import io.dongtai.iast.core.bytecode.enhance.MethodContext;
 import io.dongtai.iast.core.handler.hookpoint.controller.impl.PropagatorImpl;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNode;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PropagatorNode;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.TaintPosition;
 import org.objectweb.asm.*;
+import org.objectweb.asm.commons.GeneratorAdapter;
 
+import java.lang.reflect.Modifier;
 import java.util.Set;
 
 public class PropagatorAdapter extends MethodAdapter {
+    /**
+     * local slot of the propagator scope level returned on enter, -1 if the method has no propagator node.
+     * methods of a class are visited one by one, so the slot of the current method is kept here.
+     */
+    private int scopeLevelLocal = -1;
+
+    @Override
+    public void initLocals(MethodAdviceAdapter adapter, MethodContext context, Set<PolicyNode> policyNodes) {
+        this.scopeLevelLocal = -1;
+        if (!hasPropagatorNode(policyNodes)) {
+            return;
+        }
+        this.scopeLevelLocal = adapter.newLocal(Type.INT_TYPE);
+        adapter.push(0);
+        adapter.storeLocal(this.scopeLevelLocal);
+    }
+
     @Override
     public void onMethodEnter(MethodAdviceAdapter adapter, MethodVisitor mv, MethodContext context,
                               Set<PolicyNode> policyNodes) {
-        for (PolicyNode policyNode : policyNodes) {
-            if (!(policyNode instanceof PropagatorNode)) {
-                continue;
-            }
-
-            String signature = context.toString();
-            enterScope(adapter, signature);
+        if (this.scopeLevelLocal < 0) {
+            return;
         }
+
+        String signature = context.toString();
+        enterScope(adapter, signature);
+        adapter.storeLocal(this.scopeLevelLocal);
     }
 
     @Override
     public void onMethodExit(MethodAdviceAdapter adapter, MethodVisitor mv, int opcode, MethodContext context,
                              Set<PolicyNode> policyNodes) {
+        if (this.scopeLevelLocal < 0) {
+            return;
+        }
+
+        Label endLabel = new Label();
+
+        String signature = context.toString();
+
+        adapter.loadLocal(this.scopeLevelLocal);
+        adapter.ifZCmp(GeneratorAdapter.LE, endLabel);
+        leaveScope(adapter, signature);
+        adapter.ifZCmp(GeneratorAdapter.EQ, endLabel);
+
         for (PolicyNode policyNode : policyNodes) {
             if (!(policyNode instanceof PropagatorNode)) {
                 continue;
             }
 
             Label elseLabel = new Label();
-            Label endLabel = new Label();
-
-            String signature = context.toString();
-
-            isFirstScope(adapter);
-            mv.visitJumpInsn(Opcodes.IFEQ, elseLabel);
-
+            isSourceTainted(adapter, mv, context, (PropagatorNode) policyNode, elseLabel);
             adapter.trackMethod(opcode, policyNode, true);
-
             adapter.mark(elseLabel);
-            adapter.mark(endLabel);
+        }
 
-            leaveScope(adapter, signature);
+        adapter.mark(endLabel);
+    }
+
+    private static boolean hasPropagatorNode(Set<PolicyNode> policyNodes) {
+        for (PolicyNode policyNode : policyNodes) {
+            if (policyNode instanceof PropagatorNode) {
+                return true;
+            }
         }
+        return false;
     }
 
     private void enterScope(MethodAdviceAdapter adapter, String signature) {
         adapter.invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
-        if (PropagatorImpl.isSkipScope(signature)) {
-            adapter.push(true);
-        } else {
-            adapter.push(false);
-        }
-        adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$enterPropagator);
+        adapter.push(PropagatorImpl.isSkipScope(signature));
+        adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$enterPropagatorScope);
     }
 
     private void leaveScope(MethodAdviceAdapter adapter, String signature) {
         adapter.invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
-        if (PropagatorImpl.isSkipScope(signature)) {
-            adapter.push(true);
-        } else {
-            adapter.push(false);
+        adapter.loadLocal(this.scopeLevelLocal);
+        adapter.push(PropagatorImpl.isSkipScope(signature));
+        adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$leavePropagatorScope);
+    }
+
+    /**
+     * check the source objects of the propagator one by one before capturing the arguments, so that the parameter
+     * array and the boxed values are only created when a source is tainted. primitive sources can never be tainted
+     * and are skipped.
+     */
+    private void isSourceTainted(MethodAdviceAdapter adapter, MethodVisitor mv, MethodContext context,
+                                 PropagatorNode propagatorNode, Label elseLabel) {
+        Type[] argumentTypes = Type.getArgumentTypes(context.getDescriptor());
+        boolean isStatic = Modifier.isStatic(context.getModifier());
+        Label trackLabel = new Label();
+
+        for (TaintPosition position : propagatorNode.getSources()) {
+            if (position.isObject()) {
+                if (isStatic) {
+                    continue;
+                }
+                adapter.invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+                adapter.loadThis();
+            } else if (position.isParameter()) {
+                int parameterIndex = position.getParameterIndex();
+                if (parameterIndex >= argumentTypes.length || !isReference(argumentTypes[parameterIndex])) {
+                    continue;
+                }
+                adapter.invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+                adapter.loadArg(parameterIndex);
+            } else {
+                continue;
+            }
+            adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$isTainted);
+            mv.visitJumpInsn(Opcodes.IFNE, trackLabel);
         }
-        adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$leavePropagator);
+
+        adapter.goTo(elseLabel);
+        adapter.mark(trackLabel);
     }
 
-    private void isFirstScope(MethodAdviceAdapter adapter) {
-        adapter.invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
-        adapter.invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$isFirstLevelPropagator);
+    private static boolean isReference(Type type) {
+        return type.getSort() == Type.OBJECT || type.getSort() == Type.ARRAY;
     }
 }
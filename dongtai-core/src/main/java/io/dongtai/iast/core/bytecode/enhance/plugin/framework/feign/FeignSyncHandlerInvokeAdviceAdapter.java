@@ -6,6 +6,7 @@ import org.objectweb.asm.*;
 
 public class FeignSyncHandlerInvokeAdviceAdapter extends AbstractAdviceAdapter {
     private Label exHandler;
+    private int scopeLevelLocal;
 
     protected FeignSyncHandlerInvokeAdviceAdapter(MethodVisitor mv, int access, String name, String desc, String signature, ClassContext context) {
         super(mv, access, name, desc, context, "feign", signature);
@@ -13,6 +14,9 @@ public class FeignSyncHandlerInvokeAdviceAdapter extends AbstractAdviceAdapter {
 
     @Override
     protected void onMethodEnter() {
+        enterScope();
+        this.scopeLevelLocal = newLocal(Type.INT_TYPE);
+        storeLocal(this.scopeLevelLocal);
         this.tryLabel = new Label();
         visitLabel(this.tryLabel);
         enterMethod();
@@ -44,13 +48,11 @@ public class FeignSyncHandlerInvokeAdviceAdapter extends AbstractAdviceAdapter {
     }
 
     private void enterMethod() {
-        enterScope();
-
         Label elseLabel = new Label();
         Label endLabel = new Label();
 
-        isFirstScope();
-        mv.visitJumpInsn(Opcodes.IFEQ, elseLabel);
+        loadLocal(this.scopeLevelLocal);
+        mv.visitJumpInsn(Opcodes.IFLE, elseLabel);
 
         traceMethod();
 
@@ -59,24 +61,27 @@ public class FeignSyncHandlerInvokeAdviceAdapter extends AbstractAdviceAdapter {
     }
 
     private void leaveMethod(int opcode) {
+        Label endLabel = new Label();
+
+        loadLocal(this.scopeLevelLocal);
+        mv.visitJumpInsn(Opcodes.IFLE, endLabel);
         leaveScope();
+
+        mark(endLabel);
     }
 
     private void enterScope() {
         invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
         push(false);
-        invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$enterPropagator);
+        invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$enterPropagatorScope);
     }
 
     private void leaveScope() {
         invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+        loadLocal(this.scopeLevelLocal);
         push(false);
-        invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$leavePropagator);
-    }
-
-    private void isFirstScope() {
-        invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
-        invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$isFirstLevelPropagator);
+        invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$leavePropagatorScope);
+        pop();
     }
 
     private void traceMethod() {
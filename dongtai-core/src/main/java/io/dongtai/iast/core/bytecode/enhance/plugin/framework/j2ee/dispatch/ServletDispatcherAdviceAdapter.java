@@ -46,12 +46,13 @@ public class ServletDispatcherAdviceAdapter extends AbstractAdviceAdapter {
     }
 
     private void enterHttp() {
-        invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+        invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getEntryDispatcher);
         invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$enterHttp);
     }
 
     private void leaveHttp() {
-        invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+        // not switched off while the engine is paused, the request in flight cleans the thread state on leave
+        invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getEntryDispatcher);
         loadArg(0);
         loadArg(1);
         invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$leaveHttp);
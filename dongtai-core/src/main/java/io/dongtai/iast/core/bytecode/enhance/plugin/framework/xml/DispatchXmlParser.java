@@ -0,0 +1,44 @@
+package io.dongtai.iast.core.bytecode.enhance.plugin.framework.xml;
+
+import io.dongtai.iast.core.bytecode.enhance.ClassContext;
+import io.dongtai.iast.core.bytecode.enhance.plugin.DispatchPlugin;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.Policy;
+import org.objectweb.asm.ClassVisitor;
+
+import java.util.*;
+
+/**
+ * track the configuration changes of xml parsers and factories, which invalidate the cached xxe verdicts
+ */
+public class DispatchXmlParser implements DispatchPlugin {
+    private static final Set<String> XML_PARSER_CLASSES = new HashSet<String>(Arrays.asList(
+            " org.xml.sax.XMLReader".substring(1),
+            " javax.xml.parsers.SAXParser".substring(1),
+            " javax.xml.stream.XMLInputFactory".substring(1),
+            " org.apache.xerces.parsers.XMLParser".substring(1),
+            " com.sun.org.apache.xerces.internal.parsers.XMLParser".substring(1)
+    ));
+
+    @Override
+    public ClassVisitor dispatch(ClassVisitor classVisitor, ClassContext context, Policy policy) {
+        if (isXmlParser(context.getClassName(), context.getAncestors())) {
+            classVisitor = new XmlParserConfigAdapter(classVisitor, context);
+        }
+        return classVisitor;
+    }
+
+    private boolean isXmlParser(String className, Set<String> ancestors) {
+        if (XML_PARSER_CLASSES.contains(className)) {
+            return true;
+        }
+        if (ancestors == null) {
+            return false;
+        }
+        for (String parserClass : XML_PARSER_CLASSES) {
+            if (ancestors.contains(parserClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package io.dongtai.iast.core.bytecode.enhance.plugin.framework.xml;
+
+import io.dongtai.iast.core.bytecode.enhance.ClassContext;
+import io.dongtai.iast.core.bytecode.enhance.plugin.AbstractClassVisitor;
+import io.dongtai.log.DongTaiLog;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+
+import java.lang.reflect.Modifier;
+
+public class XmlParserConfigAdapter extends AbstractClassVisitor {
+    private static final String SET_FEATURE = "setFeature";
+    private static final String SET_FEATURE_DESC = "(Ljava/lang/String;Z)V";
+    private static final String SET_PROPERTY = "setProperty";
+    private static final String SET_PROPERTY_DESC = "(Ljava/lang/String;Ljava/lang/Object;)V";
+
+    public XmlParserConfigAdapter(ClassVisitor classVisitor, ClassContext context) {
+        super(classVisitor, context);
+    }
+
+    @Override
+    public MethodVisitor visitMethod(final int access, final String name, final String desc, final String signature, final String[] exceptions) {
+        MethodVisitor mv = super.visitMethod(access, name, desc, signature, exceptions);
+        if (Modifier.isAbstract(access) || Modifier.isStatic(access)) {
+            return mv;
+        }
+
+        if ((SET_FEATURE.equals(name) && SET_FEATURE_DESC.equals(desc))
+                || (SET_PROPERTY.equals(name) && SET_PROPERTY_DESC.equals(desc))) {
+            DongTaiLog.debug("Adding xml parser config tracking for type {}.{}", context.getClassName(), name);
+            mv = new XmlParserConfigAdviceAdapter(mv, access, name, desc);
+            setTransformed();
+        }
+        return mv;
+    }
+
+    /**
+     * the class may be transformed by the policy hooks too, which are visited by the wrapped visitor
+     */
+    @Override
+    public boolean hasTransformed() {
+        return super.hasTransformed()
+                || (this.cv instanceof AbstractClassVisitor && ((AbstractClassVisitor) this.cv).hasTransformed());
+    }
+}
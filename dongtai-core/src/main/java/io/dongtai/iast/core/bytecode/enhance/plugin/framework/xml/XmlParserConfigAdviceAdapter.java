@@ -0,0 +1,22 @@
+package io.dongtai.iast.core.bytecode.enhance.plugin.framework.xml;
+
+import io.dongtai.iast.core.bytecode.enhance.asm.AsmMethods;
+import io.dongtai.iast.core.bytecode.enhance.asm.AsmTypes;
+import io.dongtai.iast.core.utils.AsmUtils;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.commons.AdviceAdapter;
+
+public class XmlParserConfigAdviceAdapter extends AdviceAdapter implements AsmTypes, AsmMethods {
+    protected XmlParserConfigAdviceAdapter(MethodVisitor mv, int access, String name, String desc) {
+        super(AsmUtils.api, mv, access, name, desc);
+    }
+
+    @Override
+    protected void onMethodExit(int opcode) {
+        if (opcode != ATHROW) {
+            invokeStatic(ASM_TYPE_SPY_HANDLER, SPY_HANDLER$getDispatcher);
+            loadThis();
+            invokeInterface(ASM_TYPE_SPY_DISPATCHER, SPY$xmlParserConfigured);
+        }
+    }
+}
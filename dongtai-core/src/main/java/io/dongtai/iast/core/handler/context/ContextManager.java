@@ -1,21 +1,28 @@
 package io.dongtai.iast.core.handler.context;
 
+import io.dongtai.iast.core.EngineManager;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
+
 /**
  * @author owefsad
  */
 public class ContextManager {
-    private static ThreadLocal<TracingContext> CONTEXT = new ThreadLocal<TracingContext>();
+    public static TracingContext getContext() {
+        return EngineManager.REQUEST_STATE.get().getTracingContext();
+    }
 
-    public static ThreadLocal<TracingContext> getContext() {
-        return CONTEXT;
+    public static void removeContext() {
+        EngineManager.REQUEST_STATE.get().setTracingContext(null);
     }
 
-    public static void initContext() {
-        TracingContext context = CONTEXT.get();
+    public static TracingContext initContext() {
+        RequestState state = EngineManager.REQUEST_STATE.get();
+        TracingContext context = state.getTracingContext();
         if (context == null) {
             context = new TracingContext();
-            CONTEXT.set(context);
+            state.setTracingContext(context);
         }
+        return context;
     }
 
     public static String getHeaderKey() {
@@ -24,16 +31,14 @@ public class ContextManager {
 
     public static void parseTraceId(String traceId) {
         TracingContext context = TracingContext.getIncoming(traceId);
-        CONTEXT.set(context);
+        EngineManager.REQUEST_STATE.get().setTracingContext(context);
     }
 
     public static String currentTraceId() {
-        initContext();
-        return CONTEXT.get().toString();
+        return initContext().toString();
     }
 
     public static String nextTraceId() {
-        initContext();
-        return CONTEXT.get().newOutgoing();
+        return initContext().newOutgoing();
     }
 }
@@ -1,8 +1,6 @@
 package io.dongtai.iast.core.handler.hookpoint;
 
-import com.secnium.iast.core.AgentEngine;
 import io.dongtai.iast.common.config.*;
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.bytecode.enhance.plugin.spring.SpringApplicationImpl;
 import io.dongtai.iast.core.handler.hookpoint.controller.HookType;
@@ -11,6 +9,11 @@ import io.dongtai.iast.core.handler.hookpoint.graphy.GraphBuilder;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.*;
 import io.dongtai.iast.core.handler.hookpoint.service.trace.FeignService;
+import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe.XXECheck;
+import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.threadlocal.IastTrackMap;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
+import io.dongtai.iast.core.utils.threadlocal.TaintObjectPool;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
 
@@ -35,7 +38,7 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             return;
         }
         try {
-            ScopeManager.SCOPE_TRACKER.getHttpRequestScope().enter();
+            EngineManager.REQUEST_STATE.get().getHttpRequestScope().enter();
         } catch (Throwable ignore) {
         }
     }
@@ -53,9 +56,9 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             return;
         }
         try {
-            ScopeManager.SCOPE_TRACKER.getHttpRequestScope().leave();
-            if (!ScopeManager.SCOPE_TRACKER.getHttpRequestScope().in()
-                    && ScopeManager.SCOPE_TRACKER.getHttpEntryScope().in()) {
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            state.getHttpRequestScope().leave();
+            if (!state.getHttpRequestScope().in() && state.getHttpEntryScope().in()) {
                 EngineManager.maintainRequestCount();
                 GraphBuilder.buildAndReport(request, response);
                 EngineManager.cleanThreadState();
@@ -77,7 +80,7 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             return false;
         }
         try {
-            return ScopeManager.SCOPE_TRACKER.getHttpRequestScope().isFirst();
+            return EngineManager.REQUEST_STATE.get().getHttpRequestScope().isFirst();
         } catch (Throwable ignore) {
             return false;
         }
@@ -129,10 +132,11 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return;
             }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            if (state.inAgent() || !state.inEnterEntry()) {
                 return;
             }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterSource();
+            state.getPolicyScope().enterSource();
         } catch (Throwable ignore) {
         }
     }
@@ -148,10 +152,11 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return;
             }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            if (state.inAgent() || !state.inEnterEntry()) {
                 return;
             }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveSource();
+            state.getPolicyScope().leaveSource();
         } catch (Throwable ignore) {
         }
     }
@@ -168,65 +173,65 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return false;
             }
-            return ScopeManager.SCOPE_TRACKER.inEnterEntry()
-                    && ScopeManager.SCOPE_TRACKER.getPolicyScope().isValidSource();
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            return state.inEnterEntry() && state.getPolicyScope().isValidSource();
         } catch (Throwable ignore) {
             return false;
         }
     }
 
     /**
-     * mark for enter Source Entry Point
+     * mark for enter Propagator Entry Point
      *
-     * @since 1.3.1
+     * @return propagator scope level after enter, 0 if the scope is not entered
+     * @since 1.8.2
      */
     @Override
-    public void enterPropagator(boolean skipScope) {
+    public int enterPropagatorScope(boolean skipScope) {
         try {
             if (!EngineManager.isEngineRunning()) {
-                return;
+                return 0;
             }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
-                return;
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            if (state.inAgent() || !state.inEnterEntry()) {
+                return 0;
             }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterPropagator(skipScope);
+            return state.getPolicyScope().enterPropagator(skipScope);
         } catch (Throwable ignore) {
+            return 0;
         }
     }
 
     /**
-     * mark for leave Source Entry Point
+     * mark for leave Propagator Entry Point, only called when the scope is entered
      *
-     * @since 1.3.1
+     * @return true if is a layer 1 Propagator entry; else false
+     * @since 1.8.2
      */
     @Override
-    public void leavePropagator(boolean skipScope) {
+    public boolean leavePropagatorScope(int scopeLevel, boolean skipScope) {
         try {
-            if (!EngineManager.isEngineRunning()) {
-                return;
-            }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
-                return;
-            }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leavePropagator(skipScope);
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            boolean isValid = state.getPolicyScope().leavePropagator(scopeLevel, skipScope);
+            return isValid && state.inEnterEntry() && EngineManager.isEngineRunning();
         } catch (Throwable ignore) {
+            return false;
         }
     }
 
     /**
-     * Determines whether it is a layer 1 Propagator entry
+     * Determines whether the object is in the taint pool of current request
      *
-     * @return true if is a layer 1 Propagator entry; else false
-     * @since 1.3.1
+     * @since 1.8.2
      */
     @Override
-    public boolean isFirstLevelPropagator() {
+    public boolean isTainted(Object obj) {
         try {
-            if (!EngineManager.isEngineRunning()) {
+            if (obj == null) {
                 return false;
             }
-            return ScopeManager.SCOPE_TRACKER.inEnterEntry()
-                    && ScopeManager.SCOPE_TRACKER.getPolicyScope().isValidPropagator();
+            TaintObjectPool taintPool = EngineManager.REQUEST_STATE.get().getTaintPool();
+            return !taintPool.isEmpty() && TaintPoolUtils.poolContains(taintPool, obj);
         } catch (Throwable ignore) {
             return false;
         }
@@ -243,10 +248,11 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return;
             }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            if (state.inAgent() || !state.inEnterEntry()) {
                 return;
             }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterSink();
+            state.getPolicyScope().enterSink();
         } catch (Throwable ignore) {
         }
     }
@@ -262,10 +268,11 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return;
             }
-            if (ScopeManager.SCOPE_TRACKER.inAgent() || !ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            if (state.inAgent() || !state.inEnterEntry()) {
                 return;
             }
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveSink();
+            state.getPolicyScope().leaveSink();
         } catch (Throwable ignore) {
         }
     }
@@ -281,8 +288,8 @@ public class SpyDispatcherImpl implements SpyDispatcher {
             if (!EngineManager.isEngineRunning()) {
                 return false;
             }
-            return ScopeManager.SCOPE_TRACKER.inEnterEntry()
-                    && ScopeManager.SCOPE_TRACKER.getPolicyScope().isValidSink();
+            RequestState state = EngineManager.REQUEST_STATE.get();
+            return state.inEnterEntry() && state.getPolicyScope().isValidSink();
         } catch (Throwable ignore) {
             return false;
         }
@@ -295,12 +302,12 @@ public class SpyDispatcherImpl implements SpyDispatcher {
 
     @Override
     public boolean isReplayRequest() {
-        return EngineManager.ENTER_REPLAY_ENTRYPOINT.get();
+        return EngineManager.REQUEST_STATE.get().isReplayRequest();
     }
 
     @Override
     public boolean isNotReplayRequest() {
-        return !EngineManager.ENTER_REPLAY_ENTRYPOINT.get();
+        return !EngineManager.REQUEST_STATE.get().isReplayRequest();
     }
 
     /**
@@ -311,10 +318,11 @@ public class SpyDispatcherImpl implements SpyDispatcher {
     public boolean collectMethodPool(Object instance, Object[] argumentArray, Object retValue, String framework,
                                      String className, String matchClassName, String methodName, String methodSign, boolean isStatic,
                                      int hookType) {
+        RequestState state = EngineManager.REQUEST_STATE.get();
         try {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterAgent();
+            state.getPolicyScope().enterAgent();
 
-            if (!isCollectAllowed(true)) {
+            if (!isCollectAllowed(state, true)) {
                 return false;
             }
 
@@ -330,37 +338,49 @@ public class SpyDispatcherImpl implements SpyDispatcher {
         } catch (Throwable e) {
             DongTaiLog.error(ErrorCode.SPY_COLLECT_HTTP_FAILED, e);
         } finally {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveAgent();
+            state.getPolicyScope().leaveAgent();
         }
         return false;
     }
 
     @Override
-    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, String policyKey,
+    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, int policyId,
                                  String className, String matchedClassName, String methodName, String signature,
                                  boolean isStatic) {
+        RequestState state = EngineManager.REQUEST_STATE.get();
         try {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterAgent();
-            PolicyNode policyNode = getPolicyNode(policyKey);
+            state.getPolicyScope().enterAgent();
+            PolicyNode policyNode = PolicyNodeRegistry.get(policyId);
             if (policyNode == null) {
                 return false;
             }
 
-            if (!isCollectAllowed(false)) {
+            if (!isCollectAllowed(state, false)) {
                 return false;
             }
 
+            // check the raw instance and parameters first, most propagator and sink calls create no event
+            if ((policyNode instanceof PropagatorNode)) {
+                if (!PropagatorImpl.hasTaintedSource(state, (PropagatorNode) policyNode, instance, parameters)) {
+                    return false;
+                }
+            } else if ((policyNode instanceof SinkNode)) {
+                if (!SinkImpl.isScanRequired(state, (SinkNode) policyNode)) {
+                    return false;
+                }
+            }
+
             MethodEvent event = new MethodEvent(className, matchedClassName, methodName,
                     signature, instance, parameters, retObject);
 
             if ((policyNode instanceof SourceNode)) {
-                SourceImpl.solveSource(event, (SourceNode) policyNode, INVOKE_ID_SEQUENCER);
+                SourceImpl.solveSource(state, event, (SourceNode) policyNode, INVOKE_ID_SEQUENCER);
                 return true;
             } else if ((policyNode instanceof PropagatorNode)) {
-                PropagatorImpl.solvePropagator(event, (PropagatorNode) policyNode, INVOKE_ID_SEQUENCER);
+                PropagatorImpl.solvePropagator(state, event, (PropagatorNode) policyNode, INVOKE_ID_SEQUENCER);
                 return true;
             } else if ((policyNode instanceof SinkNode)) {
-                SinkImpl.solveSink(event, (SinkNode) policyNode);
+                SinkImpl.solveSink(state, event, (SinkNode) policyNode);
                 return true;
             }
 
@@ -368,7 +388,7 @@ public class SpyDispatcherImpl implements SpyDispatcher {
         } catch (Throwable e) {
             DongTaiLog.error(ErrorCode.SPY_COLLECT_METHOD_FAILED, e);
         } finally {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveAgent();
+            state.getPolicyScope().leaveAgent();
         }
         return false;
     }
@@ -376,65 +396,79 @@ public class SpyDispatcherImpl implements SpyDispatcher {
     @Override
     public boolean traceFeignInvoke(Object instance, Object[] parameters,
                                     String className, String methodName, String signature) {
+        RequestState state = EngineManager.REQUEST_STATE.get();
+        if (!state.getPolicyScope().isValidPropagator()) {
+            return false;
+        }
         try {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterAgent();
-            if (!isCollectAllowed(false)) {
+            state.getPolicyScope().enterAgent();
+            if (!isCollectAllowed(state, false)) {
                 return false;
             }
 
             MethodEvent event = new MethodEvent(className, className, methodName,
                     signature, instance, parameters, null);
 
-            FeignService.solveSyncInvoke(event, INVOKE_ID_SEQUENCER);
+            FeignService.solveSyncInvoke(state, event, INVOKE_ID_SEQUENCER);
         } catch (Throwable e) {
             DongTaiLog.error(ErrorCode.SPY_TRACE_FEIGN_INVOKE_FAILED, e);
         } finally {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveAgent();
+            state.getPolicyScope().leaveAgent();
         }
         return false;
     }
 
-    @SuppressWarnings("unchecked")
-    private boolean isCollectAllowed(boolean isEnterEntry) {
+    @Override
+    public void xmlParserConfigured(Object parser) {
+        if (!EngineManager.isEngineRunning()) {
+            return;
+        }
+        RequestState state = EngineManager.REQUEST_STATE.get();
+        try {
+            state.getPolicyScope().enterAgent();
+            XXECheck.invalidate(parser);
+        } catch (Throwable e) {
+            DongTaiLog.error(ErrorCode.SPY_XML_PARSER_CONFIGURED_FAILED, e);
+        } finally {
+            state.getPolicyScope().leaveAgent();
+        }
+    }
+
+    private boolean isCollectAllowed(RequestState state, boolean isEnterEntry) {
         if (!EngineManager.isEngineRunning()) {
             return false;
         }
 
         if (!isEnterEntry) {
-            if (!ScopeManager.SCOPE_TRACKER.inEnterEntry()) {
+            if (!state.inEnterEntry()) {
                 return false;
             }
 
-            if (ScopeManager.SCOPE_TRACKER.getPolicyScope().isOverCapacity()) {
+            if (state.getPolicyScope().isOverCapacity()) {
                 return false;
             }
 
             try {
-                int methodPoolMaxSize = ((Config<Integer>) ConfigBuilder.getInstance()
-                        .getConfig(ConfigKey.REPORT_MAX_METHOD_POOL_SIZE)).get();
-                if (methodPoolMaxSize > 0 && EngineManager.TRACK_MAP.get().size() >= methodPoolMaxSize) {
-                    ScopeManager.SCOPE_TRACKER.getPolicyScope().setOverCapacity(true);
+                ConfigSnapshot snapshot = ConfigBuilder.getInstance().getSnapshot();
+                IastTrackMap trackMap = state.getTrackMap();
+                int methodPoolMaxSize = snapshot.getReportMaxMethodPoolSize();
+                if (methodPoolMaxSize > 0 && trackMap.totalSize() >= methodPoolMaxSize) {
+                    state.getPolicyScope().setOverCapacity(true);
                     DongTaiLog.warn(ErrorCode.SPY_METHOD_POOL_OVER_CAPACITY, methodPoolMaxSize);
                     return false;
                 }
+                // no event is being built here, finished events over the budget are spilled to the local file
+                int methodPoolMaxBytes = snapshot.getReportMaxMethodPoolBytes();
+                if (methodPoolMaxBytes > 0 && trackMap.getRetainedBytes() >= methodPoolMaxBytes
+                        && !trackMap.spill()) {
+                    state.getPolicyScope().setOverCapacity(true);
+                    DongTaiLog.warn(ErrorCode.SPY_METHOD_POOL_SPILL_FAILED, trackMap.getRetainedBytes());
+                    return false;
+                }
             } catch (Throwable ignore) {
             }
         }
 
         return true;
     }
-
-    private PolicyNode getPolicyNode(String policyKey) {
-        AgentEngine agentEngine = AgentEngine.getInstance();
-        PolicyManager policyManager = agentEngine.getPolicyManager();
-        if (policyManager == null) {
-            return null;
-        }
-        Policy policy = policyManager.getPolicy();
-        if (policy == null) {
-            return null;
-        }
-
-        return policy.getPolicyNode(policyKey);
-    }
 }
@@ -1,7 +1,6 @@
 package io.dongtai.iast.core.handler.hookpoint.controller.impl;
 
 import io.dongtai.iast.common.config.*;
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.IastClassLoader;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
@@ -112,7 +111,7 @@ public class HttpImpl {
             if (response == null) {
                 return null;
             }
-            if (!ScopeManager.SCOPE_TRACKER.getHttpEntryScope().in()) {
+            if (!EngineManager.REQUEST_STATE.get().inEnterEntry()) {
                 return response;
             }
             if (ConfigMatcher.getInstance().disableExtension((String) REQUEST_META.get().get("requestURI"))) {
@@ -162,7 +161,7 @@ public class HttpImpl {
         Method methodOfRequestMeta = null;
         try {
             methodOfRequestMeta = response.getClass().getDeclaredMethod("getResponseMeta", new Class[]{boolean.class});
-            boolean getBody = ((Config<Boolean>) ConfigBuilder.getInstance().getConfig(ConfigKey.REPORT_RESPONSE_BODY)).get();
+            boolean getBody = ConfigBuilder.getInstance().getSnapshot().isReportResponseBody();
             return (Map<String, Object>) methodOfRequestMeta.invoke(response, getBody);
         } catch (Throwable e) {
             DongTaiLog.warn("HttpImpl getResponseMeta failed", e);
@@ -184,9 +183,7 @@ public class HttpImpl {
         REQUEST_META.set(requestMeta);
 
         try {
-            Config<RequestDenyList> config = (Config<RequestDenyList>) ConfigBuilder.getInstance()
-                    .getConfig(ConfigKey.REQUEST_DENY_LIST);
-            RequestDenyList requestDenyList = config.get();
+            RequestDenyList requestDenyList = ConfigBuilder.getInstance().getSnapshot().getRequestDenyList();
             if (requestDenyList != null) {
                 String requestURL = ((StringBuffer) REQUEST_META.get().get("requestURL")).toString();
                 Map<String, String> headers = (Map<String, String>) REQUEST_META.get().get("headers");
@@ -200,7 +197,7 @@ public class HttpImpl {
 
         Boolean isReplay = (Boolean) REQUEST_META.get().get("replay-request");
         if (isReplay) {
-            EngineManager.ENTER_REPLAY_ENTRYPOINT.enterEntry();
+            EngineManager.REQUEST_STATE.get().setReplayRequest(true);
         }
         // todo Consider increasing the capture of html request responses
         if (ConfigMatcher.getInstance().disableExtension((String) REQUEST_META.get().get("requestURI"))) {
@@ -1,12 +1,14 @@
 package io.dongtai.iast.core.handler.hookpoint.controller.impl;
 
-import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PropagatorNode;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.TaintPosition;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.PropagatorPlan;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.*;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import io.dongtai.iast.core.utils.StackUtils;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
+import io.dongtai.iast.core.utils.threadlocal.TaintObjectPool;
 
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -31,138 +33,168 @@ public class PropagatorImpl {
             "java.net.URL.<init>(java.lang.String,java.lang.String,int,java.lang.String,java.net.URLStreamHandler)"
     ));
 
-    public static void solvePropagator(MethodEvent event, PropagatorNode propagatorNode, AtomicInteger invokeIdSequencer) {
-        if (EngineManager.TAINT_HASH_CODES.isEmpty()) {
+    public static void solvePropagator(RequestState state, MethodEvent event, PropagatorNode propagatorNode,
+                                       AtomicInteger invokeIdSequencer) {
+        if (state.getTaintPool().isEmpty()) {
             return;
         }
-        auxiliaryPropagator(event, propagatorNode, invokeIdSequencer);
+        auxiliaryPropagator(state, event, propagatorNode, invokeIdSequencer);
 
     }
 
-    private static void addPropagator(PropagatorNode propagatorNode, MethodEvent event, AtomicInteger invokeIdSequencer) {
-        // skip same source and target
-        Set<TaintPosition> sources = propagatorNode.getSources();
-        Set<TaintPosition> targets = propagatorNode.getTargets();
+    /**
+     * 在创建方法事件之前检查原始的对象和参数是否命中污点池
+     *
+     * @param state              当前线程的请求状态
+     * @param propagatorNode     传播节点
+     * @param objectInstance     方法所属对象
+     * @param parameterInstances 方法参数
+     * @return true-有污点来源，需要创建事件；false-无需处理
+     */
+    public static boolean hasTaintedSource(RequestState state, PropagatorNode propagatorNode,
+                                           Object objectInstance, Object[] parameterInstances) {
+        TaintObjectPool taintPool = state.getTaintPool();
+        if (taintPool.isEmpty()) {
+            return false;
+        }
+        PropagatorPlan plan = propagatorNode.getPlan();
+        if (plan.isEmpty()) {
+            return false;
+        }
 
-        // O => O || O => R, source equals target
-        if (event.getSourceHashes().equals(event.getTargetHashes())
-                && sources.size() == 1 && targets.size() == 1
-                && TaintPosition.hasObject(sources)
-        ) {
-            if (TaintPosition.hasObject(targets) || TaintPosition.hasReturn(targets)) {
-                return;
+        if (plan.isSourceObject() && isTainted(taintPool, objectInstance)) {
+            return true;
+        }
+        if (parameterInstances == null) {
+            return false;
+        }
+        for (int parameterIndex : plan.getSourceParameters()) {
+            if (parameterIndex >= parameterInstances.length) {
+                break;
+            }
+            if (isTainted(taintPool, parameterInstances[parameterIndex])) {
+                return true;
             }
         }
+        return false;
+    }
+
+    private static boolean isTainted(TaintObjectPool taintPool, Object obj) {
+        return TaintPoolUtils.isNotEmpty(obj)
+                && TaintPoolUtils.isAllowTaintType(obj)
+                && TaintPoolUtils.poolContains(taintPool, obj);
+    }
+
+    private static void addPropagator(RequestState state, PropagatorNode propagatorNode, MethodEvent event,
+                                      AtomicInteger invokeIdSequencer) {
+        // skip same source and target
+        if (propagatorNode.getPlan().isObjectToSelf()
+                && event.getSourceHashes().equals(event.getTargetHashes())) {
+            return;
+        }
 
         event.source = false;
         event.setTaintPositions(propagatorNode.getSources(), propagatorNode.getTargets());
         event.setCallStacks(StackUtils.createCallStack(6));
         int invokeId = invokeIdSequencer.getAndIncrement();
         event.setInvokeId(invokeId);
-        EngineManager.TRACK_MAP.get().put(invokeId, event);
+        state.getTrackMap().addTrackMethod(invokeId, event);
     }
 
-    private static void auxiliaryPropagator(MethodEvent event, PropagatorNode propagatorNode, AtomicInteger invokeIdSequencer) {
-        Set<TaintPosition> sources = propagatorNode.getSources();
-        if (sources.isEmpty() || propagatorNode.getTargets().isEmpty()) {
+    private static void auxiliaryPropagator(RequestState state, MethodEvent event, PropagatorNode propagatorNode,
+                                            AtomicInteger invokeIdSequencer) {
+        PropagatorPlan plan = propagatorNode.getPlan();
+        if (plan.isEmpty()) {
             return;
         }
 
         boolean hasTaint = false;
-        for (TaintPosition position : sources) {
-            if (position.isObject()) {
-                boolean objHasTaint = false;
-                if (TaintPoolUtils.isNotEmpty(event.objectInstance)
-                        && TaintPoolUtils.isAllowTaintType(event.objectInstance)
-                        && TaintPoolUtils.poolContains(event.objectInstance, event)) {
-                    objHasTaint = true;
-                    hasTaint = true;
-                }
-                event.setObjectValue(event.objectInstance, objHasTaint);
-            } else if (position.isParameter()) {
-                int parameterIndex = position.getParameterIndex();
-                if (parameterIndex >= event.parameterInstances.length) {
-                    continue;
-                }
+        if (plan.isSourceObject()) {
+            boolean objHasTaint = false;
+            if (TaintPoolUtils.isNotEmpty(event.objectInstance)
+                    && TaintPoolUtils.isAllowTaintType(event.objectInstance)
+                    && TaintPoolUtils.poolContains(state.getTaintPool(), event.objectInstance, event)) {
+                objHasTaint = true;
+                hasTaint = true;
+            }
+            event.setObjectValue(event.objectInstance, objHasTaint);
+        }
+        for (int parameterIndex : plan.getSourceParameters()) {
+            if (parameterIndex >= event.parameterInstances.length) {
+                break;
+            }
 
-                boolean paramHasTaint = false;
-                Object parameter = event.parameterInstances[parameterIndex];
-                if (TaintPoolUtils.isNotEmpty(parameter)
-                        && TaintPoolUtils.isAllowTaintType(parameter)
-                        && TaintPoolUtils.poolContains(parameter, event)) {
-                    paramHasTaint = true;
-                    hasTaint = true;
-                }
-                event.addParameterValue(parameterIndex, parameter, paramHasTaint);
+            boolean paramHasTaint = false;
+            Object parameter = event.parameterInstances[parameterIndex];
+            if (TaintPoolUtils.isNotEmpty(parameter)
+                    && TaintPoolUtils.isAllowTaintType(parameter)
+                    && TaintPoolUtils.poolContains(state.getTaintPool(), parameter, event)) {
+                paramHasTaint = true;
+                hasTaint = true;
             }
+            event.addParameterValue(parameterIndex, parameter, paramHasTaint);
         }
 
         if (!hasTaint) {
             return;
         }
-        boolean valid = setTarget(propagatorNode, event);
+        boolean valid = setTarget(state, propagatorNode, plan, event);
         if (!valid) {
             return;
         }
 
-        if (!TaintPosition.hasObject(sources) && !TaintPosition.hasObject(propagatorNode.getTargets())) {
+        if (!plan.isSourceObject() && !plan.isTargetObject()) {
             event.setObjectValue(event.objectInstance, false);
         }
 
-        addPropagator(propagatorNode, event, invokeIdSequencer);
+        addPropagator(state, propagatorNode, event, invokeIdSequencer);
     }
 
-    private static boolean setTarget(PropagatorNode propagatorNode, MethodEvent event) {
-        Set<TaintPosition> targets = propagatorNode.getTargets();
-        if (targets == null || targets.isEmpty()) {
-            return false;
-        }
-
+    private static boolean setTarget(RequestState state, PropagatorNode propagatorNode, PropagatorPlan plan,
+                                     MethodEvent event) {
         boolean hasTaint = false;
-        for (TaintPosition position : targets) {
-            if (position.isObject()) {
-                boolean objHasTaint = false;
-                if (TaintPoolUtils.isNotEmpty(event.objectInstance)
-                        && TaintPoolUtils.isAllowTaintType(event.objectInstance)) {
-                    EngineManager.TAINT_HASH_CODES.addObject(event.objectInstance, event);
-                    objHasTaint = true;
-                    hasTaint = true;
-                }
-                event.setObjectValue(event.objectInstance, objHasTaint);
-            } else if (position.isReturn()) {
-                boolean retHasTaint = false;
-                if (TaintPoolUtils.isNotEmpty(event.returnInstance)
-                        && TaintPoolUtils.isAllowTaintType(event.returnInstance)) {
-                    EngineManager.TAINT_HASH_CODES.addObject(event.returnInstance, event);
-                    retHasTaint = true;
-                    hasTaint = true;
-                }
-                event.setReturnValue(event.returnInstance, retHasTaint);
-            } else if (position.isParameter()) {
-                int parameterIndex = position.getParameterIndex();
-                if (parameterIndex >= event.parameterInstances.length) {
-                    continue;
-                }
-                Object parameter = event.parameterInstances[parameterIndex];
-                if (TaintPoolUtils.isNotEmpty(parameter)
-                        && TaintPoolUtils.isAllowTaintType(parameter)) {
-                    EngineManager.TAINT_HASH_CODES.addObject(parameter, event);
-                    event.addParameterValue(parameterIndex, parameter, true);
-                    hasTaint = true;
-                }
+        if (plan.isTargetObject()) {
+            boolean objHasTaint = false;
+            if (TaintPoolUtils.isNotEmpty(event.objectInstance)
+                    && TaintPoolUtils.isAllowTaintType(event.objectInstance)) {
+                state.getTaintPool().addObject(event.objectInstance, event);
+                objHasTaint = true;
+                hasTaint = true;
+            }
+            event.setObjectValue(event.objectInstance, objHasTaint);
+        }
+        if (plan.isTargetReturn()) {
+            boolean retHasTaint = false;
+            if (TaintPoolUtils.isNotEmpty(event.returnInstance)
+                    && TaintPoolUtils.isAllowTaintType(event.returnInstance)) {
+                state.getTaintPool().addObject(event.returnInstance, event);
+                retHasTaint = true;
+                hasTaint = true;
+            }
+            event.setReturnValue(event.returnInstance, retHasTaint);
+        }
+        for (int parameterIndex : plan.getTargetParameters()) {
+            if (parameterIndex >= event.parameterInstances.length) {
+                break;
+            }
+            Object parameter = event.parameterInstances[parameterIndex];
+            if (TaintPoolUtils.isNotEmpty(parameter)
+                    && TaintPoolUtils.isAllowTaintType(parameter)) {
+                state.getTaintPool().addObject(parameter, event);
+                event.addParameterValue(parameterIndex, parameter, true);
+                hasTaint = true;
             }
         }
 
         if (hasTaint) {
-            trackTaintRange(propagatorNode, event);
+            trackTaintRange(state, propagatorNode, plan, event);
         }
 
         return hasTaint;
     }
 
-    private static TaintRanges getTaintRanges(Object obj) {
-        int hash = System.identityHashCode(obj);
-        TaintRanges tr = EngineManager.TAINT_RANGES_POOL.get(hash);
+    private static TaintRanges getTaintRanges(RequestState state, Object obj) {
+        TaintRanges tr = state.getTaintRangesPool().get(obj);
         if (tr == null) {
             tr = new TaintRanges();
         } else {
@@ -171,72 +203,72 @@ public class PropagatorImpl {
         return tr;
     }
 
-    private static void trackTaintRange(PropagatorNode propagatorNode, MethodEvent event) {
-        TaintCommandRunner r = TaintCommandRunner.getCommandRunner(event.signature);
+    private static void trackTaintRange(RequestState state, PropagatorNode propagatorNode, PropagatorPlan plan,
+                                        MethodEvent event) {
+        int targetKind = plan.getTargetKind();
+        // may have multiple targets?
+        if (targetKind == PropagatorPlan.TARGET_NONE) {
+            return;
+        }
 
         TaintRanges oldTaintRanges = new TaintRanges();
         TaintRanges srcTaintRanges = new TaintRanges();
 
         Object src = null;
-        Set<TaintPosition> sourceLocs = propagatorNode.getSources();
-        if (sourceLocs.size() == 1 && TaintPosition.hasObject(sourceLocs)) {
-            src = event.objectInstance;
-            srcTaintRanges = getTaintRanges(src);
-        } else if (sourceLocs.size() == 2 && TaintPosition.hasObject(sourceLocs)
-                && TaintPosition.hasParameter(sourceLocs)) {
-            oldTaintRanges = getTaintRanges(event.objectInstance);
-            for (TaintPosition sourceLoc : sourceLocs) {
-                if (sourceLoc.isParameter()) {
-                    int parameterIndex = sourceLoc.getParameterIndex();
-                    if (event.parameterInstances.length > parameterIndex) {
-                        src = event.parameterInstances[parameterIndex];
-                        srcTaintRanges = getTaintRanges(src);
-                    }
-                    break;
+        int parameterIndex;
+        switch (plan.getSourceKind()) {
+            case PropagatorPlan.SOURCE_OBJECT:
+                src = event.objectInstance;
+                srcTaintRanges = getTaintRanges(state, src);
+                break;
+            case PropagatorPlan.SOURCE_OBJECT_PARAMETER:
+                oldTaintRanges = getTaintRanges(state, event.objectInstance);
+                parameterIndex = plan.getSourceParameter();
+                if (event.parameterInstances.length > parameterIndex) {
+                    src = event.parameterInstances[parameterIndex];
+                    srcTaintRanges = getTaintRanges(state, src);
                 }
-            }
-        } else if (sourceLocs.size() == 1 && TaintPosition.hasParameter(sourceLocs)) {
-            for (TaintPosition sourceLoc : sourceLocs) {
-                int parameterIndex = sourceLoc.getParameterIndex();
+                break;
+            case PropagatorPlan.SOURCE_PARAMETER:
+                parameterIndex = plan.getSourceParameter();
                 if (event.parameterInstances.length > parameterIndex) {
                     src = event.parameterInstances[parameterIndex];
-                    srcTaintRanges = getTaintRanges(src);
+                    srcTaintRanges = getTaintRanges(state, src);
                 }
-            }
+                break;
+            default:
+                break;
         }
 
         int tgtHash = 0;
         Object tgt = null;
-        Set<TaintPosition> targetLocs = propagatorNode.getTargets();
-        // may have multiple targets?
-        if (targetLocs.size() > 1) {
-            return;
-        }
-        if (TaintPosition.hasObject(targetLocs)) {
-            tgt = event.objectInstance;
-            tgtHash = System.identityHashCode(tgt);
-            oldTaintRanges = getTaintRanges(tgt);
-        } else if (TaintPosition.hasReturn(targetLocs)) {
-            tgt = event.returnInstance;
-            tgtHash = System.identityHashCode(tgt);
-        } else if (TaintPosition.hasParameter(targetLocs)) {
-            for (TaintPosition targetLoc : targetLocs) {
-                int parameterIndex = targetLoc.getParameterIndex();
+        switch (targetKind) {
+            case PropagatorPlan.TARGET_OBJECT:
+                tgt = event.objectInstance;
+                tgtHash = System.identityHashCode(tgt);
+                oldTaintRanges = getTaintRanges(state, tgt);
+                break;
+            case PropagatorPlan.TARGET_RETURN:
+                tgt = event.returnInstance;
+                tgtHash = System.identityHashCode(tgt);
+                break;
+            default:
+                parameterIndex = plan.getTargetParameter();
                 if (event.parameterInstances.length > parameterIndex) {
                     tgt = event.parameterInstances[parameterIndex];
                     tgtHash = System.identityHashCode(tgt);
-                    oldTaintRanges = getTaintRanges(tgt);
+                    oldTaintRanges = getTaintRanges(state, tgt);
                 }
-            }
-        } else {
-            // invalid policy
-            return;
+                break;
         }
 
         if (!TaintPoolUtils.isNotEmpty(tgt) || !TaintPoolUtils.isAllowTaintType(tgt) || tgtHash == 0) {
             return;
         }
 
+        // the plan is bound to the policy signature, subclasses hit by inherited policies have their own commands
+        TaintCommandRunner r = event.getOriginClassName().equals(event.getMatchedClassName())
+                ? plan.getRunner() : TaintCommandRunner.getCommandRunner(event.signature);
         TaintRanges tr;
         if (r != null && src != null) {
             tr = r.run(propagatorNode, src, tgt, event.parameterInstances, oldTaintRanges, srcTaintRanges);
@@ -244,9 +276,9 @@ public class PropagatorImpl {
             int len = TaintRangesBuilder.getLength(tgt);
             tr = new TaintRanges(new TaintRange(0, len));
             if (propagatorNode.hasTags()) {
-                String[] tags = propagatorNode.getTags();
-                for (String tag : tags) {
-                    tr.add(new TaintRange(tag, 0, len));
+                TaintTag[] tags = propagatorNode.getTags();
+                for (TaintTag tag : tags) {
+                    tr.add(tag, 0, len);
                 }
             }
             tr.addAll(srcTaintRanges.explode(len));
@@ -255,7 +287,7 @@ public class PropagatorImpl {
             tr.untag(propagatorNode.getUntags());
         }
         event.targetRanges.add(new MethodEvent.MethodEventTargetRange(tgtHash, tr));
-        EngineManager.TAINT_RANGES_POOL.add(tgtHash, tr);
+        state.getTaintRangesPool().add(tgt, tr);
     }
 
     public static boolean isSkipScope(String signature) {
@@ -1,11 +1,11 @@
 package io.dongtai.iast.core.handler.hookpoint.controller.impl;
 
-import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.VulnType;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.DynamicPropagatorScanner;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.normal.*;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
 
 /**
  * 危险方法hook点处理方法
@@ -13,30 +13,53 @@ import io.dongtai.iast.core.handler.hookpoint.vulscan.normal.*;
  * @author dongzhiyong@huoxian.cn
  */
 public class SinkImpl {
+    /**
+     * 扫描器无状态，全局共享
+     */
+    private static final CryptoWeakRandomnessVulScan WEAK_RANDOMNESS_SCANNER = new CryptoWeakRandomnessVulScan();
+    private static final CryptoBadMacVulScan BAD_MAC_SCANNER = new CryptoBadMacVulScan();
+    private static final CryptoBacCiphersVulScan BAD_CIPHERS_SCANNER = new CryptoBacCiphersVulScan();
+    private static final CookieFlagsMissingVulScan COOKIE_FLAGS_SCANNER = new CookieFlagsMissingVulScan();
+    private static final DynamicPropagatorScanner DYNAMIC_SCANNER = new DynamicPropagatorScanner();
 
     /**
      * 处理sink点的事件
      *
+     * @param state 当前线程的请求状态
      * @param event sink点事件
      */
-    public static void solveSink(MethodEvent event, SinkNode sinkNode) {
+    public static void solveSink(RequestState state, MethodEvent event, SinkNode sinkNode) {
         if (null == event) {
             return;
         }
 
         String vulType = sinkNode.getVulType();
         if (VulnType.CRYPTO_WEAK_RANDOMNESS.equals(vulType)) {
-            new CryptoWeakRandomnessVulScan().scan(event, sinkNode);
+            WEAK_RANDOMNESS_SCANNER.scan(event, sinkNode);
         } else if (VulnType.CRYPTO_BAD_MAC.equals(vulType)) {
-            new CryptoBadMacVulScan().scan(event, sinkNode);
+            BAD_MAC_SCANNER.scan(event, sinkNode);
         } else if (VulnType.CRYPTO_BAC_CIPHERS.equals(vulType)) {
-            new CryptoBacCiphersVulScan().scan(event, sinkNode);
+            BAD_CIPHERS_SCANNER.scan(event, sinkNode);
         } else if (VulnType.COOKIE_FLAGS_MISSING.equals(vulType)) {
-            new CookieFlagsMissingVulScan().scan(event, sinkNode);
-        } else if (!EngineManager.TAINT_HASH_CODES.isEmpty()) {
-            new DynamicPropagatorScanner().scan(event, sinkNode);
+            COOKIE_FLAGS_SCANNER.scan(event, sinkNode);
+        } else if (!state.getTaintPool().isEmpty()) {
+            DYNAMIC_SCANNER.scan(event, sinkNode);
         }
     }
 
-
+    /**
+     * 在创建方法事件之前判断sink点是否需要检测，常规漏洞总是检测，污点类漏洞只在污点池非空时检测
+     *
+     * @param state    当前线程的请求状态
+     * @param sinkNode sink点
+     * @return true-需要创建事件
+     */
+    public static boolean isScanRequired(RequestState state, SinkNode sinkNode) {
+        String vulType = sinkNode.getVulType();
+        return VulnType.CRYPTO_WEAK_RANDOMNESS.equals(vulType)
+                || VulnType.CRYPTO_BAD_MAC.equals(vulType)
+                || VulnType.CRYPTO_BAC_CIPHERS.equals(vulType)
+                || VulnType.COOKIE_FLAGS_MISSING.equals(vulType)
+                || !state.getTaintPool().isEmpty();
+    }
 }
@@ -1,12 +1,14 @@
 package io.dongtai.iast.core.handler.hookpoint.controller.impl;
 
-import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SourceNode;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.TaintPosition;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.*;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
+import io.dongtai.iast.core.utils.PropertyUtils;
 import io.dongtai.iast.core.utils.StackUtils;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
 
 import java.lang.reflect.Array;
 import java.util.*;
@@ -25,7 +27,25 @@ public class SourceImpl {
     private static final ArrayList<String> WHITE_ATTRIBUTES = new ArrayList<String>();
     private static final String METHOD_OF_GETATTRIBUTE = "getAttribute";
 
-    public static void solveSource(MethodEvent event, SourceNode sourceNode, AtomicInteger invokeIdSequencer) {
+    /**
+     * max depth of nested containers
+     */
+    private static final int MAX_TRACK_DEPTH = 10;
+    /**
+     * max elements tracked of one container
+     */
+    private static final int MAX_TRACK_BREADTH = 1024;
+    /**
+     * max objects visited for one source event
+     */
+    private static final int MAX_TRACK_NODES = 1 << 14;
+    /**
+     * containers larger than this are tainted lazily when lazy container mode is enabled
+     */
+    private static final int LAZY_CONTAINER_MIN_SIZE = 16;
+
+    public static void solveSource(RequestState state, MethodEvent event, SourceNode sourceNode,
+                                   AtomicInteger invokeIdSequencer) {
         if (!TaintPoolUtils.isNotEmpty(event.returnInstance)
                 || !TaintPoolUtils.isAllowTaintType(event.returnInstance)
                 || !allowCall(event)) {
@@ -38,7 +58,7 @@ public class SourceImpl {
         int invokeId = invokeIdSequencer.getAndIncrement();
         event.setInvokeId(invokeId);
 
-        boolean valid = trackTarget(event, sourceNode);
+        boolean valid = trackTarget(state, event, sourceNode);
         if (!valid) {
             return;
         }
@@ -72,105 +92,226 @@ public class SourceImpl {
 
         event.setTaintPositions(sourceNode.getSources(), sourceNode.getTargets());
 
-        EngineManager.TRACK_MAP.addTrackMethod(invokeId, event);
+        state.getTrackMap().addTrackMethod(invokeId, event);
     }
 
-    private static boolean trackTarget(MethodEvent event, SourceNode sourceNode) {
+    private static boolean trackTarget(RequestState state, MethodEvent event, SourceNode sourceNode) {
         int length = TaintRangesBuilder.getLength(event.returnInstance);
         if (length == 0) {
             return false;
         }
 
-        trackObject(event, sourceNode, event.returnInstance, 0);
+        trackObjects(state, event, sourceNode, Collections.singletonList(event.returnInstance));
         // @TODO: hook json serializer for custom model
-        handlerCustomModel(event, sourceNode);
+        handlerCustomModel(state, event, sourceNode);
         return true;
     }
 
-    private static void trackObject(MethodEvent event, SourceNode sourceNode, Object obj, int depth) {
-        if (depth >= 10 || !TaintPoolUtils.isNotEmpty(obj) || !TaintPoolUtils.isAllowTaintType(obj)) {
-            return;
-        }
-
-        int hash = System.identityHashCode(obj);
-        if (EngineManager.TAINT_HASH_CODES.contains(hash)) {
-            return;
+    /**
+     * 广度优先遍历来源对象，容器按层展开，每个请求内同一容器只展开一次
+     */
+    private static void trackObjects(RequestState state, MethodEvent event, SourceNode sourceNode,
+                                     Collection<?> roots) {
+        PropertyUtils properties = PropertyUtils.getInstance();
+        boolean lazyContainer = properties != null && properties.isSourceLazyContainer();
+        TrackQueue queue = new TrackQueue();
+        for (Object root : roots) {
+            queue.offer(root, 0);
         }
 
-        Class<?> cls = obj.getClass();
-        if (cls.isArray() && !cls.getComponentType().isPrimitive()) {
-            trackArray(event, sourceNode, obj, depth);
-        } else if (obj instanceof Iterator) {
-            trackIterator(event, sourceNode, (Iterator<?>) obj, depth);
-        } else if (obj instanceof Map) {
-            trackMap(event, sourceNode, (Map<?, ?>) obj, depth);
-        } else if (obj instanceof Map.Entry) {
-            trackMapEntry(event, sourceNode, (Map.Entry<?, ?>) obj, depth);
-        } else if (obj instanceof Collection) {
-            if (obj instanceof List) {
-                trackList(event, sourceNode, (List<?>) obj, depth);
-            } else {
-                trackIterator(event, sourceNode, ((Collection<?>) obj).iterator(), depth);
+        while (queue.hasNext()) {
+            int depth = queue.nextDepth();
+            Object obj = queue.next();
+            if (!TaintPoolUtils.isNotEmpty(obj) || !TaintPoolUtils.isAllowTaintType(obj)) {
+                continue;
             }
-        } else if ("java.util.Optional".equals(obj.getClass().getName())) {
-            trackOptional(event, sourceNode, obj, depth);
-        } else {
-            int len = TaintRangesBuilder.getLength(obj);
-            if (len == 0) {
-                return;
+            if (state.getTaintPool().contains(obj)) {
+                continue;
             }
 
-            TaintRanges tr = new TaintRanges(new TaintRange(0, len));
-            if (sourceNode.hasTags()) {
-                String[] tags = sourceNode.getTags();
-                for (String tag : tags) {
-                    tr.add(new TaintRange(tag, 0, len));
+            if (isContainer(obj)) {
+                if (lazyContainer && isLargeContainer(obj)) {
+                    trackContainer(state, event, sourceNode, obj);
+                    if (depth + 1 < MAX_TRACK_DEPTH) {
+                        try {
+                            expandArrays(queue, obj, depth + 1);
+                        } catch (Throwable ignore) {
+                        }
+                    }
+                    continue;
+                }
+                // the same container is not walked again by later sources of the request
+                if (depth + 1 >= MAX_TRACK_DEPTH || state.getTrackedContainers().containsKey(obj)) {
+                    continue;
                 }
+                state.getTrackedContainers().put(obj, Boolean.TRUE);
+                try {
+                    expand(queue, obj, depth + 1);
+                } catch (Throwable ignore) {
+                    // concurrent modification or broken container, keep the values already queued
+                }
+            } else {
+                trackValue(state, event, sourceNode, obj);
             }
-            event.targetRanges.add(new MethodEvent.MethodEventTargetRange(hash, tr));
+        }
+    }
+
+    private static boolean isContainer(Object obj) {
+        return (obj.getClass().isArray() && !obj.getClass().getComponentType().isPrimitive())
+                || obj instanceof Iterator
+                || obj instanceof Map
+                || obj instanceof Map.Entry
+                || obj instanceof Collection
+                || "java.util.Optional".equals(obj.getClass().getName());
+    }
 
-            EngineManager.TAINT_HASH_CODES.add(hash);
-            event.addTargetHash(hash);
-            EngineManager.TAINT_RANGES_POOL.add(hash, tr);
+    private static boolean isLargeContainer(Object obj) {
+        if (obj instanceof Map) {
+            return ((Map<?, ?>) obj).size() > LAZY_CONTAINER_MIN_SIZE;
+        } else if (obj instanceof Collection) {
+            return ((Collection<?>) obj).size() > LAZY_CONTAINER_MIN_SIZE;
+        } else if (obj instanceof Object[]) {
+            return ((Object[]) obj).length > LAZY_CONTAINER_MIN_SIZE;
         }
+        return false;
     }
 
-    private static void trackArray(MethodEvent event, SourceNode sourceNode, Object arr, int depth) {
-        int length = Array.getLength(arr);
-        for (int i = 0; i < length; i++) {
-            trackObject(event, sourceNode, Array.get(arr, i), depth + 1);
+    /**
+     * 只污染容器本身，元素通过 Map.get、Iterator.next 等传播节点被读取时才加入污点池。
+     * 容器的污点范围只用于携带来源标签，传播时会扩展到元素的长度。
+     * 数组元素通过数组下标读取，无法被传播节点 hook，由 {@link #expandArrays} 立即展开
+     */
+    private static void trackContainer(RequestState state, MethodEvent event, SourceNode sourceNode,
+                                       Object container) {
+        TaintRanges tr = new TaintRanges(new TaintRange(0, 1));
+        if (sourceNode.hasTags()) {
+            TaintTag[] tags = sourceNode.getTags();
+            for (TaintTag tag : tags) {
+                tr.add(tag, 0, 1);
+            }
         }
+        int hash = System.identityHashCode(container);
+        state.getTaintPool().add(container);
+        event.addTargetHash(hash);
+        state.getTaintRangesPool().add(container, tr);
     }
 
-    private static void trackIterator(MethodEvent event, SourceNode sourceNode, Iterator<?> it, int depth) {
-        while (it.hasNext()) {
-            trackObject(event, sourceNode, it.next(), depth + 1);
+    private static void expand(TrackQueue queue, Object obj, int depth) {
+        if (obj.getClass().isArray()) {
+            int length = Math.min(Array.getLength(obj), MAX_TRACK_BREADTH);
+            for (int i = 0; i < length; i++) {
+                if (!queue.offer(Array.get(obj, i), depth)) {
+                    break;
+                }
+            }
+        } else if (obj instanceof Iterator) {
+            expandIterator(queue, (Iterator<?>) obj, depth);
+        } else if (obj instanceof Map) {
+            int n = 0;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) obj).entrySet()) {
+                if (n++ >= MAX_TRACK_BREADTH
+                        || !queue.offer(entry.getKey(), depth) || !queue.offer(entry.getValue(), depth)) {
+                    break;
+                }
+            }
+        } else if (obj instanceof Map.Entry) {
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            if (queue.offer(entry.getKey(), depth)) {
+                queue.offer(entry.getValue(), depth);
+            }
+        } else if (obj instanceof Collection) {
+            expandIterator(queue, ((Collection<?>) obj).iterator(), depth);
+        } else {
+            queue.offer(((Optional<?>) obj).orElse(null), depth);
         }
     }
 
-    private static void trackMap(MethodEvent event, SourceNode sourceNode, Map<?, ?> map, int depth) {
-        for (Object key : map.keySet()) {
-            trackObject(event, sourceNode, key, depth + 1);
-            trackObject(event, sourceNode, map.get(key), depth + 1);
+    /**
+     * 延迟污染的容器中，值为对象数组的元素(如 Map&lt;String, String[]&gt; 的值)仍然立即遍历
+     */
+    private static void expandArrays(TrackQueue queue, Object container, int depth) {
+        Iterator<?> it;
+        if (container instanceof Map) {
+            it = ((Map<?, ?>) container).values().iterator();
+        } else if (container instanceof Collection) {
+            it = ((Collection<?>) container).iterator();
+        } else {
+            it = Arrays.asList((Object[]) container).iterator();
+        }
+        for (int n = 0; n < MAX_TRACK_BREADTH && it.hasNext(); n++) {
+            Object item = it.next();
+            if (item instanceof Object[] && !queue.offer(item, depth)) {
+                break;
+            }
         }
     }
 
-    private static void trackMapEntry(MethodEvent event, SourceNode sourceNode, Map.Entry<?, ?> entry, int depth) {
-        trackObject(event, sourceNode, entry.getKey(), depth + 1);
-        trackObject(event, sourceNode, entry.getValue(), depth + 1);
+    private static void expandIterator(TrackQueue queue, Iterator<?> it, int depth) {
+        for (int n = 0; n < MAX_TRACK_BREADTH && it.hasNext(); n++) {
+            if (!queue.offer(it.next(), depth)) {
+                break;
+            }
+        }
     }
 
-    private static void trackList(MethodEvent event, SourceNode sourceNode, List<?> list, int depth) {
-        for (Object obj : list) {
-            trackObject(event, sourceNode, obj, depth + 1);
+    private static void trackValue(RequestState state, MethodEvent event, SourceNode sourceNode, Object obj) {
+        int len = TaintRangesBuilder.getLength(obj);
+        if (len == 0) {
+            return;
+        }
+
+        TaintRanges tr = new TaintRanges(new TaintRange(0, len));
+        if (sourceNode.hasTags()) {
+            TaintTag[] tags = sourceNode.getTags();
+            for (TaintTag tag : tags) {
+                tr.add(tag, 0, len);
+            }
         }
+        int hash = System.identityHashCode(obj);
+        event.targetRanges.add(new MethodEvent.MethodEventTargetRange(hash, tr));
+
+        state.getTaintPool().add(obj);
+        event.addTargetHash(hash);
+        state.getTaintRangesPool().add(obj, tr);
     }
 
-    private static void trackOptional(MethodEvent event, SourceNode sourceNode, Object obj, int depth) {
-        try {
-            Object v = ((Optional<?>) obj).orElse(null);
-            trackObject(event, sourceNode, v, depth + 1);
-        } catch (Throwable ignore) {
+    /**
+     * fifo of objects to visit with their depth, bounded by the total number of nodes of one source event
+     */
+    private static final class TrackQueue {
+        private Object[] objects = new Object[16];
+        private int[] depths = new int[16];
+        private int head;
+        private int tail;
+
+        boolean offer(Object obj, int depth) {
+            if (this.tail >= MAX_TRACK_NODES) {
+                return false;
+            }
+            if (this.tail == this.objects.length) {
+                int capacity = Math.min(this.objects.length << 1, MAX_TRACK_NODES);
+                this.objects = Arrays.copyOf(this.objects, capacity);
+                this.depths = Arrays.copyOf(this.depths, capacity);
+            }
+            this.objects[this.tail] = obj;
+            this.depths[this.tail] = depth;
+            this.tail++;
+            return true;
+        }
+
+        boolean hasNext() {
+            return this.head < this.tail;
+        }
+
+        int nextDepth() {
+            return this.depths[this.head];
+        }
+
+        Object next() {
+            Object obj = this.objects[this.head];
+            // release visited objects early
+            this.objects[this.head++] = null;
+            return obj;
         }
     }
 
@@ -179,11 +320,11 @@ public class SourceImpl {
      *
      * @param event MethodEvent
      */
-    public static void handlerCustomModel(MethodEvent event, SourceNode sourceNode) {
+    public static void handlerCustomModel(RequestState state, MethodEvent event, SourceNode sourceNode) {
         if (!"getSession".equals(event.getMethodName())) {
             Set<Object> modelValues = TaintPoolUtils.parseCustomModel(event.returnInstance);
-            for (Object modelValue : modelValues) {
-                trackObject(event, sourceNode, modelValue, 0);
+            if (!modelValues.isEmpty()) {
+                trackObjects(state, event, sourceNode, modelValues);
             }
         }
     }
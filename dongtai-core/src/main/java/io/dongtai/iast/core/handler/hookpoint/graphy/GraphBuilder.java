@@ -1,18 +1,17 @@
 package io.dongtai.iast.core.handler.hookpoint.graphy;
 
 import io.dongtai.iast.common.constants.*;
-import io.dongtai.iast.common.scope.ScopeManager;
 import io.dongtai.iast.common.utils.base64.Base64Encoder;
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.context.ContextManager;
 import io.dongtai.iast.core.handler.hookpoint.controller.impl.HttpImpl;
-import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.normal.AbstractNormalVulScan;
 import io.dongtai.iast.core.service.ThreadPools;
 import io.dongtai.iast.core.utils.PropertyUtils;
+import io.dongtai.iast.core.utils.threadlocal.IastTrackMap;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.*;
@@ -26,8 +25,9 @@ public class GraphBuilder {
     private static String URI;
 
     public static void buildAndReport(Object request, Object response) {
+        RequestState state = EngineManager.REQUEST_STATE.get();
         try {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().enterAgent();
+            state.getPolicyScope().enterAgent();
             List<GraphNode> nodeList = build();
             String report = convertToReport(nodeList, request, response);
             if (report == null) {
@@ -37,7 +37,7 @@ public class GraphBuilder {
         } catch (Throwable e) {
             DongTaiLog.error(ErrorCode.GRAPH_BUILD_AND_REPORT_FAILED, e);
         } finally {
-            ScopeManager.SCOPE_TRACKER.getPolicyScope().leaveAgent();
+            state.getPolicyScope().leaveAgent();
         }
     }
 
@@ -47,25 +47,24 @@ public class GraphBuilder {
      * @return 污点方法列表
      */
     public static List<GraphNode> build() {
-        List<GraphNode> nodeList = new ArrayList<GraphNode>();
-        Map<Integer, MethodEvent> events = EngineManager.TRACK_MAP.get();
+        IastTrackMap events = EngineManager.REQUEST_STATE.get().getTrackMap();
+        List<GraphNode> nodeList = new ArrayList<GraphNode>(events.size());
 
-        for (Map.Entry<Integer, MethodEvent> entry : events.entrySet()) {
-            nodeList.add(new GraphNode(entry.getValue()));
+        for (int i = 0; i < events.size(); i++) {
+            nodeList.add(new GraphNode(events.eventAt(i)));
         }
         return nodeList;
     }
 
     public static String convertToReport(List<GraphNode> nodeList, Object request, Object response) {
-        Map<String, Object> requestMeta = EngineManager.REQUEST_CONTEXT.get();
+        RequestState state = EngineManager.REQUEST_STATE.get();
+        Map<String, Object> requestMeta = state.getRequestContext();
         Map<String, Object> responseMeta = response == null ? null : HttpImpl.getResponseMeta(response);
         JSONObject report = new JSONObject();
         JSONObject detail = new JSONObject();
-        JSONArray methodPool = new JSONArray();
 
         report.put(ReportKey.TYPE, ReportType.VULN_SAAS_POOL);
         report.put(ReportKey.VERSION, "v3");
-        report.put(ReportKey.DETAIL, detail);
 
         detail.put(ReportKey.AGENT_ID, EngineManager.getAgentId());
         detail.put(ReportKey.PROTOCOL, requestMeta.getOrDefault("protocol", "unknown"));
@@ -98,13 +97,40 @@ public class GraphBuilder {
         detail.put(ReportKey.CONTEXT_PATH, requestMeta.getOrDefault("contextPath", ""));
         detail.put(ReportKey.REPLAY_REQUEST, requestMeta.getOrDefault("replay-request", false));
 
-        detail.put(ReportKey.METHOD_POOL, methodPool);
         detail.put(ReportKey.TRACE_ID, ContextManager.currentTraceId());
 
+        // the method pool is written as text, the spilled events are not parsed back into json objects
+        StringBuilder out = new StringBuilder();
+        appendOpen(out, report);
+        out.append(JSONObject.quote(ReportKey.DETAIL)).append(':');
+        appendOpen(out, detail);
+        out.append(JSONObject.quote(ReportKey.METHOD_POOL)).append(":[");
+        int count = 0;
+        try {
+            count = state.getTrackMap().appendSpilled(out);
+        } catch (Throwable e) {
+            DongTaiLog.warn(ErrorCode.GRAPH_READ_SPILLED_METHOD_POOL_FAILED,
+                    state.getTrackMap().getSpilledCount(), e);
+        }
         for (GraphNode node : nodeList) {
-            methodPool.put(node.toJson());
+            if (count++ > 0) {
+                out.append(',');
+            }
+            out.append(node.toJson().toString());
+        }
+        out.append("]}}");
+        return out.toString();
+    }
+
+    /**
+     * append the json object without the closing brace, followed by a comma if it has members
+     */
+    static void appendOpen(StringBuilder out, JSONObject object) {
+        String json = object.toString();
+        out.append(json, 0, json.length() - 1);
+        if (object.length() > 0) {
+            out.append(',');
         }
-        return report.toString();
     }
 
     private static byte[] getResponseBody(Map<String, Object> responseMeta) {
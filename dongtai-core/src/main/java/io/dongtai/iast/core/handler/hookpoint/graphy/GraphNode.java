@@ -89,9 +89,9 @@ public class GraphNode {
         this.originClassName = event.getOriginClassName();
         this.methodName = event.getMethodName();
         this.signature = event.getSignature();
-        this.objectValue = event.objectValue;
-        this.parameterValues = event.parameterValues;
-        this.returnValue = event.returnValue;
+        this.objectValue = event.getObjectValue();
+        this.parameterValues = event.getParameterValues();
+        this.returnValue = event.getReturnValue();
         this.callerClass = event.getCallerClass();
         this.callerMethod = event.getCallerMethod();
         this.callerLineNumber = event.getCallerLine();
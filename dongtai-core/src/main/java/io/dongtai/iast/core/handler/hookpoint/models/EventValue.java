@@ -0,0 +1,269 @@
+package io.dongtai.iast.core.handler.hookpoint.models;
+
+import java.io.StringWriter;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 方法事件中对象、参数、返回值的展示值
+ * <p>
+ * 不超过 {@link #MAX_VALUE_LENGTH} 的 String 不可变，在构建报告时才渲染；其他对象可能在 hook 之后被修改，
+ * 较大的 String 会长时间占用内存，都在 hook 时渲染。
+ * 字符序列只截取首尾，数组和集合(包括嵌套的集合)限制元素个数与长度，渲染过程中不会生成超过上限的完整字符串。
+ * 只渲染字符序列、数字、布尔、字符和枚举，其他对象不调用 toString，以类名和 identity hash 展示
+ *
+ * @since 1.8.2
+ */
+public class EventValue {
+    /**
+     * max display value size for object/return/parameters
+     */
+    public static final int MAX_VALUE_LENGTH = 1024;
+
+    /**
+     * max rendered elements of array/collection/map
+     */
+    public static final int MAX_ELEMENT_COUNT = 64;
+
+    /**
+     * max depth of nested collection/map rendering
+     */
+    private static final int MAX_DEPTH = 8;
+
+    private static final String ELLIPSIS = "...";
+
+    /**
+     * EventValue and String object headers
+     */
+    private static final int VALUE_OVERHEAD = 64;
+
+    private Object value;
+    private final boolean hasTaint;
+    private String formatted;
+
+    public EventValue(Object value, boolean hasTaint) {
+        this.hasTaint = hasTaint;
+        if (value instanceof String && ((String) value).length() <= MAX_VALUE_LENGTH) {
+            this.value = value;
+        } else {
+            this.formatted = format(value, hasTaint);
+        }
+    }
+
+    public String getFormatted() {
+        if (this.formatted == null) {
+            this.formatted = format(this.value, this.hasTaint);
+            this.value = null;
+        }
+        return this.formatted;
+    }
+
+    /**
+     * 估算当前保留的字节数，尚未渲染的 String 按完整长度计算
+     */
+    public long estimateSize() {
+        CharSequence content = this.formatted != null ? this.formatted : (CharSequence) this.value;
+        return VALUE_OVERHEAD + (content == null ? 0 : 2L * content.length());
+    }
+
+    @Override
+    public String toString() {
+        return getFormatted();
+    }
+
+    /**
+     * 格式化为 [value]*length，value 超过 {@link #MAX_VALUE_LENGTH} 时保留首尾，* 表示有污点
+     */
+    static String format(Object val, boolean hasTaint) {
+        CharSequence content;
+        try {
+            if (val == null) {
+                content = "";
+            } else if (isObjectArray(val) || val instanceof Map || val instanceof Collection) {
+                StringBuilder sb = new StringBuilder();
+                renderContainer(sb, val);
+                content = sb;
+            } else {
+                content = renderBounded(val);
+            }
+        } catch (Throwable e) {
+            // org.jruby.RubyBasicObject.hashCode() may cause NullPointerException when RubyBasicObject.metaClass is null
+            content = identity(val);
+        }
+
+        int length = content.length();
+        StringBuilder out = new StringBuilder(Math.min(length, MAX_VALUE_LENGTH) + 16);
+        out.append('[');
+        appendNormalized(out, content, MAX_VALUE_LENGTH);
+        out.append(']');
+        if (hasTaint) {
+            out.append('*');
+        }
+        out.append(length);
+        return out.toString();
+    }
+
+    /**
+     * 渲染长度有上限或可截取的类型，其他对象的 toString 开销和副作用不可控，不在 hook 时调用
+     */
+    private static CharSequence renderBounded(Object val) {
+        if (val instanceof CharSequence) {
+            return (CharSequence) val;
+        }
+        if (val instanceof StringWriter) {
+            return ((StringWriter) val).getBuffer();
+        }
+        if (val instanceof Number || val instanceof Boolean || val instanceof Character) {
+            return val.toString();
+        }
+        if (val instanceof Enum) {
+            return ((Enum<?>) val).name();
+        }
+        return identity(val);
+    }
+
+    private static String identity(Object val) {
+        return val.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(val));
+    }
+
+    private static boolean isObjectArray(Object val) {
+        return val.getClass().isArray() && !val.getClass().getComponentType().isPrimitive();
+    }
+
+    /**
+     * 渲染数组、Map、集合，长度不超过 {@link #MAX_VALUE_LENGTH}，元素不超过 {@link #MAX_ELEMENT_COUNT}
+     */
+    private static void renderContainer(StringBuilder sb, Object val) {
+        int limit = MAX_VALUE_LENGTH - ELLIPSIS.length();
+        boolean complete;
+        if (val instanceof Map) {
+            complete = renderMap(sb, (Map<?, ?>) val, limit, 0);
+        } else if (val instanceof Collection) {
+            complete = renderCollection(sb, (Collection<?>) val, limit, 0);
+        } else {
+            complete = renderArray(sb, (Object[]) val, limit, true);
+        }
+        if (!complete) {
+            sb.append(ELLIPSIS);
+        }
+    }
+
+    /**
+     * 数组元素以空格分隔，嵌套的一层数组展开
+     */
+    private static boolean renderArray(StringBuilder sb, Object[] array, int limit, boolean flatten) {
+        int count = 0;
+        for (Object item : array) {
+            if (item == null) {
+                continue;
+            }
+            if (flatten && isObjectArray(item)) {
+                if (!renderArray(sb, (Object[]) item, limit, false)) {
+                    return false;
+                }
+                continue;
+            }
+            if (++count > MAX_ELEMENT_COUNT
+                    || !appendElement(sb, item, limit, 0)
+                    || !appendBounded(sb, " ", limit)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean renderCollection(StringBuilder sb, Collection<?> collection, int limit, int depth) {
+        Iterator<?> it = collection.iterator();
+        sb.append('[');
+        int count = 0;
+        while (it.hasNext()) {
+            if (++count > MAX_ELEMENT_COUNT) {
+                return false;
+            }
+            Object item = it.next();
+            if (!appendElement(sb, item == collection ? "(this Collection)" : item, limit, depth)) {
+                return false;
+            }
+            if (it.hasNext() && !appendBounded(sb, ", ", limit)) {
+                return false;
+            }
+        }
+        return appendBounded(sb, "]", limit);
+    }
+
+    private static boolean renderMap(StringBuilder sb, Map<?, ?> map, int limit, int depth) {
+        Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator();
+        sb.append('{');
+        int count = 0;
+        while (it.hasNext()) {
+            if (++count > MAX_ELEMENT_COUNT) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = it.next();
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if (!appendElement(sb, key == map ? "(this Map)" : key, limit, depth)
+                    || !appendBounded(sb, "=", limit)
+                    || !appendElement(sb, value == map ? "(this Map)" : value, limit, depth)) {
+                return false;
+            }
+            if (it.hasNext() && !appendBounded(sb, ", ", limit)) {
+                return false;
+            }
+        }
+        return appendBounded(sb, "}", limit);
+    }
+
+    /**
+     * 追加元素，嵌套的集合和 Map 同样按 limit 渲染，其他元素按 {@link #renderBounded(Object)} 渲染
+     *
+     * @return false 表示已截断
+     */
+    private static boolean appendElement(StringBuilder sb, Object item, int limit, int depth) {
+        if (item instanceof Map || item instanceof Collection) {
+            if (depth >= MAX_DEPTH) {
+                return false;
+            }
+            if (item instanceof Map) {
+                return renderMap(sb, (Map<?, ?>) item, limit, depth + 1);
+            }
+            return renderCollection(sb, (Collection<?>) item, limit, depth + 1);
+        }
+        return appendBounded(sb, item == null ? "null" : renderBounded(item), limit);
+    }
+
+    /**
+     * 追加元素，超出 limit 的部分丢弃
+     *
+     * @return false 表示已截断
+     */
+    private static boolean appendBounded(StringBuilder sb, CharSequence cs, int limit) {
+        int remaining = limit - sb.length();
+        if (cs.length() <= remaining) {
+            sb.append(cs);
+            return true;
+        }
+        if (remaining > 0) {
+            sb.append(cs, 0, remaining);
+        }
+        return false;
+    }
+
+    /**
+     * same as {@link io.dongtai.iast.core.utils.StringUtils#normalize(String, int)}, without copying the whole
+     * sequence
+     */
+    private static void appendNormalized(StringBuilder out, CharSequence content, int maxLength) {
+        int max = Math.max(maxLength, 5);
+        int length = content.length();
+        if (length > max) {
+            int middle = (max - 3) / 2;
+            out.append(content, 0, (1 - (max % 2)) + middle);
+            out.append(ELLIPSIS);
+            out.append(content, length - middle, length);
+            return;
+        }
+        out.append(content);
+    }
+}
@@ -2,10 +2,8 @@ package io.dongtai.iast.core.handler.hookpoint.models;
 
 import io.dongtai.iast.core.handler.hookpoint.models.policy.TaintPosition;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRanges;
-import io.dongtai.iast.core.utils.StringUtils;
 import org.json.JSONObject;
 
-import java.io.StringWriter;
 import java.util.*;
 
 /**
@@ -15,9 +13,11 @@ import java.util.*;
  */
 public class MethodEvent {
     /**
-     * max display value size for object/return/parameters
+     * event object, call stack element and collections
      */
-    private static final int MAX_VALUE_LENGTH = 1024;
+    private static final int EVENT_OVERHEAD = 256;
+
+    private static final int HASH_ENTRY_SIZE = 48;
 
     /**
      * method invoke id
@@ -58,9 +58,9 @@ public class MethodEvent {
     public Object objectInstance;
 
     /**
-     * method object string value
+     * method object display value
      */
-    public String objectValue;
+    private EventValue objectValue;
 
     /**
      * method all parameters instances
@@ -68,9 +68,9 @@ public class MethodEvent {
     public Object[] parameterInstances;
 
     /**
-     * method all parameters string value
+     * method all parameters display value
      */
-    public List<Parameter> parameterValues = new ArrayList<Parameter>();
+    private final List<Parameter> parameterValues = new ArrayList<Parameter>();
 
     /**
      * method return instance
@@ -78,13 +78,16 @@ public class MethodEvent {
     public Object returnInstance;
 
     /**
-     * method return string value
+     * method return display value
      */
-    public String returnValue;
+    private EventValue returnValue;
 
-    private final Set<Integer> sourceHashes = new HashSet<Integer>();
+    /**
+     * created on first add, most events have no more than one source and one target
+     */
+    private Set<Integer> sourceHashes;
 
-    private final Set<Integer> targetHashes = new HashSet<Integer>();
+    private Set<Integer> targetHashes;
 
     public List<MethodEventTargetRange> targetRanges = new ArrayList<MethodEventTargetRange>();
 
@@ -96,17 +99,21 @@ public class MethodEvent {
 
     public static class Parameter {
         private final String index;
-        private final String value;
+        private final EventValue value;
 
-        public Parameter(String index, String value) {
+        public Parameter(String index, EventValue value) {
             this.index = index;
             this.value = value;
         }
 
+        long estimateSize() {
+            return 32 + this.value.estimateSize();
+        }
+
         public JSONObject toJson() {
             JSONObject json = new JSONObject();
             json.put("index", this.index);
-            json.put("value", this.value);
+            json.put("value", this.value.getFormatted());
             return json;
         }
     }
@@ -137,6 +144,10 @@ public class MethodEvent {
             this.ranges = ranges;
         }
 
+        long estimateSize() {
+            return 64 + 12L * this.ranges.size();
+        }
+
         public JSONObject toJson() {
             JSONObject json = new JSONObject();
             json.put("hash", this.hash);
@@ -203,7 +214,11 @@ public class MethodEvent {
         if (obj == null) {
             return;
         }
-        this.objectValue = formatValue(obj, hasTaint);
+        this.objectValue = new EventValue(obj, hasTaint);
+    }
+
+    public String getObjectValue() {
+        return this.objectValue == null ? null : this.objectValue.getFormatted();
     }
 
     public void addParameterValue(int index, Object param, boolean hasTaint) {
@@ -211,36 +226,50 @@ public class MethodEvent {
             return;
         }
         String indexString = "P" + String.valueOf(index + 1);
-        Parameter parameter = new Parameter(indexString, formatValue(param, hasTaint));
+        Parameter parameter = new Parameter(indexString, new EventValue(param, hasTaint));
         this.parameterValues.add(parameter);
     }
 
+    public List<Parameter> getParameterValues() {
+        return this.parameterValues;
+    }
+
     public void setReturnValue(Object ret, boolean hasTaint) {
         if (ret == null) {
             return;
         }
-        this.returnValue = formatValue(ret, hasTaint);
+        this.returnValue = new EventValue(ret, hasTaint);
     }
 
-    private String formatValue(Object val, boolean hasTaint) {
-        String str = obj2String(val);
-        return "[" + StringUtils.normalize(str, MAX_VALUE_LENGTH) + "]"
-                + (hasTaint ? "*" : "") + String.valueOf(str.length());
+    public String getReturnValue() {
+        return this.returnValue == null ? null : this.returnValue.getFormatted();
     }
 
     public Set<Integer> getSourceHashes() {
-        return sourceHashes;
+        if (this.sourceHashes == null) {
+            return Collections.emptySet();
+        }
+        return this.sourceHashes;
     }
 
     public void addSourceHash(int hashcode) {
+        if (this.sourceHashes == null) {
+            this.sourceHashes = new HashSet<Integer>();
+        }
         this.sourceHashes.add(hashcode);
     }
 
     public Set<Integer> getTargetHashes() {
-        return targetHashes;
+        if (this.targetHashes == null) {
+            return Collections.emptySet();
+        }
+        return this.targetHashes;
     }
 
     public void addTargetHash(int hashCode) {
+        if (this.targetHashes == null) {
+            this.targetHashes = new HashSet<Integer>();
+        }
         this.targetHashes.add(hashCode);
     }
 
@@ -264,38 +293,28 @@ public class MethodEvent {
         this.callStack = callStack;
     }
 
-    public String obj2String(Object value) {
-        StringBuilder sb = new StringBuilder();
-        if (null == value) {
-            return "";
+    /**
+     * estimated bytes retained by the event in the method pool, the display values, hashes and taint ranges,
+     * not including the instances which are owned by the application
+     */
+    public long estimateSize() {
+        long size = EVENT_OVERHEAD;
+        if (this.objectValue != null) {
+            size += this.objectValue.estimateSize();
+        }
+        if (this.returnValue != null) {
+            size += this.returnValue.estimateSize();
+        }
+        for (Parameter parameter : this.parameterValues) {
+            size += parameter.estimateSize();
+        }
+        size += HASH_ENTRY_SIZE * (getSourceHashes().size() + getTargetHashes().size());
+        for (MethodEventTargetRange range : this.targetRanges) {
+            size += range.estimateSize();
         }
-        try {
-            if (value.getClass().isArray() && !value.getClass().getComponentType().isPrimitive()) {
-                // 判断是否是基本类型的数组，基本类型的数组无法类型转换为Object[]，导致java.lang.ClassCastException异常
-                Object[] taints = (Object[]) value;
-                for (Object taint : taints) {
-                    if (taint != null) {
-                        if (taint.getClass().isArray() && !taint.getClass().getComponentType().isPrimitive()) {
-                            Object[] subTaints = (Object[]) taint;
-                            for (Object subTaint : subTaints) {
-                                sb.append(subTaint.toString()).append(" ");
-                            }
-                        } else {
-                            sb.append(taint.toString()).append(" ");
-                        }
-                    }
-                }
-            } else if (value instanceof StringWriter) {
-                sb.append(((StringWriter) value).getBuffer().toString());
-            } else {
-                sb.append(value.toString());
-            }
-        } catch (Throwable e) {
-            // org.jruby.RubyBasicObject.hashCode() may cause NullPointerException when RubyBasicObject.metaClass is null
-            sb.append(value.getClass().getName())
-                    .append("@")
-                    .append(Integer.toHexString(System.identityHashCode(value)));
+        if (this.sourceTypes != null) {
+            size += HASH_ENTRY_SIZE * this.sourceTypes.size();
         }
-        return sb.toString();
+        return size;
     }
 }
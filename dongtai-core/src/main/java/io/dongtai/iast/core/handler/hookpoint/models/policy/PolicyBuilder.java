@@ -1,6 +1,7 @@
 package io.dongtai.iast.core.handler.hookpoint.models.policy;
 
 import io.dongtai.iast.common.constants.ApiPath;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.VulnType;
 import io.dongtai.iast.core.utils.HttpClientUtils;
 import io.dongtai.iast.core.utils.StringUtils;
@@ -80,7 +81,7 @@ public class PolicyBuilder {
         MethodMatcher methodMatcher = buildMethodMatcher(node);
         SourceNode sourceNode = new SourceNode(sources, targets, methodMatcher);
         setInheritable(node, sourceNode);
-        List<String[]> tags = parseTags(node, sourceNode);
+        List<TaintTag[]> tags = parseTags(node, sourceNode);
         sourceNode.setTags(tags.get(0));
         policy.addSource(sourceNode);
     }
@@ -96,9 +97,10 @@ public class PolicyBuilder {
         // @TODO: command
         PropagatorNode propagatorNode = new PropagatorNode(sources, targets, null, new String[]{}, methodMatcher);
         setInheritable(node, propagatorNode);
-        List<String[]> tags = parseTags(node, propagatorNode);
+        List<TaintTag[]> tags = parseTags(node, propagatorNode);
         propagatorNode.setTags(tags.get(0));
         propagatorNode.setUntags(tags.get(1));
+        propagatorNode.compile();
         policy.addPropagator(propagatorNode);
     }
 
@@ -118,6 +120,7 @@ public class PolicyBuilder {
         setInheritable(node, sinkNode);
         sinkNode.setVulType(vulType);
         sinkNode.setStackDenyList(parseStackDenyList(sinkNode));
+        sinkNode.bindCheckers();
         policy.addSink(sinkNode);
     }
 
@@ -221,8 +224,8 @@ public class PolicyBuilder {
         return new String[0];
     }
 
-    private static List<String[]> parseTags(JSONObject node, PolicyNode policyNode) {
-        List<String[]> empty = Arrays.asList(new String[0], new String[0]);
+    private static List<TaintTag[]> parseTags(JSONObject node, PolicyNode policyNode) {
+        List<TaintTag[]> empty = Arrays.asList(new TaintTag[0], new TaintTag[0]);
         if (!(policyNode.getMethodMatcher() instanceof SignatureMethodMatcher)) {
             return empty;
         }
@@ -234,6 +237,20 @@ public class PolicyBuilder {
             return empty;
         }
 
-        return taintTags;
+        return Arrays.asList(toTaintTags(taintTags.get(0)), toTaintTags(taintTags.get(1)));
+    }
+
+    /**
+     * unknown tags are ignored
+     */
+    private static TaintTag[] toTaintTags(String[] keys) {
+        List<TaintTag> tags = new ArrayList<TaintTag>();
+        for (String key : keys) {
+            TaintTag tag = TaintTag.of(key);
+            if (tag != null) {
+                tags.add(tag);
+            }
+        }
+        return tags.toArray(new TaintTag[0]);
     }
 }
@@ -23,7 +23,12 @@ public class PolicyManager {
             " org.springframework.web.servlet.FrameworkServlet".substring(1),
             " javax.servlet.http.Cookie".substring(1),
             " org/springframework/web/servlet/mvc/annotation/AnnotationMethodHandlerAdapter$ServletHandlerMethodInvoker".substring(1),
-            " feign.SynchronousMethodHandler.invoke".substring(1)
+            " feign.SynchronousMethodHandler.invoke".substring(1),
+            " org.xml.sax.XMLReader".substring(1),
+            " javax.xml.parsers.SAXParser".substring(1),
+            " javax.xml.stream.XMLInputFactory".substring(1),
+            " org.apache.xerces.parsers.XMLParser".substring(1),
+            " com.sun.org.apache.xerces.internal.parsers.XMLParser".substring(1)
     ));
     private static final Set<String> HOOK_CLASS_SUFFIX_NAMES = new HashSet<String>(Collections.singletonList(
             ".dubbo.monitor.support.MonitorFilter"
@@ -0,0 +1,67 @@
+package io.dongtai.iast.core.handler.hookpoint.models.policy;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * dense index of the policy nodes referenced by instrumented methods. the index is assigned at transform time and
+ * pushed into the hooked method as an int constant, so that the spy dispatcher finds the node with one array load.
+ */
+public class PolicyNodeRegistry {
+    private static final int INITIAL_CAPACITY = 256;
+
+    /**
+     * policy node key => index, only accessed at transform time
+     */
+    private static final Map<String, Integer> INDEXES = new HashMap<String, Integer>();
+
+    /**
+     * re-assigned after each write to publish the new element to hook threads
+     */
+    private static volatile PolicyNode[] nodes = new PolicyNode[INITIAL_CAPACITY];
+
+    private static int size;
+
+    /**
+     * register policy node and return its index. a node with the same key (e.g. after policy reload) reuses the
+     * index of the previous node and replaces it.
+     *
+     * @param node policy node
+     * @return dense index of the node
+     */
+    public static synchronized int register(PolicyNode node) {
+        PolicyNode[] current = nodes;
+        String key = node.toString();
+        Integer index = INDEXES.get(key);
+        if (index == null) {
+            index = size++;
+            INDEXES.put(key, index);
+            if (index >= current.length) {
+                PolicyNode[] grown = new PolicyNode[current.length << 1];
+                System.arraycopy(current, 0, grown, 0, current.length);
+                current = grown;
+            }
+        }
+        current[index] = node;
+        nodes = current;
+        return index;
+    }
+
+    /**
+     * @param index index returned by {@link #register(PolicyNode)}
+     * @return policy node, null if index is not registered
+     */
+    public static PolicyNode get(int index) {
+        PolicyNode[] current = nodes;
+        if (index < 0 || index >= current.length) {
+            return null;
+        }
+        return current[index];
+    }
+
+    public static synchronized void clear() {
+        INDEXES.clear();
+        nodes = new PolicyNode[INITIAL_CAPACITY];
+        size = 0;
+    }
+}
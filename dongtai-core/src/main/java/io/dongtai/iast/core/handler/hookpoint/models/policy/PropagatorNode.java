@@ -1,6 +1,7 @@
 package io.dongtai.iast.core.handler.hookpoint.models.policy;
 
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintCommand;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 
 import java.util.Set;
 
@@ -8,8 +9,9 @@ public class PropagatorNode extends TaintFlowNode {
     private Set<TaintPosition> sources;
     private TaintCommand command;
     private String[] commandArguments;
-    private String[] tags;
-    private String[] untags;
+    private TaintTag[] tags;
+    private TaintTag[] untags;
+    private PropagatorPlan plan;
 
     public PropagatorNode(Set<TaintPosition> sources, Set<TaintPosition> targets,
                           TaintCommand command, String[] commandArguments, MethodMatcher methodMatcher) {
@@ -29,6 +31,30 @@ public class PropagatorNode extends TaintFlowNode {
 
     public void setSources(Set<TaintPosition> sources) {
         this.sources = sources;
+        this.plan = null;
+    }
+
+    @Override
+    public void setTargets(Set<TaintPosition> targets) {
+        super.setTargets(targets);
+        this.plan = null;
+    }
+
+    /**
+     * compiled execution plan, built by the policy builder, or on first use if the node was changed after that
+     */
+    public PropagatorPlan getPlan() {
+        PropagatorPlan p = this.plan;
+        if (p == null) {
+            p = compile();
+        }
+        return p;
+    }
+
+    public PropagatorPlan compile() {
+        PropagatorPlan p = PropagatorPlan.compile(this);
+        this.plan = p;
+        return p;
     }
 
     public TaintCommand getCommand() {
@@ -47,7 +73,7 @@ public class PropagatorNode extends TaintFlowNode {
         this.commandArguments = commandArguments;
     }
 
-    public String[] getTags() {
+    public TaintTag[] getTags() {
         return this.tags;
     }
 
@@ -55,15 +81,15 @@ public class PropagatorNode extends TaintFlowNode {
         return this.tags != null && this.tags.length > 0;
     }
 
-    public void setTags(String[] tags) {
+    public void setTags(TaintTag[] tags) {
         this.tags = tags;
     }
 
-    public String[] getUntags() {
+    public TaintTag[] getUntags() {
         return this.untags;
     }
 
-    public void setUntags(String[] untags) {
+    public void setUntags(TaintTag[] untags) {
         this.untags = untags;
     }
 }
@@ -0,0 +1,193 @@
+package io.dongtai.iast.core.handler.hookpoint.models.policy;
+
+import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintCommandRunner;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * immutable execution plan of a propagator node, compiled once from the source/target positions,
+ * so that propagation at runtime only checks flags and parameter indexes
+ */
+public final class PropagatorPlan {
+    /**
+     * no single source object for the taint range command
+     */
+    public static final int SOURCE_NONE = 0;
+    /**
+     * O => *
+     */
+    public static final int SOURCE_OBJECT = 1;
+    /**
+     * O|Pn => *, the parameter is the source and the object holds the old ranges
+     */
+    public static final int SOURCE_OBJECT_PARAMETER = 2;
+    /**
+     * Pn => *
+     */
+    public static final int SOURCE_PARAMETER = 3;
+
+    /**
+     * multiple or invalid targets, taint ranges are not tracked
+     */
+    public static final int TARGET_NONE = 0;
+    public static final int TARGET_OBJECT = 1;
+    public static final int TARGET_RETURN = 2;
+    public static final int TARGET_PARAMETER = 3;
+
+    private static final int[] NO_PARAMETERS = new int[0];
+
+    private final boolean sourceObject;
+    private final int[] sourceParameters;
+    private final boolean targetObject;
+    private final boolean targetReturn;
+    private final int[] targetParameters;
+    private final boolean empty;
+    private final boolean objectToSelf;
+
+    private final int sourceKind;
+    private final int sourceParameter;
+    private final int targetKind;
+    private final int targetParameter;
+
+    private final TaintCommandRunner runner;
+
+    private PropagatorPlan(Set<TaintPosition> sources, Set<TaintPosition> targets, TaintCommandRunner runner) {
+        this.sourceObject = TaintPosition.hasObject(sources);
+        this.sourceParameters = parameterIndexes(sources);
+        this.targetObject = TaintPosition.hasObject(targets);
+        this.targetReturn = TaintPosition.hasReturn(targets);
+        this.targetParameters = parameterIndexes(targets);
+        int sourceCount = sources == null ? 0 : sources.size();
+        int targetCount = targets == null ? 0 : targets.size();
+        this.empty = sourceCount == 0 || targetCount == 0;
+        // O => O || O => R, source equals target
+        this.objectToSelf = sourceCount == 1 && this.sourceObject
+                && targetCount == 1 && (this.targetObject || this.targetReturn);
+
+        int sourceParameter = this.sourceParameters.length > 0 ? this.sourceParameters[0] : -1;
+        if (sourceCount == 1 && this.sourceObject) {
+            this.sourceKind = SOURCE_OBJECT;
+        } else if (sourceCount == 2 && this.sourceObject && sourceParameter >= 0) {
+            this.sourceKind = SOURCE_OBJECT_PARAMETER;
+        } else if (sourceCount == 1 && sourceParameter >= 0) {
+            this.sourceKind = SOURCE_PARAMETER;
+        } else {
+            this.sourceKind = SOURCE_NONE;
+        }
+        this.sourceParameter = sourceParameter;
+
+        int targetParameter = this.targetParameters.length > 0 ? this.targetParameters[0] : -1;
+        if (targetCount != 1) {
+            this.targetKind = TARGET_NONE;
+        } else if (this.targetObject) {
+            this.targetKind = TARGET_OBJECT;
+        } else if (this.targetReturn) {
+            this.targetKind = TARGET_RETURN;
+        } else if (targetParameter >= 0) {
+            this.targetKind = TARGET_PARAMETER;
+        } else {
+            this.targetKind = TARGET_NONE;
+        }
+        this.targetParameter = targetParameter;
+
+        this.runner = runner;
+    }
+
+    public static PropagatorPlan compile(PropagatorNode node) {
+        TaintCommandRunner runner = null;
+        if (node.getMethodMatcher() instanceof SignatureMethodMatcher) {
+            String signature = ((SignatureMethodMatcher) node.getMethodMatcher()).getSignature().toString();
+            runner = TaintCommandRunner.getCommandRunner(signature);
+        }
+        return new PropagatorPlan(node.getSources(), node.getTargets(), runner);
+    }
+
+    private static int[] parameterIndexes(Set<TaintPosition> positions) {
+        if (positions == null || positions.isEmpty()) {
+            return NO_PARAMETERS;
+        }
+        int[] indexes = new int[positions.size()];
+        int n = 0;
+        for (TaintPosition position : positions) {
+            if (position.isParameter()) {
+                indexes[n++] = position.getParameterIndex();
+            }
+        }
+        if (n == 0) {
+            return NO_PARAMETERS;
+        }
+        indexes = Arrays.copyOf(indexes, n);
+        Arrays.sort(indexes);
+        return indexes;
+    }
+
+    /**
+     * @return true if the node has no sources or no targets
+     */
+    public boolean isEmpty() {
+        return this.empty;
+    }
+
+    public boolean isSourceObject() {
+        return this.sourceObject;
+    }
+
+    /**
+     * @return sorted source parameter indexes, do not modify
+     */
+    public int[] getSourceParameters() {
+        return this.sourceParameters;
+    }
+
+    public boolean isTargetObject() {
+        return this.targetObject;
+    }
+
+    public boolean isTargetReturn() {
+        return this.targetReturn;
+    }
+
+    /**
+     * @return sorted target parameter indexes, do not modify
+     */
+    public int[] getTargetParameters() {
+        return this.targetParameters;
+    }
+
+    /**
+     * @return true for O => O and O => R
+     */
+    public boolean isObjectToSelf() {
+        return this.objectToSelf;
+    }
+
+    public int getSourceKind() {
+        return this.sourceKind;
+    }
+
+    /**
+     * @return the source parameter index of SOURCE_OBJECT_PARAMETER and SOURCE_PARAMETER
+     */
+    public int getSourceParameter() {
+        return this.sourceParameter;
+    }
+
+    public int getTargetKind() {
+        return this.targetKind;
+    }
+
+    /**
+     * @return the target parameter index of TARGET_PARAMETER
+     */
+    public int getTargetParameter() {
+        return this.targetParameter;
+    }
+
+    /**
+     * @return taint command runner bound to the node signature, null if the node has no command
+     */
+    public TaintCommandRunner getRunner() {
+        return this.runner;
+    }
+}
@@ -1,11 +1,14 @@
 package io.dongtai.iast.core.handler.hookpoint.models.policy;
 
+import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.SinkCheckers;
+
 import java.util.Set;
 
 public class SinkNode extends PolicyNode {
     private Set<TaintPosition> sources;
     private String vulType;
     private String[] stackDenyList;
+    private SinkCheckers checkers;
 
     public SinkNode(Set<TaintPosition> sources, MethodMatcher methodMatcher) {
         super(methodMatcher);
@@ -30,6 +33,24 @@ public class SinkNode extends PolicyNode {
 
     public void setVulType(String vulType) {
         this.vulType = vulType;
+        this.checkers = null;
+    }
+
+    /**
+     * checkers bound to the node, built by the policy builder, or on first use if the node was changed after that
+     */
+    public SinkCheckers getCheckers() {
+        SinkCheckers c = this.checkers;
+        if (c == null) {
+            c = bindCheckers();
+        }
+        return c;
+    }
+
+    public SinkCheckers bindCheckers() {
+        SinkCheckers c = SinkCheckers.bind(this);
+        this.checkers = c;
+        return c;
     }
 
     public boolean hasDenyStack(StackTraceElement[] stackTraceElements) {
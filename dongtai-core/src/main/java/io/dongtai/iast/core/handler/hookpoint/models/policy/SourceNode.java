@@ -1,10 +1,11 @@
 package io.dongtai.iast.core.handler.hookpoint.models.policy;
 
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import java.util.Set;
 
 public class SourceNode extends TaintFlowNode {
     private Set<TaintPosition> sources;
-    private String[] tags;
+    private TaintTag[] tags;
 
     public SourceNode(Set<TaintPosition> sources, Set<TaintPosition> targets, MethodMatcher methodMatcher) {
         super(targets, methodMatcher);
@@ -23,7 +24,7 @@ public class SourceNode extends TaintFlowNode {
         this.sources = sources;
     }
 
-    public String[] getTags() {
+    public TaintTag[] getTags() {
         return this.tags;
     }
 
@@ -31,7 +32,7 @@ public class SourceNode extends TaintFlowNode {
         return this.tags != null && this.tags.length > 0;
     }
 
-    public void setTags(String[] tags) {
+    public void setTags(TaintTag[] tags) {
         this.tags = tags;
     }
 }
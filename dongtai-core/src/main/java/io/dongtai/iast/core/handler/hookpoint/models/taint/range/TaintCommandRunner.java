@@ -1,6 +1,7 @@
 package io.dongtai.iast.core.handler.hookpoint.models.taint.range;
 
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PropagatorNode;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
 
@@ -13,34 +14,14 @@ public class TaintCommandRunner {
 
     private TaintCommand command;
 
-    private List<RunnerParam> params = new ArrayList<RunnerParam>();
+    /**
+     * parameter index of "Pn" arguments, or the literal value
+     */
+    private int[] params = new int[0];
 
-    private int paramsCount = 0;
-
-    static class RunnerParam {
-        private int position;
-        private boolean isLiteral = false;
-
-        public RunnerParam(String param) {
-            if (param.startsWith("P")) {
-                this.position = Integer.parseInt(param.substring(1)) - 1;
-            } else {
-                this.position = Integer.parseInt(param);
-                this.isLiteral = true;
-            }
-        }
-
-        public int getParam(Object[] params) {
-            if (this.isLiteral) {
-                return this.position;
-            }
-            if (params == null) {
-                return 0;
-            }
+    private boolean[] literals = new boolean[0];
 
-            return (Integer) params[this.position];
-        }
-    }
+    private int paramsCount = 0;
 
     public static TaintCommandRunner create(String signature, TaintCommand command) {
         return create(signature, command, null);
@@ -53,10 +34,19 @@ public class TaintCommandRunner {
             r.builder = new TaintRangesBuilder();
             r.command = command;
             if (params != null) {
-                r.paramsCount = params.size();
-                for (String param : params) {
-                    r.params.add(new RunnerParam(param));
+                int count = params.size();
+                r.params = new int[count];
+                r.literals = new boolean[count];
+                for (int i = 0; i < count; i++) {
+                    String param = params.get(i);
+                    if (param.startsWith("P")) {
+                        r.params[i] = Integer.parseInt(param.substring(1)) - 1;
+                    } else {
+                        r.params[i] = Integer.parseInt(param);
+                        r.literals[i] = true;
+                    }
                 }
+                r.paramsCount = count;
             }
             return r;
         } catch (Throwable e) {
@@ -64,6 +54,17 @@ public class TaintCommandRunner {
         }
     }
 
+    private int getParam(int i, Object[] params) {
+        if (this.literals[i]) {
+            return this.params[i];
+        }
+        if (params == null) {
+            return 0;
+        }
+
+        return (Integer) params[this.params[i]];
+    }
+
     public TaintRangesBuilder getTaintRangesBuilder() {
         return this.builder;
     }
@@ -77,13 +78,13 @@ public class TaintCommandRunner {
 
         try {
             if (this.paramsCount > 0) {
-                p1 = this.params.get(0).getParam(params);
+                p1 = getParam(0, params);
             }
             if (this.paramsCount > 1) {
-                p2 = this.params.get(1).getParam(params);
+                p2 = getParam(1, params);
             }
             if (this.paramsCount > 2) {
-                p3 = this.params.get(2).getParam(params);
+                p3 = getParam(2, params);
             }
         } catch (Throwable e) {
             DongTaiLog.warn(ErrorCode.TAINT_COMMAND_GET_PARAMETERS_FAILED, this.signature, e.getMessage());
@@ -91,10 +92,10 @@ public class TaintCommandRunner {
         }
 
         if (propagatorNode.hasTags()) {
-            String[] tags = propagatorNode.getTags();
+            TaintTag[] tags = propagatorNode.getTags();
             int len = TaintRangesBuilder.getLength(target);
-            for (String tag : tags) {
-                tr.add(new TaintRange(tag, 0, len));
+            for (TaintTag tag : tags) {
+                tr.add(tag, 0, len);
             }
         }
 
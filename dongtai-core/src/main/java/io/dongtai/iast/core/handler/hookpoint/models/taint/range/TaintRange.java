@@ -3,8 +3,11 @@ package io.dongtai.iast.core.handler.hookpoint.models.taint.range;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import org.json.JSONObject;
 
+/**
+ * single taint range, {@link TaintRanges} stores ranges packed and only creates this on construction and access
+ */
 public class TaintRange {
-    private String name;
+    private TaintTag tag;
     public int start;
     public int stop;
 
@@ -18,24 +21,32 @@ public class TaintRange {
     }
 
     public TaintRange(int start, int stop) {
-        this(TaintTag.UNTRUSTED.getKey(), start, stop);
+        this(TaintTag.UNTRUSTED, start, stop);
     }
 
-    public TaintRange(String name, int start, int stop) {
-        if (stop <= start) {
-            throw new RuntimeException("invalid taint range: " + name + ", stop: " + stop + " must greater than start: " + start);
-        }
-        this.name = name;
+    public TaintRange(TaintTag tag, int start, int stop) {
+        checkRange(tag, start, stop);
+        this.tag = tag;
         this.start = start;
         this.stop = stop;
     }
 
-    public String getName() {
-        return this.name;
+    static void checkRange(TaintTag tag, int start, int stop) {
+        if (stop <= start) {
+            throw new RuntimeException("invalid taint range: " + tag.getKey() + ", stop: " + stop + " must greater than start: " + start);
+        }
     }
 
-    public void setName(String name) {
-        this.name = name;
+    public TaintTag getTag() {
+        return this.tag;
+    }
+
+    public void setTag(TaintTag tag) {
+        this.tag = tag;
+    }
+
+    public String getName() {
+        return this.tag.getKey();
     }
 
     public int getStart() {
@@ -44,7 +55,7 @@ public class TaintRange {
 
     public void setStart(int start) {
         if (start < 0) {
-            throw new RuntimeException("invalid taint range: " + name + ", start:" + start + " must greater than 0");
+            throw new RuntimeException("invalid taint range: " + getName() + ", start:" + start + " must greater than 0");
         }
         this.start = start;
     }
@@ -54,9 +65,7 @@ public class TaintRange {
     }
 
     public void setStop(int stop) {
-        if (stop <= this.start) {
-            throw new RuntimeException("invalid taint range: " + name + ", stop: " + stop + " must greater than start: " + this.start);
-        }
+        checkRange(this.tag, this.start, stop);
         this.stop = stop;
     }
 
@@ -66,14 +75,14 @@ public class TaintRange {
 
     public TaintRange clone() {
         try {
-            return new TaintRange(this.name, this.start, this.stop);
+            return new TaintRange(this.tag, this.start, this.stop);
         } catch (RuntimeException e) {
             return null;
         }
     }
 
     public boolean overlaps(TaintRange range) {
-        return range.name.equals(this.name) && this.start <= range.stop && range.start <= this.stop;
+        return range.tag == this.tag && this.start <= range.stop && range.start <= this.stop;
     }
 
     /**
@@ -90,32 +99,36 @@ public class TaintRange {
     }
 
     public RangeRelation compareRange(int low, int high) {
+        return compareRange(this.start, this.stop, low, high);
+    }
+
+    static RangeRelation compareRange(int start, int stop, int low, int high) {
         if (high <= low) {
             throw new RuntimeException("invalid compare, high: " + high + " must greater than low: " + low);
         }
 
-        if (this.start < low && this.stop <= low) {
+        if (start < low && stop <= low) {
             // |-----|
             // |------|
             //        |------|
             return RangeRelation.BELOW;
-        } else if (this.start < low && this.stop <= high) {
+        } else if (start < low && stop <= high) {
             // |----------|
             // |-------------|
             //        |------|
             return RangeRelation.LOW_SPAN;
-        } else if (this.start < low) {
+        } else if (start < low) {
             // |-------------------|
             //        |------|
             return RangeRelation.CONTAIN;
-        } else if (this.start < high && this.stop <= high) {
+        } else if (start < high && stop <= high) {
             //         |----|
             //        |-----|
             //         |-----|
             //        |------|
             //        |------|
             return RangeRelation.WITHIN;
-        } else if (this.start < high) {
+        } else if (start < high) {
             //       |------|
             // |----------|
             // |------|
@@ -129,14 +142,22 @@ public class TaintRange {
     }
 
     public String toString() {
-        return this.name + "(" + this.start + "," + this.stop + ")";
+        return toString(this.tag, this.start, this.stop);
+    }
+
+    static String toString(TaintTag tag, int start, int stop) {
+        return tag.getKey() + "(" + start + "," + stop + ")";
     }
 
     public JSONObject toJson() {
+        return toJson(this.tag, this.start, this.stop);
+    }
+
+    static JSONObject toJson(TaintTag tag, int start, int stop) {
         JSONObject json = new JSONObject();
-        json.put("name", this.name);
-        json.put("start", this.start);
-        json.put("stop", this.stop);
+        json.put("name", tag.getKey());
+        json.put("start", start);
+        json.put("stop", stop);
         return json;
     }
 }
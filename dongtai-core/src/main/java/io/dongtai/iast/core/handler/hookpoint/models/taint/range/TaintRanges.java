@@ -1,117 +1,184 @@
 package io.dongtai.iast.core.handler.hookpoint.models.taint.range;
 
 import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
-import io.dongtai.iast.core.utils.StringUtils;
 import org.json.JSONArray;
 
-import java.util.*;
+import java.util.Arrays;
 
+/**
+ * taint ranges packed in a single int array, each range takes {@link #STRIDE} ints: start, stop and the tag bit of
+ * {@link TaintTag#getMask()}. ranges keep the insertion order until {@link #merge()}, which sorts them by start.
+ * operations that keep the order of starts keep the sorted state, so a following merge is a linear sweep and
+ * {@link #trim(int, int)}/{@link #subRange(int, int)} can drop the ranges above the end by binary search.
+ * <p>
+ * the array is copy-on-write: {@link #clone()} and {@link #addAll(TaintRanges)} into empty ranges share the array,
+ * it is only copied by the first modification, so pass-through propagations do not allocate.
+ */
 public class TaintRanges {
-    private ArrayList<TaintRange> taintRanges;
+    private static final int START = 0;
+    private static final int STOP = 1;
+    private static final int TAG = 2;
+    private static final int STRIDE = 3;
+    private static final int DEFAULT_CAPACITY = 2;
+    private static final int[] EMPTY = new int[0];
+
+    private int[] data;
+    private int size;
+    /**
+     * data may be referenced by other instances
+     */
+    private boolean shared;
+    /**
+     * ranges are ordered by start
+     */
+    private boolean sorted = true;
 
     public TaintRanges() {
-        this.taintRanges = new ArrayList<TaintRange>();
+        this.data = EMPTY;
+    }
+
+    public TaintRanges(TaintRange... taintRanges) {
+        this.data = new int[Math.max(taintRanges.length, DEFAULT_CAPACITY) * STRIDE];
+        for (TaintRange taintRange : taintRanges) {
+            add(taintRange);
+        }
     }
 
-    public TaintRanges(ArrayList<TaintRange> taintRanges) {
-        this.taintRanges = taintRanges;
+    public int size() {
+        return this.size;
     }
 
-    public TaintRanges(TaintRange ...taintRanges) {
-        this.taintRanges = new ArrayList<TaintRange>(Arrays.asList(taintRanges));
+    public int getStart(int index) {
+        return this.data[index * STRIDE + START];
     }
 
-    public ArrayList<TaintRange> getTaintRanges() {
-        return this.taintRanges;
+    public int getStop(int index) {
+        return this.data[index * STRIDE + STOP];
+    }
+
+    public TaintTag getTag(int index) {
+        return TaintTag.ofMask(this.data[index * STRIDE + TAG]);
+    }
+
+    public TaintRange get(int index) {
+        return new TaintRange(getTag(index), getStart(index), getStop(index));
     }
 
     public void add(TaintRange taintRange) {
-        this.taintRanges.add(taintRange);
+        append(taintRange.getTag().getMask(), taintRange.start, taintRange.stop);
     }
 
-    public void addAll(TaintRanges taintRanges) {
-        if (taintRanges != null) {
-            this.taintRanges.addAll(taintRanges.getTaintRanges());
-        }
+    public void add(TaintTag tag, int start, int stop) {
+        TaintRange.checkRange(tag, start, stop);
+        append(tag.getMask(), start, stop);
     }
 
-    public void addAll(Collection<TaintRange> taintRanges) {
-        if (taintRanges != null) {
-            this.taintRanges.addAll(taintRanges);
+    public void addAll(TaintRanges taintRanges) {
+        if (taintRanges == null || taintRanges.size == 0) {
+            return;
+        }
+        if (this.size == 0) {
+            share(taintRanges, this);
+            return;
         }
+        this.sorted = this.sorted && taintRanges.sorted && taintRanges.getStart(0) >= getStart(this.size - 1);
+        ensureCapacity(this.size + taintRanges.size);
+        System.arraycopy(taintRanges.data, 0, this.data, this.size * STRIDE, taintRanges.size * STRIDE);
+        this.size += taintRanges.size;
     }
 
-    public void untag(String[] untags) {
-        if (untags == null || untags.length == 0 || this.taintRanges.size() == 0) {
+    public void untag(TaintTag[] untags) {
+        int mask = TaintTag.mask(untags);
+        if (mask == 0 || (getTagMask() & mask) == 0) {
             return;
         }
-        for (String str : untags) {
-            if (StringUtils.isEmpty(str)) {
-                continue;
-            }
-            for (Iterator<TaintRange> it = this.taintRanges.listIterator(); it.hasNext(); ) {
-                if (it.next().getName().equals(str)) {
-                    it.remove();
-                }
+        int[] d = writableData();
+        int w = 0;
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            if ((d[r + TAG] & mask) == 0) {
+                copy(r, w);
+                w += STRIDE;
             }
         }
+        this.size = w / STRIDE;
     }
 
-    public boolean hasRequiredTaintTags(TaintTag[] tags) {
-        int total = tags.length;
-        Map<String, Boolean> found = new HashMap<String, Boolean>();
-        for (TaintTag tag : tags) {
-            for (TaintRange taintRange : this.taintRanges) {
-                if (tag.equals(taintRange.getName())) {
-                    found.put(tag.getKey(), true);
-                }
-            }
+    /**
+     * @return bitmask of all tags in the ranges
+     */
+    public int getTagMask() {
+        int mask = 0;
+        int[] d = this.data;
+        for (int r = TAG; r < this.size * STRIDE; r += STRIDE) {
+            mask |= d[r];
         }
-        return total == found.size();
+        return mask;
+    }
+
+    /**
+     * @param tagMask bitmask of {@link TaintTag#mask(TaintTag...)}
+     */
+    public boolean hasRequiredTaintTags(int tagMask) {
+        return (getTagMask() & tagMask) == tagMask;
+    }
+
+    /**
+     * @param tagMask bitmask of {@link TaintTag#mask(TaintTag...)}
+     */
+    public boolean hasDisallowedTaintTags(int tagMask) {
+        return (getTagMask() & tagMask) != 0;
+    }
+
+    public boolean hasRequiredTaintTags(TaintTag[] tags) {
+        return hasRequiredTaintTags(TaintTag.mask(tags));
     }
 
     public boolean hasDisallowedTaintTags(TaintTag[] tags) {
-        for (TaintTag tag : tags) {
-            for (TaintRange taintRange : this.taintRanges) {
-                if (tag.equals(taintRange.getName())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return hasDisallowedTaintTags(TaintTag.mask(tags));
     }
 
+    /**
+     * @return ranges sharing the data with this, copied on the first modification of either one
+     */
     public TaintRanges clone() {
         TaintRanges taintRanges = new TaintRanges();
-        int size = this.taintRanges.size();
-        for (int i = 0; i < size; i++) {
-            taintRanges.taintRanges.add(this.taintRanges.get(i).clone());
+        if (this.size > 0) {
+            share(this, taintRanges);
         }
         return taintRanges;
     }
 
     public boolean isEmpty() {
-        return this.taintRanges.isEmpty();
+        return this.size == 0;
     }
 
     public TaintRanges explode(int i) {
         if (i < 0) {
             throw new RuntimeException("taint range explode to a negative value: " + i);
         }
-        for (TaintRange taintRange : this.taintRanges) {
-            taintRange.start = 0;
-            taintRange.stop = i;
+        if (this.size == 0) {
+            return this;
+        }
+        int[] d = writableData();
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            d[r + START] = 0;
+            d[r + STOP] = i;
         }
+        this.sorted = true;
         return this;
     }
 
     public void shift(int i) {
-        for (TaintRange taintRange : this.taintRanges) {
-            if (taintRange.start + i < 0 || taintRange.stop + i < 0) {
+        if (i == 0 || this.size == 0) {
+            return;
+        }
+        int[] d = writableData();
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            if (d[r + START] + i < 0 || d[r + STOP] + i < 0) {
                 throw new RuntimeException("taint range shift range into negative value: " + i);
             }
-            taintRange.start += i;
-            taintRange.stop += i;
+            d[r + START] += i;
+            d[r + STOP] += i;
         }
     }
 
@@ -123,38 +190,41 @@ public class TaintRanges {
             throw new RuntimeException("taint range trim invalid stop: " + end + " < start: " + start);
         }
         if (end == start) {
-            this.taintRanges.clear();
+            this.size = 0;
             return;
         }
+        dropAbove(end);
 
-        Iterator<TaintRange> it = this.taintRanges.iterator();
-        while (it.hasNext()) {
-            TaintRange next = it.next();
-            switch (next.compareRange(start, end)) {
+        int[] d = writableData();
+        int w = 0;
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            switch (TaintRange.compareRange(d[r + START], d[r + STOP], start, end)) {
                 case BELOW:
                 case ABOVE:
-                    it.remove();
-                    break;
+                    continue;
                 case LOW_SPAN:
-                    next.start = 0;
-                    next.stop -= start;
+                    d[r + START] = 0;
+                    d[r + STOP] -= start;
                     break;
                 case WITHIN:
-                    next.start -= start;
-                    next.stop -= start;
+                    d[r + START] -= start;
+                    d[r + STOP] -= start;
                     break;
                 case CONTAIN:
-                    next.start = 0;
-                    next.stop = end - start;
+                    d[r + START] = 0;
+                    d[r + STOP] = end - start;
                     break;
                 case HIGH_SPAN:
-                    next.start -= start;
-                    next.stop = end - start;
+                    d[r + START] -= start;
+                    d[r + STOP] = end - start;
                     break;
                 default:
                     break;
             }
+            copy(r, w);
+            w += STRIDE;
         }
+        this.size = w / STRIDE;
     }
 
     public void split(int start, int stop) {
@@ -166,19 +236,24 @@ public class TaintRanges {
         }
         if (stop != start) {
             int width = stop - start;
-            List<TaintRange> newTaintRange = new ArrayList<TaintRange>();
-            for (TaintRange taintRange : this.taintRanges) {
-                if (start <= taintRange.stop) {
-                    if (start > taintRange.start && start < taintRange.stop) {
-                        newTaintRange.add(new TaintRange(taintRange.getName(), stop, taintRange.stop + width));
-                        taintRange.stop = start;
-                    } else if (start <= taintRange.start) {
-                        taintRange.start += width;
-                        taintRange.stop += width;
+            int count = this.size;
+            writableData();
+            for (int i = 0; i < count; i++) {
+                int r = i * STRIDE;
+                int rangeStart = this.data[r + START];
+                int rangeStop = this.data[r + STOP];
+                if (start <= rangeStop) {
+                    if (start > rangeStart && start < rangeStop) {
+                        // data may be reallocated by append
+                        append(this.data[r + TAG], stop, rangeStop + width);
+                        this.data[r + STOP] = start;
+                        this.sorted = false;
+                    } else if (start <= rangeStart) {
+                        this.data[r + START] += width;
+                        this.data[r + STOP] += width;
                     }
                 }
             }
-            this.taintRanges.addAll(newTaintRange);
         }
     }
 
@@ -190,23 +265,26 @@ public class TaintRanges {
             throw new RuntimeException("taint range subRange invalid stop: " + stop + " < start:" + start);
         }
         if (stop == start) {
-            this.taintRanges.clear();
+            this.size = 0;
             return;
         }
-        Iterator<TaintRange> it = this.taintRanges.iterator();
-        while (it.hasNext()) {
-            TaintRange next = it.next();
-            switch (next.compareRange(start, stop)) {
+        dropAbove(stop);
+        int[] d = writableData();
+        int w = 0;
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            switch (TaintRange.compareRange(d[r + START], d[r + STOP], start, stop)) {
                 case BELOW:
                 case ABOVE:
-                    it.remove();
-                    break;
+                    continue;
                 default:
-                    next.start = Math.max(next.start, start);
-                    next.stop = Math.min(next.stop, stop);
+                    d[r + START] = Math.max(d[r + START], start);
+                    d[r + STOP] = Math.min(d[r + STOP], stop);
                     break;
             }
+            copy(r, w);
+            w += STRIDE;
         }
+        this.size = w / STRIDE;
     }
 
     public void remove(int start, int stop) {
@@ -218,29 +296,33 @@ public class TaintRanges {
         }
         if (stop != start) {
             int length = stop - start;
-            Iterator<TaintRange> it = this.taintRanges.iterator();
-            while (it.hasNext()) {
-                TaintRange next = it.next();
-                switch (next.compareRange(start, stop)) {
+            int[] d = writableData();
+            int w = 0;
+            for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+                switch (TaintRange.compareRange(d[r + START], d[r + STOP], start, stop)) {
                     case LOW_SPAN:
-                        next.stop = start;
+                        d[r + STOP] = start;
                         break;
                     case WITHIN:
-                        it.remove();
-                        break;
+                        continue;
                     case CONTAIN:
-                        next.stop -= length;
+                        d[r + STOP] -= length;
                         break;
                     case HIGH_SPAN:
-                        next.start = start;
-                        next.stop -= stop - next.start;
+                        d[r + START] = start;
+                        d[r + STOP] -= stop - start;
                         break;
                     case ABOVE:
-                        next.start -= length;
-                        next.stop -= length;
+                        d[r + START] -= length;
+                        d[r + STOP] -= length;
+                        break;
+                    default:
                         break;
                 }
+                copy(r, w);
+                w += STRIDE;
             }
+            this.size = w / STRIDE;
         }
     }
 
@@ -251,66 +333,177 @@ public class TaintRanges {
         if (stop <= start) {
             throw new RuntimeException("taint range clear invalid stop: " + stop + " <= start:" + start);
         }
-        Iterator<TaintRange> it = this.taintRanges.iterator();
-        TaintRange taintRange = null;
-        while (it.hasNext()) {
-            TaintRange next2, next1 = it.next();
-            switch (next1.compareRange(start, stop)) {
+        int[] d = writableData();
+        int w = 0;
+        int highTag = 0;
+        int highStop = 0;
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            switch (TaintRange.compareRange(d[r + START], d[r + STOP], start, stop)) {
                 case LOW_SPAN:
-                    next1.stop = start;
+                    d[r + STOP] = start;
                     break;
                 case WITHIN:
-                    it.remove();
-                    break;
+                    continue;
                 case CONTAIN:
-                    next2 = next1.clone();
-                    next1.stop = start;
-                    next2.start = stop;
-                    taintRange = next2;
+                    highTag = d[r + TAG];
+                    highStop = d[r + STOP];
+                    d[r + STOP] = start;
                     break;
                 case HIGH_SPAN:
-                    next1.start = stop;
+                    d[r + START] = stop;
                     break;
                 default:
             }
+            copy(r, w);
+            w += STRIDE;
         }
-        if (taintRange != null) {
-            add(taintRange);
+        this.size = w / STRIDE;
+        if (highTag != 0) {
+            append(highTag, stop, highStop);
         }
     }
 
+    /**
+     * merge overlapping or adjacent ranges of the same tag, ranges are sorted by start after merge
+     */
     public void merge() {
-        if (this.taintRanges.size() <= 1) {
+        if (this.size <= 1) {
             return;
         }
+        if (!this.sorted) {
+            sort();
+        }
 
-        for (int i = this.taintRanges.size() - 1; i >= 0; i--) {
-            TaintRange range1 = this.taintRanges.get(i);
-            for (int j = this.taintRanges.size() - 1; j >= 0; j--) {
-                if (j == i) {
-                    continue;
-                }
-                TaintRange range2 = this.taintRanges.get(j);
-                if (range1.overlaps(range2)) {
-                    range1.merge(range2);
-                    this.taintRanges.remove(j);
-                    if (i > this.taintRanges.size() - 1) {
-                        i = this.taintRanges.size();
-                    }
+        // last kept range of each tag
+        int[] last = new int[Integer.SIZE];
+        Arrays.fill(last, -1);
+        int[] d = this.data;
+        int w = 0;
+        for (int r = 0; r < this.size * STRIDE; r += STRIDE) {
+            int tag = Integer.numberOfTrailingZeros(d[r + TAG]);
+            int l = last[tag];
+            if (l >= 0 && d[r + START] <= d[l + STOP]) {
+                if (d[r + STOP] > d[l + STOP]) {
+                    d = writableData();
+                    d[l + STOP] = d[r + STOP];
                 }
+                continue;
             }
+            if (r != w) {
+                d = writableData();
+                copy(r, w);
+            }
+            last[tag] = w;
+            w += STRIDE;
         }
+        this.size = w / STRIDE;
     }
 
     public String toString() {
-        return "Taints:" + this.taintRanges;
+        StringBuilder sb = new StringBuilder("Taints:[");
+        for (int i = 0; i < this.size; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(TaintRange.toString(getTag(i), getStart(i), getStop(i)));
+        }
+        return sb.append(']').toString();
     }
 
     public JSONArray toJson() {
         JSONArray json = new JSONArray();
-        for (TaintRange tr : this.taintRanges) {
-            json.put(tr.toJson());
+        for (int i = 0; i < this.size; i++) {
+            json.put(TaintRange.toJson(getTag(i), getStart(i), getStop(i)));
         }
         return json;
     }
+
+    private void append(int tagMask, int start, int stop) {
+        ensureCapacity(this.size + 1);
+        int r = this.size * STRIDE;
+        this.data[r + START] = start;
+        this.data[r + STOP] = stop;
+        this.data[r + TAG] = tagMask;
+        if (this.size == 0) {
+            this.sorted = true;
+        } else if (start < this.data[r - STRIDE + START]) {
+            this.sorted = false;
+        }
+        this.size++;
+    }
+
+    /**
+     * stable sort by start, the data is replaced by a new array
+     */
+    private void sort() {
+        int[] d = this.data;
+        long[] keys = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            keys[i] = ((long) d[i * STRIDE + START] << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] sortedData = new int[this.size * STRIDE];
+        for (int i = 0; i < this.size; i++) {
+            System.arraycopy(d, ((int) keys[i]) * STRIDE, sortedData, i * STRIDE, STRIDE);
+        }
+        this.data = sortedData;
+        this.shared = false;
+        this.sorted = true;
+    }
+
+    /**
+     * drop ranges starting at or above the end, only when sorted
+     */
+    private void dropAbove(int end) {
+        if (!this.sorted) {
+            return;
+        }
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (getStart(mid) < end) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        this.size = low;
+    }
+
+    private void copy(int from, int to) {
+        if (from != to) {
+            System.arraycopy(this.data, from, this.data, to, STRIDE);
+        }
+    }
+
+    private static void share(TaintRanges from, TaintRanges to) {
+        to.data = from.data;
+        to.size = from.size;
+        to.sorted = from.sorted;
+        to.shared = true;
+        from.shared = true;
+    }
+
+    /**
+     * copy the data before modification if it is shared
+     */
+    private int[] writableData() {
+        if (this.shared) {
+            this.data = Arrays.copyOf(this.data, this.size * STRIDE);
+            this.shared = false;
+        }
+        return this.data;
+    }
+
+    private void ensureCapacity(int count) {
+        if (this.shared) {
+            int capacity = Math.max(count, DEFAULT_CAPACITY);
+            this.data = Arrays.copyOf(this.data, capacity * STRIDE);
+            this.shared = false;
+        } else if (count * STRIDE > this.data.length) {
+            int capacity = Math.max(Math.max(count, DEFAULT_CAPACITY), (this.data.length / STRIDE) << 1);
+            this.data = Arrays.copyOf(this.data, capacity * STRIDE);
+        }
+    }
 }
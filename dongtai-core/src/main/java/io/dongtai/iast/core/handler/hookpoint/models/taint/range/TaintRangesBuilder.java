@@ -7,12 +7,14 @@ public class TaintRangesBuilder {
     public void keep(TaintRanges taintRanges, Object target, int argC, TaintRanges srcTaintRanges) {
         if (argC == 0) {
             int length = getLength(target);
-            if (length > 0) {
-                for (TaintRange taintRange : srcTaintRanges.getTaintRanges()) {
-                    if (taintRange.getStart() < length && taintRange.getStop() > length) {
-                        taintRange.setStop(length);
+            if (length > 0 && exceeds(srcTaintRanges, length)) {
+                for (int i = 0; i < srcTaintRanges.size(); i++) {
+                    int start = srcTaintRanges.getStart(i);
+                    int stop = srcTaintRanges.getStop(i);
+                    if (start < length && stop > length) {
+                        stop = length;
                     }
-                    taintRanges.add(taintRange);
+                    taintRanges.add(srcTaintRanges.getTag(i), start, stop);
                 }
             } else {
                 taintRanges.addAll(srcTaintRanges);
@@ -22,6 +24,18 @@ public class TaintRangesBuilder {
         }
     }
 
+    /**
+     * @return true if any range crosses the length
+     */
+    private static boolean exceeds(TaintRanges taintRanges, int length) {
+        for (int i = 0; i < taintRanges.size(); i++) {
+            if (taintRanges.getStart(i) < length && taintRanges.getStop(i) > length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public void append(TaintRanges taintRanges, Object target, TaintRanges oldTaintRanges,
                        Object source, TaintRanges srcTaintRanges, int p1, int p2, int argC) {
         int length = getLength(target);
@@ -150,7 +164,7 @@ public class TaintRangesBuilder {
         }
         if (!srcTaintRanges.isEmpty()) {
             if (!(source instanceof CharSequence)) {
-                taintRanges.addAll(srcTaintRanges.getTaintRanges());
+                taintRanges.addAll(srcTaintRanges);
                 return;
             }
             int left = 0;
@@ -168,11 +182,11 @@ public class TaintRangesBuilder {
                 }
                 length = right;
             }
-            for (TaintRange taintRange : srcTaintRanges.getTaintRanges()) {
-                int max = Math.max(0, taintRange.getStart() - left);
-                int min = Math.min(length, taintRange.getStop()) - left;
+            for (int i = 0; i < srcTaintRanges.size(); i++) {
+                int max = Math.max(0, srcTaintRanges.getStart(i) - left);
+                int min = Math.min(length, srcTaintRanges.getStop(i)) - left;
                 if (min > max) {
-                    taintRanges.add(new TaintRange(taintRange.getName(), max, min));
+                    taintRanges.add(srcTaintRanges.getTag(i), max, min);
                 }
             }
             taintRanges.merge();
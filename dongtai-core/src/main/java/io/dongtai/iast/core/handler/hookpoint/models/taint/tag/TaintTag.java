@@ -1,5 +1,8 @@
 package io.dongtai.iast.core.handler.hookpoint.models.taint.tag;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum TaintTag {
     UNTRUSTED("untrusted"),
     CROSS_SITE("cross-site"),
@@ -12,17 +15,59 @@ public enum TaintTag {
     BASE64_DECODED("base64-decoded"),
     ;
 
+    private static final TaintTag[] VALUES = values();
+    private static final Map<String, TaintTag> KEYS = new HashMap<String, TaintTag>();
+
+    static {
+        for (TaintTag tag : VALUES) {
+            KEYS.put(tag.key, tag);
+        }
+    }
+
     private final String key;
+    private final int mask;
 
     TaintTag(String key) {
         this.key = key;
+        this.mask = 1 << ordinal();
     }
 
     public String getKey() {
         return this.key;
     }
 
+    /**
+     * single bit of the tag, used to store tags as bitmask
+     */
+    public int getMask() {
+        return this.mask;
+    }
+
     public boolean equals(String key) {
         return this.key.equals(key);
     }
+
+    /**
+     * @return null if the key is unknown
+     */
+    public static TaintTag of(String key) {
+        return KEYS.get(key);
+    }
+
+    /**
+     * @param mask single bit mask of {@link #getMask()}
+     */
+    public static TaintTag ofMask(int mask) {
+        return VALUES[Integer.numberOfTrailingZeros(mask)];
+    }
+
+    public static int mask(TaintTag... tags) {
+        int mask = 0;
+        if (tags != null) {
+            for (TaintTag tag : tags) {
+                mask |= tag.mask;
+            }
+        }
+        return mask;
+    }
 }
@@ -3,6 +3,13 @@ package io.dongtai.iast.core.handler.hookpoint.service;
 import java.util.*;
 
 public class HttpClient {
+    public static final int CLIENT_NONE = 0;
+    public static final int CLIENT_JAVA_NET_URL = 1;
+    public static final int CLIENT_APACHE_HTTP3 = 2;
+    public static final int CLIENT_APACHE_HTTP4 = 3;
+    public static final int CLIENT_APACHE_HTTP5 = 4;
+    public static final int CLIENT_OKHTTP = 5;
+
     private static final String JAVA_NET_URL_CONN = "sun.net.www.protocol.http.HttpURLConnection.connect()";
     private static final String JAVA_NET_URL_CONN_GET_INPUT_STREAM = "sun.net.www.protocol.http.HttpURLConnection.getInputStream()";
     private static final String JAVA_NET_URL_CONN_GET_OUTPUT_STREAM = "sun.net.www.protocol.http.HttpURLConnection.getOutputStream()";
@@ -63,6 +70,27 @@ public class HttpClient {
         return SIGNATURE.contains(signature);
     }
 
+    /**
+     * @return client kind of the signature, CLIENT_NONE if the signature is not a http client method
+     */
+    public static int getClientType(String signature) {
+        if (signature == null || !SIGNATURE.contains(signature)) {
+            return CLIENT_NONE;
+        }
+        if (matchJavaNetUrl(signature)) {
+            return CLIENT_JAVA_NET_URL;
+        } else if (matchApacheHttp3(signature)) {
+            return CLIENT_APACHE_HTTP3;
+        } else if (matchApacheHttp4(signature)) {
+            return CLIENT_APACHE_HTTP4;
+        } else if (matchApacheHttp5(signature)) {
+            return CLIENT_APACHE_HTTP5;
+        } else if (matchOkhttp(signature)) {
+            return CLIENT_OKHTTP;
+        }
+        return CLIENT_NONE;
+    }
+
     public static boolean matchJavaNetUrl(String signature) {
         return JAVA_NET_URL_SIGNATURE.contains(signature);
     }
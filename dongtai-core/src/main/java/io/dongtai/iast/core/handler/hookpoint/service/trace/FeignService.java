@@ -1,10 +1,10 @@
 package io.dongtai.iast.core.handler.hookpoint.service.trace;
 
-import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.context.ContextManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.utils.StackUtils;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
 import io.dongtai.log.DongTaiLog;
 
 import java.lang.reflect.*;
@@ -12,7 +12,7 @@ import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class FeignService {
-    public static void solveSyncInvoke(MethodEvent event, AtomicInteger invokeIdSequencer) {
+    public static void solveSyncInvoke(RequestState state, MethodEvent event, AtomicInteger invokeIdSequencer) {
         try {
             if (event.parameterInstances.length != 1) {
                 return;
@@ -27,7 +27,7 @@ public class FeignService {
 
             // get args
             Object args = event.parameterInstances[0];
-            trackObject(event, args, 0);
+            trackObject(state, event, args, 0);
 
             boolean hasTaint = false;
             if (!event.getSourceHashes().isEmpty()) {
@@ -48,7 +48,7 @@ public class FeignService {
             event.setCallStacks(StackUtils.createCallStack(4));
             int invokeId = invokeIdSequencer.getAndIncrement();
             event.setInvokeId(invokeId);
-            EngineManager.TRACK_MAP.get().put(invokeId, event);
+            state.getTrackMap().addTrackMethod(invokeId, event);
         } catch (NoSuchFieldException ignore) {
         } catch (NoSuchMethodException ignore) {
         } catch (Throwable e) {
@@ -56,78 +56,77 @@ public class FeignService {
         }
     }
 
-    private static void trackObject(MethodEvent event, Object obj, int depth) {
+    private static void trackObject(RequestState state, MethodEvent event, Object obj, int depth) {
         if (depth >= 10 || !TaintPoolUtils.isNotEmpty(obj) || !TaintPoolUtils.isAllowTaintType(obj)) {
             return;
         }
 
         Class<?> cls = obj.getClass();
         if (cls.isArray() && !cls.getComponentType().isPrimitive()) {
-            trackArray(event, obj, depth);
+            trackArray(state, event, obj, depth);
         } else if (obj instanceof Iterator) {
-            trackIterator(event, (Iterator<?>) obj, depth);
+            trackIterator(state, event, (Iterator<?>) obj, depth);
         } else if (obj instanceof Map) {
-            trackMap(event, (Map<?, ?>) obj, depth);
+            trackMap(state, event, (Map<?, ?>) obj, depth);
         } else if (obj instanceof Map.Entry) {
-            trackMapEntry(event, (Map.Entry<?, ?>) obj, depth);
+            trackMapEntry(state, event, (Map.Entry<?, ?>) obj, depth);
         } else if (obj instanceof Collection) {
             if (obj instanceof List) {
-                trackList(event, (List<?>) obj, depth);
+                trackList(state, event, (List<?>) obj, depth);
             } else {
-                trackIterator(event, ((Collection<?>) obj).iterator(), depth);
+                trackIterator(state, event, ((Collection<?>) obj).iterator(), depth);
             }
         } else if ("java.util.Optional".equals(obj.getClass().getName())) {
-            trackOptional(event, obj, depth);
+            trackOptional(state, event, obj, depth);
         } else {
             if (!(obj instanceof String)) {
                 Set<Object> modelValues = TaintPoolUtils.parseCustomModel(obj);
                 for (Object modelValue : modelValues) {
-                    trackObject(event, modelValue, depth + 1);
+                    trackObject(state, event, modelValue, depth + 1);
                 }
             }
 
-            int hash = System.identityHashCode(obj);
-            if (EngineManager.TAINT_HASH_CODES.contains(hash)) {
-                event.addSourceHash(hash);
+            if (state.getTaintPool().contains(obj)) {
+                event.addSourceHash(System.identityHashCode(obj));
             }
         }
     }
 
-    private static void trackArray(MethodEvent event, Object arr, int depth) {
+    private static void trackArray(RequestState state, MethodEvent event, Object arr, int depth) {
         int length = Array.getLength(arr);
         for (int i = 0; i < length; i++) {
-            trackObject(event, Array.get(arr, i), depth + 1);
+            trackObject(state, event, Array.get(arr, i), depth + 1);
         }
     }
 
-    private static void trackIterator(MethodEvent event, Iterator<?> it, int depth) {
+    private static void trackIterator(RequestState state, MethodEvent event, Iterator<?> it, int depth) {
         while (it.hasNext()) {
-            trackObject(event, it.next(), depth + 1);
+            trackObject(state, event, it.next(), depth + 1);
         }
     }
 
-    private static void trackMap(MethodEvent event, Map<?, ?> map, int depth) {
+    private static void trackMap(RequestState state, MethodEvent event, Map<?, ?> map, int depth) {
         for (Object key : map.keySet()) {
-            trackObject(event, key, depth + 1);
-            trackObject(event, map.get(key), depth + 1);
+            trackObject(state, event, key, depth + 1);
+            trackObject(state, event, map.get(key), depth + 1);
         }
     }
 
-    private static void trackMapEntry(MethodEvent event, Map.Entry<?, ?> entry, int depth) {
-        trackObject(event, entry.getKey(), depth + 1);
-        trackObject(event, entry.getValue(), depth + 1);
+    private static void trackMapEntry(RequestState state, MethodEvent event, Map.Entry<?, ?> entry, int depth) {
+        trackObject(state, event, entry.getKey(), depth + 1);
+        trackObject(state, event, entry.getValue(), depth + 1);
     }
 
-    private static void trackList(MethodEvent event, List<?> list, int depth) {
+    private static void trackList(RequestState state, MethodEvent event, List<?> list, int depth) {
         for (Object obj : list) {
-            trackObject(event, obj, depth + 1);
+            trackObject(state, event, obj, depth + 1);
         }
     }
 
-    private static void trackOptional(MethodEvent event, Object obj, int depth) {
+    private static void trackOptional(RequestState state, MethodEvent event, Object obj, int depth) {
         try {
             Object v = ((Optional<?>) obj).orElse(null);
-            trackObject(event, v, depth + 1);
+            trackObject(state, event, v, depth + 1);
         } catch (Throwable ignore) {
         }
     }
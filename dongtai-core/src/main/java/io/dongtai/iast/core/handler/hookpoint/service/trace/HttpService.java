@@ -3,7 +3,6 @@ package io.dongtai.iast.core.handler.hookpoint.service.trace;
 import io.dongtai.iast.core.handler.context.ContextManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNode;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
 import io.dongtai.iast.core.handler.hookpoint.service.HttpClient;
 import io.dongtai.iast.core.utils.ReflectUtils;
 import io.dongtai.log.DongTaiLog;
@@ -13,29 +12,43 @@ import java.lang.reflect.Method;
 import java.net.HttpURLConnection;
 
 public class HttpService implements ServiceTrace {
-    private String matchedSignature;
+    private final int clientType;
+
+    public HttpService() {
+        this(HttpClient.CLIENT_NONE);
+    }
+
+    private HttpService(int clientType) {
+        this.clientType = clientType;
+    }
 
     @Override
-    public boolean match(MethodEvent event, PolicyNode policyNode) {
-        if (policyNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
-            this.matchedSignature = ((SignatureMethodMatcher) policyNode.getMethodMatcher()).getSignature().toString();
+    public ServiceTrace bind(PolicyNode policyNode, String signature) {
+        int clientType = HttpClient.getClientType(signature);
+        if (clientType == HttpClient.CLIENT_NONE) {
+            return null;
         }
-
-        return HttpClient.match(this.matchedSignature);
+        return new HttpService(clientType);
     }
 
     @Override
     public void addTrace(MethodEvent event, PolicyNode policyNode) {
         String traceId = null;
-        if (HttpClient.matchJavaNetUrl(this.matchedSignature)) {
-            traceId = addTraceToJavaNetURL(event);
-        } else if (HttpClient.matchApacheHttp4(this.matchedSignature)
-                || HttpClient.matchApacheHttp5(this.matchedSignature)) {
-            traceId = addTraceToApacheHttpClient(event);
-        } else if (HttpClient.matchApacheHttp3(this.matchedSignature)) {
-            traceId = addTraceToApacheHttpClientLegacy(event);
-        } else if (HttpClient.matchOkhttp(this.matchedSignature)) {
-            traceId = addTraceToOkhttp(event);
+        switch (this.clientType) {
+            case HttpClient.CLIENT_JAVA_NET_URL:
+                traceId = addTraceToJavaNetURL(event);
+                break;
+            case HttpClient.CLIENT_APACHE_HTTP4:
+            case HttpClient.CLIENT_APACHE_HTTP5:
+                traceId = addTraceToApacheHttpClient(event);
+                break;
+            case HttpClient.CLIENT_APACHE_HTTP3:
+                traceId = addTraceToApacheHttpClientLegacy(event);
+                break;
+            case HttpClient.CLIENT_OKHTTP:
+                traceId = addTraceToOkhttp(event);
+                break;
+            default:
         }
 
         if (traceId != null && !traceId.isEmpty()) {
@@ -72,7 +85,7 @@ public class HttpService implements ServiceTrace {
         }
         try {
             Method method;
-            if (HttpClient.matchApacheHttp5(this.matchedSignature)) {
+            if (this.clientType == HttpClient.CLIENT_APACHE_HTTP5) {
                 method = ReflectUtils.getDeclaredMethodFromSuperClass(obj.getClass(),
                         "addHeader", new Class[]{String.class, Object.class});
             } else {
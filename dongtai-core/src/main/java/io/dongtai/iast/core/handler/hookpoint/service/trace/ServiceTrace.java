@@ -4,7 +4,12 @@ import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNode;
 
 public interface ServiceTrace {
-    boolean match(MethodEvent event, PolicyNode policyNode);
+    /**
+     * resolve the service trace for the policy node once when the policy is built
+     *
+     * @return service trace bound to the node, null if the node is not a service call
+     */
+    ServiceTrace bind(PolicyNode policyNode, String signature);
 
     void addTrace(MethodEvent event, PolicyNode policyNode);
 }
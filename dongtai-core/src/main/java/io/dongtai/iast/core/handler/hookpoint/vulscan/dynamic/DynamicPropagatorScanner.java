@@ -11,9 +11,9 @@ import io.dongtai.iast.core.handler.hookpoint.service.trace.HttpService;
 import io.dongtai.iast.core.handler.hookpoint.service.trace.ServiceTrace;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.IVulScan;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.VulnType;
-import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe.XXECheck;
 import io.dongtai.iast.core.utils.StackUtils;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.threadlocal.TaintRangesPool;
 
 import java.util.*;
 
@@ -21,25 +21,15 @@ import java.util.*;
  * @author dongzhiyong@huoxian.cn
  */
 public class DynamicPropagatorScanner implements IVulScan {
-    private final static Set<SinkSafeChecker> SAFE_CHECKERS = new HashSet<SinkSafeChecker>(Arrays.asList(
-            new FastjsonCheck(),
-            new XXECheck()
-    ));
-
-    private final static Set<SinkSourceChecker> SOURCE_CHECKERS = new HashSet<SinkSourceChecker>(Arrays.asList(
-            new PathTraversalCheck(),
-            new SSRFSourceCheck(),
-            new UnvalidatedRedirectCheck()
-    ));
-
-    private static final Set<ServiceTrace> SERVICE_TRACES = new HashSet<ServiceTrace>(Arrays.asList(
-            new HttpService()
-    ));
+    private static final int XSS_REQUIRED_TAGS = TaintTag.mask(TaintTag.UNTRUSTED, TaintTag.CROSS_SITE);
+    private static final int XSS_DISALLOWED_TAGS = TaintTag.mask(TaintTag.XSS_ENCODED, TaintTag.URL_ENCODED,
+            TaintTag.HTML_ENCODED, TaintTag.BASE64_ENCODED);
 
     @Override
     public void scan(MethodEvent event, SinkNode sinkNode) {
-        for (SinkSafeChecker chk : SAFE_CHECKERS) {
-            if (chk.match(event, sinkNode) && chk.isSafe(event, sinkNode)) {
+        SinkCheckers checkers = sinkNode.getCheckers();
+        for (SinkSafeChecker chk : checkers.getSafeCheckers()) {
+            if (chk.isSafe(event, sinkNode)) {
                 return;
             }
         }
@@ -49,14 +39,12 @@ public class DynamicPropagatorScanner implements IVulScan {
         }
 
         boolean serviceCall = false;
-        for (ServiceTrace serviceTrace : SERVICE_TRACES) {
-            if (serviceTrace.match(event, sinkNode)) {
-                serviceCall = true;
-                serviceTrace.addTrace(event, sinkNode);
-            }
+        for (ServiceTrace serviceTrace : checkers.getServiceTraces()) {
+            serviceCall = true;
+            serviceTrace.addTrace(event, sinkNode);
         }
 
-        boolean hit = sinkSourceHitTaintPool(event, sinkNode);
+        boolean hit = sinkSourceHitTaintPool(event, sinkNode, checkers.getSourceChecker());
         if (serviceCall || hit) {
             StackTraceElement[] stackTraceElements = StackUtils.createCallStack(5);
             if (sinkNode.hasDenyStack(stackTraceElements)) {
@@ -67,7 +55,7 @@ public class DynamicPropagatorScanner implements IVulScan {
             event.setInvokeId(invokeId);
             event.setTaintPositions(sinkNode.getSources(), null);
 
-            EngineManager.TRACK_MAP.addTrackMethod(invokeId, event);
+            EngineManager.REQUEST_STATE.get().getTrackMap().addTrackMethod(invokeId, event);
         }
     }
 
@@ -76,13 +64,12 @@ public class DynamicPropagatorScanner implements IVulScan {
      *
      * @param event    current method event
      * @param sinkNode current sink policy node
+     * @param sourceChecker source checker bound to the sink node, may be null
      * @return 当前方法是否命中污点池
      */
-    private boolean sinkSourceHitTaintPool(MethodEvent event, SinkNode sinkNode) {
-        for (SinkSourceChecker chk : SOURCE_CHECKERS) {
-            if (chk.match(event, sinkNode)) {
-                return chk.checkSource(event, sinkNode);
-            }
+    private boolean sinkSourceHitTaintPool(MethodEvent event, SinkNode sinkNode, SinkSourceChecker sourceChecker) {
+        if (sourceChecker != null) {
+            return sourceChecker.checkSource(event, sinkNode);
         }
 
         List<Object> sourceInstances = new ArrayList<Object>();
@@ -120,20 +107,13 @@ public class DynamicPropagatorScanner implements IVulScan {
         // TODO: check taint tags at server
         if (VulnType.REFLECTED_XSS.equals(sinkNode.getVulType()) && !sourceInstances.isEmpty()) {
             boolean tagsHit = false;
+            TaintRangesPool taintRangesPool = EngineManager.REQUEST_STATE.get().getTaintRangesPool();
             for (Object sourceInstance : sourceInstances) {
-                int hash = System.identityHashCode(sourceInstance);
-                TaintRanges tr = EngineManager.TAINT_RANGES_POOL.get(hash);
+                TaintRanges tr = taintRangesPool.get(sourceInstance);
                 if (tr == null || tr.isEmpty()) {
                     continue;
                 }
-                TaintTag[] required = new TaintTag[]{
-                        TaintTag.UNTRUSTED, TaintTag.CROSS_SITE
-                };
-                TaintTag[] disallowed = new TaintTag[]{
-                        TaintTag.XSS_ENCODED, TaintTag.URL_ENCODED,
-                        TaintTag.HTML_ENCODED, TaintTag.BASE64_ENCODED
-                };
-                if (tr.hasRequiredTaintTags(required) && !tr.hasDisallowedTaintTags(disallowed)) {
+                if (tr.hasRequiredTaintTags(XSS_REQUIRED_TAGS) && !tr.hasDisallowedTaintTags(XSS_DISALLOWED_TAGS)) {
                     tagsHit = true;
                 }
             }
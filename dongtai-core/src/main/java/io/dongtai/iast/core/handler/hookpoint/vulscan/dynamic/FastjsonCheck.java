@@ -1,14 +1,16 @@
 package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
 
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 import io.dongtai.log.DongTaiLog;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
 
 public class FastjsonCheck implements SinkSafeChecker {
     public static List<String> FASTJSON_SINK_METHODS = Arrays.asList(
@@ -17,48 +19,127 @@ public class FastjsonCheck implements SinkSafeChecker {
             "com.alibaba.fastjson.JSON.parse(java.lang.String)"
     );
 
-    private String policySignature;
+    private static final String JSON_CLASS = "com.alibaba.fastjson.JSON";
+    private static final String PARSER_CONFIG_CLASS = "com.alibaba.fastjson.parser.ParserConfig";
 
-    @Override
-    public boolean match(MethodEvent event, SinkNode sinkNode) {
-        if (sinkNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
-            this.policySignature = ((SignatureMethodMatcher) sinkNode.getMethodMatcher()).getSignature().toString();
+    private static final WeakReference<Class<?>> NOT_FOUND = new WeakReference<Class<?>>(null);
+
+    /**
+     * the sinks are static methods, the context classloader is the only hint of the fastjson in use. the ParserConfig
+     * class it resolves is weakly referenced so that the loader is not pinned
+     */
+    private static final Map<ClassLoader, WeakReference<Class<?>>> PARSER_CONFIG_CLASSES =
+            Collections.synchronizedMap(new WeakHashMap<ClassLoader, WeakReference<Class<?>>>());
+
+    /**
+     * verdict of each fastjson library, keyed on the ParserConfig class, so on the loader that defines it.
+     * the library version can not change for a loaded class, only the safe mode is read on each check
+     */
+    private static final ClassValue<LibraryVerdict> VERDICTS = new ClassValue<LibraryVerdict>() {
+        @Override
+        protected LibraryVerdict computeValue(Class<?> type) {
+            return LibraryVerdict.create(type);
         }
+    };
 
-        return FASTJSON_SINK_METHODS.contains(this.policySignature);
+    @Override
+    public SinkSafeChecker bind(SinkNode sinkNode, String signature) {
+        return FASTJSON_SINK_METHODS.contains(signature) ? this : null;
     }
 
     @Override
     public boolean isSafe(MethodEvent event, SinkNode sinkNode) {
+        Class<?> cfgClass = getParserConfigClass(Thread.currentThread().getContextClassLoader());
+        if (cfgClass == null) {
+            return true;
+        }
+        return VERDICTS.get(cfgClass).isSafe();
+    }
+
+    private static Class<?> getParserConfigClass(ClassLoader loader) {
+        if (loader == null) {
+            loader = FastjsonCheck.class.getClassLoader();
+        }
+
+        WeakReference<Class<?>> ref = PARSER_CONFIG_CLASSES.get(loader);
+        if (ref == NOT_FOUND) {
+            return null;
+        }
+        Class<?> cls = ref == null ? null : ref.get();
+        if (cls == null) {
+            cls = findClass(PARSER_CONFIG_CLASS, loader);
+            PARSER_CONFIG_CLASSES.put(loader, cls == null ? NOT_FOUND : new WeakReference<Class<?>>(cls));
+        }
+        return cls;
+    }
+
+    private static Class<?> findClass(String name, ClassLoader loader) {
         try {
-            Class<?> cls = Class.forName("com.alibaba.fastjson.JSON");
-            Field f = cls.getDeclaredField("VERSION");
-            Class<?> t = f.getType();
-            if (t != String.class) {
-                return true;
+            return Class.forName(name, false, loader);
+        } catch (Throwable e) {
+            DongTaiLog.debug("fastjson class not found: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static final class LibraryVerdict {
+        private static final LibraryVerdict SAFE = new LibraryVerdict(true, null);
+        private static final LibraryVerdict UNSAFE = new LibraryVerdict(false, null);
+        private static final ComparableVersion SAFE_VERSION = new ComparableVersion("1.2.83");
+        private static final ComparableVersion LOW_VERSION = new ComparableVersion("1.2.68");
+
+        private final boolean safe;
+        /**
+         * ParserConfig.getGlobalInstance().isSafeMode(), null if the version verdict is final
+         */
+        private final MethodHandle safeModeGetter;
+
+        private LibraryVerdict(boolean safe, MethodHandle safeModeGetter) {
+            this.safe = safe;
+            this.safeModeGetter = safeModeGetter;
+        }
+
+        private static LibraryVerdict create(Class<?> cfgClass) {
+            try {
+                Class<?> jsonClass = Class.forName(JSON_CLASS, false, cfgClass.getClassLoader());
+                Field f = jsonClass.getDeclaredField("VERSION");
+                Class<?> t = f.getType();
+                if (t != String.class) {
+                    return SAFE;
+                }
+                String version = (String) f.get(null);
+                // 1.2.76 to 1.2.80 VERSION is always 1.2.76
+                ComparableVersion currentVer = new ComparableVersion(version);
+                if (currentVer.compareTo(SAFE_VERSION) >= 0) {
+                    return SAFE;
+                }
+                if (LOW_VERSION.compareTo(currentVer) > 0) {
+                    return UNSAFE;
+                }
+
+                // https://github.com/alibaba/fastjson/wiki/fastjson_safemode
+                MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+                MethodHandle getGlobalInstance = lookup.findStatic(cfgClass, "getGlobalInstance",
+                        MethodType.methodType(cfgClass));
+                MethodHandle isSafeMode = lookup.findVirtual(cfgClass, "isSafeMode",
+                        MethodType.methodType(boolean.class));
+                return new LibraryVerdict(false, MethodHandles.filterReturnValue(getGlobalInstance, isSafeMode));
+            } catch (Throwable e) {
+                DongTaiLog.debug("fastjson version check failed: {}", e.getMessage());
+                return SAFE;
             }
-            String version = (String) f.get(null);
-            // 1.2.76 to 1.2.80 VERSION is always 1.2.76
-            ComparableVersion currentVer = new ComparableVersion(version);
-            ComparableVersion safeVer = new ComparableVersion("1.2.83");
-            ComparableVersion lowVer = new ComparableVersion("1.2.68");
+        }
 
-            if (currentVer.compareTo(safeVer) >= 0) {
-                return true;
+        private boolean isSafe() {
+            if (this.safeModeGetter == null) {
+                return this.safe;
             }
-            if (lowVer.compareTo(currentVer) > 0) {
-                return false;
+            try {
+                return (boolean) this.safeModeGetter.invokeExact();
+            } catch (Throwable e) {
+                DongTaiLog.debug("fastjson safe mode check failed: {}", e.getMessage());
+                return true;
             }
-
-            // https://github.com/alibaba/fastjson/wiki/fastjson_safemode
-            Class<?> cfgClass = Class.forName("com.alibaba.fastjson.parser.ParserConfig");
-            Object cfg = cfgClass.getMethod("getGlobalInstance").invoke(null);
-            Object isSafeMode = cfg.getClass().getMethod("isSafeMode").invoke(cfg);
-            return isSafeMode != null && (Boolean) isSafeMode;
-        } catch (Throwable e) {
-            DongTaiLog.debug("fastjson version and safe mode check failed: {}, {}",
-                    e.getMessage(), e.getCause().getMessage());
-            return true;
         }
     }
 }
@@ -2,9 +2,7 @@ package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
 
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
-import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRange;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRanges;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
 import io.dongtai.log.DongTaiLog;
@@ -31,36 +29,54 @@ public class PathTraversalCheck implements SinkSourceChecker {
             "java.io.File.<init>(java.net.URI)"
     ));
 
-    private String policySignature;
+    private static final int MODE_NONE = 0;
+    private static final int MODE_PATH = 1;
+    private static final int MODE_NIO_PATH = 2;
+    private static final int MODE_URI = 3;
+
+    private final int mode;
+
+    public PathTraversalCheck() {
+        this(MODE_NONE);
+    }
+
+    private PathTraversalCheck(int mode) {
+        this.mode = mode;
+    }
 
     @Override
-    public boolean match(MethodEvent event, SinkNode sinkNode) {
-        if (sinkNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
-            this.policySignature = ((SignatureMethodMatcher) sinkNode.getMethodMatcher()).getSignature().toString();
+    public SinkSourceChecker bind(SinkNode sinkNode, String signature) {
+        if (!SINK_TYPE.equals(sinkNode.getVulType()) || signature == null) {
+            return null;
         }
-
-        return SINK_TYPE.equals(sinkNode.getVulType()) && (
-                SIGNATURES.contains(this.policySignature)
-                        || URI_SIGNATURES.contains(this.policySignature)
-                        || NIO_FS_GET_PATH.equals(this.policySignature)
-        );
+        if (NIO_FS_GET_PATH.equals(signature)) {
+            return new PathTraversalCheck(MODE_NIO_PATH);
+        } else if (SIGNATURES.contains(signature)) {
+            return new PathTraversalCheck(MODE_PATH);
+        } else if (URI_SIGNATURES.contains(signature)) {
+            return new PathTraversalCheck(MODE_URI);
+        }
+        return null;
     }
 
     @Override
     public boolean checkSource(MethodEvent event, SinkNode sinkNode) {
-        if (SIGNATURES.contains(this.policySignature)) {
-            return checkPathArgument(event, sinkNode);
-        } else if (URI_SIGNATURES.contains(this.policySignature)) {
-            return checkURI(event, sinkNode);
+        switch (this.mode) {
+            case MODE_PATH:
+            case MODE_NIO_PATH:
+                return checkPathArgument(event, sinkNode);
+            case MODE_URI:
+                return checkURI(event, sinkNode);
+            default:
+                return false;
         }
-        return false;
     }
 
     private boolean checkPathArgument(MethodEvent event, SinkNode sinkNode) {
         try {
             int parameterIndex;
             boolean paramHasTaint;
-            if (NIO_FS_GET_PATH.equals(this.policySignature)) {
+            if (this.mode == MODE_NIO_PATH) {
                 if (event.parameterInstances.length < 1) {
                     return false;
                 }
@@ -112,15 +128,15 @@ public class PathTraversalCheck implements SinkSourceChecker {
             return false;
         }
 
-        TaintRanges tr = EngineManager.TAINT_RANGES_POOL.get(System.identityHashCode(path));
-        if (tr.isEmpty()) {
+        TaintRanges tr = EngineManager.REQUEST_STATE.get().getTaintRangesPool().get(path);
+        if (tr == null || tr.isEmpty()) {
             return false;
         }
 
         int len = path.length();
         // only the value suffix of value is not safe
-        for (TaintRange t : tr.getTaintRanges()) {
-            if (t.getStop() == len) {
+        for (int i = 0; i < tr.size(); i++) {
+            if (tr.getStop(i) == len) {
                 return true;
             }
         }
@@ -2,7 +2,6 @@ package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
 
 import io.dongtai.iast.core.handler.context.ContextManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 import io.dongtai.iast.core.handler.hookpoint.service.HttpClient;
 import io.dongtai.iast.core.utils.*;
@@ -16,32 +15,44 @@ import java.util.*;
 
 public class SSRFSourceCheck implements SinkSourceChecker {
     public final static String SINK_TYPE = "ssrf";
-    private String policySignature;
+    private final int clientType;
+
+    public SSRFSourceCheck() {
+        this(HttpClient.CLIENT_NONE);
+    }
+
+    private SSRFSourceCheck(int clientType) {
+        this.clientType = clientType;
+    }
 
     @Override
-    public boolean match(MethodEvent event, SinkNode sinkNode) {
-        if (sinkNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
-            this.policySignature = ((SignatureMethodMatcher) sinkNode.getMethodMatcher()).getSignature().toString();
+    public SinkSourceChecker bind(SinkNode sinkNode, String signature) {
+        if (!SINK_TYPE.equals(sinkNode.getVulType())) {
+            return null;
         }
-
-        return SINK_TYPE.equals(sinkNode.getVulType()) && HttpClient.match(this.policySignature);
+        int clientType = HttpClient.getClientType(signature);
+        if (clientType == HttpClient.CLIENT_NONE) {
+            return null;
+        }
+        return new SSRFSourceCheck(clientType);
     }
 
     @Override
     public boolean checkSource(MethodEvent event, SinkNode sinkNode) {
-        boolean hitTaintPool = false;
-        if (HttpClient.matchJavaNetUrl(this.policySignature)) {
-            return checkJavaNetURL(event, sinkNode);
-        } else if (HttpClient.matchApacheHttp3(this.policySignature)) {
-            return checkApacheHttpClientLegacy(event, sinkNode);
-        } else if (HttpClient.matchApacheHttp4(this.policySignature)) {
-            return checkApacheHttpClient(event, sinkNode);
-        } else if (HttpClient.matchApacheHttp5(this.policySignature)) {
-            return checkApacheHttpClient5(event, sinkNode);
-        } else if (HttpClient.matchOkhttp(this.policySignature)) {
-            return CheckOkhttp(event, sinkNode);
+        switch (this.clientType) {
+            case HttpClient.CLIENT_JAVA_NET_URL:
+                return checkJavaNetURL(event, sinkNode);
+            case HttpClient.CLIENT_APACHE_HTTP3:
+                return checkApacheHttpClientLegacy(event, sinkNode);
+            case HttpClient.CLIENT_APACHE_HTTP4:
+                return checkApacheHttpClient(event, sinkNode);
+            case HttpClient.CLIENT_APACHE_HTTP5:
+                return checkApacheHttpClient5(event, sinkNode);
+            case HttpClient.CLIENT_OKHTTP:
+                return CheckOkhttp(event, sinkNode);
+            default:
+                return false;
         }
-        return hitTaintPool;
     }
 
     private boolean processJavaNetUrl(MethodEvent event, Object conn, Object u) {
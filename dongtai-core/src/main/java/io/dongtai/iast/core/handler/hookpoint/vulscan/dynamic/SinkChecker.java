@@ -1,8 +1,14 @@
 package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
 
-import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 
 public interface SinkChecker {
-    boolean match(MethodEvent event, SinkNode sinkNode);
+    /**
+     * resolve the checker for the sink node once when the policy is built, the bound checker must be immutable
+     *
+     * @param sinkNode  sink policy node
+     * @param signature policy signature of the node, null if the node is not matched by signature
+     * @return checker bound to the node, null if the checker does not apply to the node
+     */
+    SinkChecker bind(SinkNode sinkNode, String signature);
 }
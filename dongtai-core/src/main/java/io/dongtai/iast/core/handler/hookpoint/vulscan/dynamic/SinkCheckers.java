@@ -0,0 +1,98 @@
+package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
+
+import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
+import io.dongtai.iast.core.handler.hookpoint.service.trace.HttpService;
+import io.dongtai.iast.core.handler.hookpoint.service.trace.ServiceTrace;
+import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe.XXECheck;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * immutable checkers bound to a sink node, resolved once from the vul type and the policy signature,
+ * so that the sink scan does not probe every checker for every method event
+ */
+public final class SinkCheckers {
+    private static final SinkSafeChecker[] SAFE_CHECKERS = new SinkSafeChecker[]{
+            new FastjsonCheck(),
+            new XXECheck()
+    };
+
+    private static final SinkSourceChecker[] SOURCE_CHECKERS = new SinkSourceChecker[]{
+            new PathTraversalCheck(),
+            new SSRFSourceCheck(),
+            new UnvalidatedRedirectCheck()
+    };
+
+    private static final ServiceTrace[] SERVICE_TRACES = new ServiceTrace[]{
+            new HttpService()
+    };
+
+    private final SinkSafeChecker[] safeCheckers;
+    private final SinkSourceChecker sourceChecker;
+    private final ServiceTrace[] serviceTraces;
+
+    private SinkCheckers(SinkSafeChecker[] safeCheckers, SinkSourceChecker sourceChecker,
+                         ServiceTrace[] serviceTraces) {
+        this.safeCheckers = safeCheckers;
+        this.sourceChecker = sourceChecker;
+        this.serviceTraces = serviceTraces;
+    }
+
+    public static SinkCheckers bind(SinkNode sinkNode) {
+        String signature = null;
+        if (sinkNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
+            signature = ((SignatureMethodMatcher) sinkNode.getMethodMatcher()).getSignature().toString();
+        }
+
+        List<SinkSafeChecker> safeCheckers = new ArrayList<SinkSafeChecker>();
+        for (SinkSafeChecker chk : SAFE_CHECKERS) {
+            SinkSafeChecker bound = chk.bind(sinkNode, signature);
+            if (bound != null) {
+                safeCheckers.add(bound);
+            }
+        }
+
+        // the first matched source checker takes over the taint pool check of the sink
+        SinkSourceChecker sourceChecker = null;
+        for (SinkSourceChecker chk : SOURCE_CHECKERS) {
+            sourceChecker = chk.bind(sinkNode, signature);
+            if (sourceChecker != null) {
+                break;
+            }
+        }
+
+        List<ServiceTrace> serviceTraces = new ArrayList<ServiceTrace>();
+        for (ServiceTrace trace : SERVICE_TRACES) {
+            ServiceTrace bound = trace.bind(sinkNode, signature);
+            if (bound != null) {
+                serviceTraces.add(bound);
+            }
+        }
+
+        return new SinkCheckers(safeCheckers.toArray(new SinkSafeChecker[0]), sourceChecker,
+                serviceTraces.toArray(new ServiceTrace[0]));
+    }
+
+    /**
+     * @return bound safe checkers, do not modify
+     */
+    public SinkSafeChecker[] getSafeCheckers() {
+        return this.safeCheckers;
+    }
+
+    /**
+     * @return bound source checker, null if the sources of the node are checked by the taint pool
+     */
+    public SinkSourceChecker getSourceChecker() {
+        return this.sourceChecker;
+    }
+
+    /**
+     * @return bound service traces, do not modify
+     */
+    public ServiceTrace[] getServiceTraces() {
+        return this.serviceTraces;
+    }
+}
@@ -4,5 +4,8 @@ import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 
 public interface SinkSafeChecker extends SinkChecker {
+    @Override
+    SinkSafeChecker bind(SinkNode sinkNode, String signature);
+
     boolean isSafe(MethodEvent event, SinkNode sinkNode);
 }
@@ -4,5 +4,8 @@ import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 
 public interface SinkSourceChecker extends SinkChecker {
+    @Override
+    SinkSourceChecker bind(SinkNode sinkNode, String signature);
+
     boolean checkSource(MethodEvent event, SinkNode sinkNode);
 }
@@ -2,9 +2,7 @@ package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
 
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
-import io.dongtai.iast.core.handler.hookpoint.models.policy.SignatureMethodMatcher;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
-import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRange;
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRanges;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
 import io.dongtai.log.DongTaiLog;
@@ -41,31 +39,52 @@ public class UnvalidatedRedirectCheck implements SinkSourceChecker {
             NETTY_ADD_HEADER
     ));
 
-    private String policySignature;
+    private static final int MODE_NONE = 0;
+    private static final int MODE_REDIRECT = 1;
+    private static final int MODE_REDIRECT_URI = 2;
+    private static final int MODE_HEADER = 3;
+    private static final int MODE_NETTY_HEADER = 4;
+
+    private final int mode;
+
+    public UnvalidatedRedirectCheck() {
+        this(MODE_NONE);
+    }
+
+    private UnvalidatedRedirectCheck(int mode) {
+        this.mode = mode;
+    }
 
     @Override
-    public boolean match(MethodEvent event, SinkNode sinkNode) {
-        if (sinkNode.getMethodMatcher() instanceof SignatureMethodMatcher) {
-            this.policySignature = ((SignatureMethodMatcher) sinkNode.getMethodMatcher()).getSignature().toString();
+    public SinkSourceChecker bind(SinkNode sinkNode, String signature) {
+        if (!SINK_TYPE.equals(sinkNode.getVulType()) || signature == null) {
+            return null;
         }
-
-        return SINK_TYPE.equals(sinkNode.getVulType()) && (
-                REDIRECT_SIGNATURES.contains(this.policySignature)
-                        || REDIRECT_URI_SIGNATURES.contains(this.policySignature)
-                        || HEADER_SIGNATURES.contains(this.policySignature)
-        );
+        if (REDIRECT_SIGNATURES.contains(signature)) {
+            return new UnvalidatedRedirectCheck(MODE_REDIRECT);
+        } else if (REDIRECT_URI_SIGNATURES.contains(signature)) {
+            return new UnvalidatedRedirectCheck(MODE_REDIRECT_URI);
+        } else if (NETTY_ADD_HEADER.equals(signature)) {
+            return new UnvalidatedRedirectCheck(MODE_NETTY_HEADER);
+        } else if (HEADER_SIGNATURES.contains(signature)) {
+            return new UnvalidatedRedirectCheck(MODE_HEADER);
+        }
+        return null;
     }
 
     @Override
     public boolean checkSource(MethodEvent event, SinkNode sinkNode) {
-        if (REDIRECT_SIGNATURES.contains(this.policySignature)) {
-            return checkRedirect(event, sinkNode);
-        } else if (REDIRECT_URI_SIGNATURES.contains(this.policySignature)) {
-            return checkRedirectURI(event, sinkNode);
-        } else if (HEADER_SIGNATURES.contains(this.policySignature)) {
-            return checkHeader(event, sinkNode);
+        switch (this.mode) {
+            case MODE_REDIRECT:
+                return checkRedirect(event, sinkNode);
+            case MODE_REDIRECT_URI:
+                return checkRedirectURI(event, sinkNode);
+            case MODE_HEADER:
+            case MODE_NETTY_HEADER:
+                return checkHeader(event, sinkNode);
+            default:
+                return false;
         }
-        return false;
     }
 
     private boolean checkRedirect(MethodEvent event, SinkNode sinkNode) {
@@ -95,7 +114,7 @@ public class UnvalidatedRedirectCheck implements SinkSourceChecker {
     private boolean checkHeader(MethodEvent event, SinkNode sinkNode) {
         int keyPos = 0;
         int valPos = 1;
-        if (NETTY_ADD_HEADER.equals(this.policySignature)) {
+        if (this.mode == MODE_NETTY_HEADER) {
             keyPos = 2;
             valPos = 3;
         }
@@ -126,14 +145,14 @@ public class UnvalidatedRedirectCheck implements SinkSourceChecker {
             return false;
         }
 
-        TaintRanges tr = EngineManager.TAINT_RANGES_POOL.get(System.identityHashCode(val));
-        if (tr.isEmpty()) {
+        TaintRanges tr = EngineManager.REQUEST_STATE.get().getTaintRangesPool().get(val);
+        if (tr == null || tr.isEmpty()) {
             return false;
         }
 
         // only the value prefix of value is not safe
-        for (TaintRange t : tr.getTaintRanges()) {
-            if (t.getStart() == 0) {
+        for (int i = 0; i < tr.size(); i++) {
+            if (tr.getStart(i) == 0) {
                 return true;
             }
         }
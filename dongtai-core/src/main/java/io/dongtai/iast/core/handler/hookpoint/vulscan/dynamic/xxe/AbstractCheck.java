@@ -26,8 +26,8 @@ public abstract class AbstractCheck implements XXEChecker {
     }
 
     @Override
-    public List<Object> getCheckObjects() {
-        return Collections.singletonList(this.sourceObject);
+    public List<Object> getCheckObjects(Object sourceObject, Object[] sourceParameters) {
+        return Collections.singletonList(sourceObject);
     }
 
     @Override
@@ -36,6 +36,16 @@ public abstract class AbstractCheck implements XXEChecker {
     @Override
     public abstract Support getSupport(Object obj);
 
+    @Override
+    public boolean isCacheable(Object obj) {
+        return true;
+    }
+
+    @Override
+    public List<Object> getConfigObjects(Object obj) {
+        return Collections.emptyList();
+    }
+
     public Object getXMLConfiguration(Object obj) {
         try {
             Field fConfigurationField = ReflectUtils.getRecursiveField(obj.getClass(), "fConfiguration");
@@ -4,8 +4,12 @@ import io.dongtai.iast.core.utils.ReflectUtils;
 import io.dongtai.log.DongTaiLog;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
+import java.util.List;
 
 public class JavaxSAXParserCheck extends AbstractCheck {
+    private static final String IBM_WEB_SERVICES_PARSER = "com.ibm.ws.webservices.engine.utils.WebServicesParser";
+
     @Override
     public boolean match(Object obj) {
         if (obj == null) {
@@ -26,6 +30,17 @@ public class JavaxSAXParserCheck extends AbstractCheck {
         return getXMLParserSupport(xmlReader);
     }
 
+    @Override
+    public boolean isCacheable(Object obj) {
+        return !IBM_WEB_SERVICES_PARSER.equals(obj.getClass().getName());
+    }
+
+    @Override
+    public List<Object> getConfigObjects(Object obj) {
+        Object xmlReader = getJavaxSAXParserXMLReader(obj);
+        return xmlReader == null ? Collections.<Object>emptyList() : Collections.singletonList(xmlReader);
+    }
+
     private Object getJavaxSAXParserXMLReader(Object obj) {
         try {
             return ReflectUtils.getPublicMethodFromClass(obj.getClass(), "getXMLReader").invoke(obj);
@@ -42,7 +57,7 @@ public class JavaxSAXParserCheck extends AbstractCheck {
     }
 
     private boolean isIBMWebServicesParser(Object obj, Object[] parameters) {
-        return "com.ibm.ws.webservices.engine.utils.WebServicesParser".equals(obj.getClass().getName())
+        return IBM_WEB_SERVICES_PARSER.equals(obj.getClass().getName())
                 && isIBMP2DConverter(parameters);
     }
 
@@ -9,12 +9,12 @@ import java.util.List;
 
 public class XMLStreamReaderCheck extends AbstractCheck {
     @Override
-    public List<Object> getCheckObjects() {
+    public List<Object> getCheckObjects(Object sourceObject, Object[] sourceParameters) {
         List<Object> objs = new ArrayList<Object>();
-        if (this.sourceParameters.length > 0 && this.sourceParameters[0] != null) {
-            objs.add(this.sourceParameters[0]);
+        if (sourceParameters.length > 0 && sourceParameters[0] != null) {
+            objs.add(sourceParameters[0]);
         }
-        objs.add(this.sourceObject);
+        objs.add(sourceObject);
         return objs;
     }
 
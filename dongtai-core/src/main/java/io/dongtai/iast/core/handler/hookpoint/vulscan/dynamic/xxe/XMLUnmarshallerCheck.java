@@ -42,6 +42,14 @@ public class XMLUnmarshallerCheck extends AbstractCheck {
         return Support.ALLOWED;
     }
 
+    /**
+     * the xml reader may come from the source parameter
+     */
+    @Override
+    public boolean isCacheable(Object obj) {
+        return false;
+    }
+
     private Support getUnmarshallerXMLReaderSupport(Object obj, Class<?> cls) {
         if (!getUnmarshallerPropertySupport(obj).isSupport()) {
             return Support.DISALLOWED;
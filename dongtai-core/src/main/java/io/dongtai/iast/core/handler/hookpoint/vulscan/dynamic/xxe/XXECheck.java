@@ -3,49 +3,67 @@ package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
 import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.SinkSafeChecker;
+import io.dongtai.iast.core.utils.collection.WeakIdentityCache;
 import io.dongtai.log.DongTaiLog;
 
-import java.util.*;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class XXECheck implements SinkSafeChecker {
     public final static String SINK_TYPE = "xxe";
 
-    private static final Set<XXEChecker> CHECKS = new LinkedHashSet<XXEChecker>(Arrays.asList(
-            new XMLStreamReaderCheck(),
-            new XomCheck(),
-            new DocumentBuilderCheck(),
-            new JavaxSAXParserCheck(),
-            new ApacheXMLParserCheck(),
-            new XMLUnmarshallerCheck(),
-            new SAXXMLReaderCheck(),
-            new XMLInputFactoryCheck()
-    ));
+    private static final int MAX_CACHED_PARSERS = 1024;
+
+    private static final int CHECKER_COUNT = 8;
+
+    private static final XXEChecker[] CHECKS = newCheckers();
+
+    /**
+     * checkers match the object by its class, the matched checkers are resolved once for each class
+     */
+    private static final ClassValue<MatchedChecks> MATCHED_CHECKS = new ClassValue<MatchedChecks>() {
+        @Override
+        protected MatchedChecks computeValue(Class<?> type) {
+            return new MatchedChecks();
+        }
+    };
+
+    /**
+     * verdicts of the parsers and factories, the applications usually reuse a few configured instances
+     */
+    private static final WeakIdentityCache<Verdict> VERDICTS = new WeakIdentityCache<Verdict>(MAX_CACHED_PARSERS);
+
+    /**
+     * inner readers of the cached parsers, mapped to the parser, configuring the reader also drops the parser verdict
+     */
+    private static final WeakIdentityCache<WeakReference<Object>> OWNERS = new WeakIdentityCache<WeakReference<Object>>(MAX_CACHED_PARSERS);
 
     @Override
-    public boolean match(MethodEvent event, SinkNode sinkNode) {
-        return SINK_TYPE.equals(sinkNode.getVulType());
+    public SinkSafeChecker bind(SinkNode sinkNode, String signature) {
+        return SINK_TYPE.equals(sinkNode.getVulType()) ? this : null;
     }
 
     @Override
     public boolean isSafe(MethodEvent event, SinkNode sinkNode) {
-        if (event.objectInstance == null) {
+        Object sourceObject = event.objectInstance;
+        if (sourceObject == null) {
             return false;
         }
 
-        for (XXEChecker chk : CHECKS) {
-            chk.setSourceObjectAndParameters(event.objectInstance, event.parameterInstances);
-            List<Object> objs = chk.getCheckObjects();
-            for (Object obj : objs) {
-                if (chk.match(obj)) {
-                    DongTaiLog.trace("xxe check {} match {}", obj.getClass().getName(), chk.getClass().getName());
-                    Support support = chk.getSupport(obj);
-                    switch (support) {
-                        case ALLOWED:
-                            return false;
-                        case DISALLOWED:
-                            return true;
-                        default:
-                    }
+        Object[] parameters = event.parameterInstances;
+        for (int i = 0; i < CHECKS.length; i++) {
+            for (Object obj : CHECKS[i].getCheckObjects(sourceObject, parameters)) {
+                if (!isMatched(obj, i)) {
+                    continue;
+                }
+                DongTaiLog.trace("xxe check {} match {}", obj.getClass().getName(), CHECKS[i].getClass().getName());
+                Support support = getSupport(i, obj, sourceObject, parameters);
+                switch (support) {
+                    case ALLOWED:
+                        return false;
+                    case DISALLOWED:
+                        return true;
+                    default:
                 }
             }
         }
@@ -53,6 +71,115 @@ public class XXECheck implements SinkSafeChecker {
         return false;
     }
 
+    /**
+     * drop the cached verdict of the configured parser or factory. setters called by the constructor find nothing to drop,
+     * the instance is only cached after it is used by a sink
+     */
+    public static void invalidate(Object parser) {
+        if (parser == null) {
+            return;
+        }
+        VERDICTS.remove(parser);
+        WeakReference<Object> owner = OWNERS.get(parser);
+        if (owner != null) {
+            VERDICTS.remove(owner.get());
+        }
+    }
+
+    /**
+     * drop all cached verdicts, the parsers configured while the hooks were switched off are not reported
+     */
+    public static void invalidateAll() {
+        VERDICTS.clear();
+        OWNERS.clear();
+    }
+
+    private static boolean isMatched(Object obj, int index) {
+        if (obj == null) {
+            return false;
+        }
+        MatchedChecks matched = MATCHED_CHECKS.get(obj.getClass());
+        int mask = matched.mask;
+        if (mask == MatchedChecks.UNRESOLVED) {
+            mask = 0;
+            for (int i = 0; i < CHECKS.length; i++) {
+                try {
+                    if (CHECKS[i].match(obj)) {
+                        mask |= 1 << i;
+                    }
+                } catch (Throwable ignore) {
+                }
+            }
+            matched.mask = mask;
+        }
+        return (mask & (1 << index)) != 0;
+    }
+
+    private static Support getSupport(int index, Object obj, Object sourceObject, Object[] parameters) {
+        Verdict verdict = null;
+        if (CHECKS[index].isCacheable(obj)) {
+            verdict = VERDICTS.get(obj);
+            if (verdict != null) {
+                Support support = verdict.supports.get(index);
+                if (support != null) {
+                    return support;
+                }
+            } else {
+                // added before the check, an invalidation during the check detaches it and the result is dropped
+                verdict = new Verdict();
+                Verdict old = VERDICTS.putIfAbsent(obj, verdict);
+                if (old != null) {
+                    verdict = old;
+                }
+            }
+        }
+
+        // the checkers hold the source object and parameters, they are not shared between threads
+        XXEChecker chk = newChecker(index);
+        if (verdict != null) {
+            for (Object config : chk.getConfigObjects(obj)) {
+                OWNERS.put(config, new WeakReference<Object>(obj));
+            }
+        }
+        chk.setSourceObjectAndParameters(sourceObject, parameters);
+        Support support = chk.getSupport(obj);
+        if (verdict != null) {
+            verdict.supports.set(index, support);
+        }
+        return support;
+    }
+
+    private static XXEChecker[] newCheckers() {
+        XXEChecker[] checkers = new XXEChecker[CHECKER_COUNT];
+        for (int i = 0; i < CHECKER_COUNT; i++) {
+            checkers[i] = newChecker(i);
+        }
+        return checkers;
+    }
+
+    private static XXEChecker newChecker(int index) {
+        switch (index) {
+            case 0:
+                return new XMLStreamReaderCheck();
+            case 1:
+                return new XomCheck();
+            case 2:
+                return new DocumentBuilderCheck();
+            case 3:
+                return new JavaxSAXParserCheck();
+            case 4:
+                return new ApacheXMLParserCheck();
+            case 5:
+                return new XMLUnmarshallerCheck();
+            case 6:
+                return new SAXXMLReaderCheck();
+            case 7:
+                return new XMLInputFactoryCheck();
+            default:
+                throw new IllegalArgumentException("unknown xxe checker " + index);
+        }
+    }
+
     public static XXEChecker getChecker(Object obj) {
         for (XXEChecker chk : CHECKS) {
             if (chk.match(obj)) {
@@ -61,4 +188,17 @@ public class XXECheck implements SinkSafeChecker {
         }
         return null;
     }
+
+    private static final class MatchedChecks {
+        private static final int UNRESOLVED = -1;
+
+        /**
+         * bit mask of the matched checker indexes
+         */
+        private volatile int mask = UNRESOLVED;
+    }
+
+    private static final class Verdict {
+        private final AtomicReferenceArray<Support> supports = new AtomicReferenceArray<Support>(CHECKER_COUNT);
+    }
 }
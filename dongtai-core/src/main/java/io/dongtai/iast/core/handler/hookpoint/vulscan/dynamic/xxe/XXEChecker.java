@@ -5,9 +5,20 @@ import java.util.List;
 public interface XXEChecker {
     void setSourceObjectAndParameters(Object sourceObject, Object[] sourceParameters);
 
-    List<Object> getCheckObjects();
+    List<Object> getCheckObjects(Object sourceObject, Object[] sourceParameters);
 
     boolean match(Object obj);
 
     Support getSupport(Object obj);
+
+    /**
+     * @return true if the support of the object only depends on the object itself, not on the sink parameters
+     */
+    boolean isCacheable(Object obj);
+
+    /**
+     * @return other objects exposed to the application that the support of the object depends on, the cached verdict of
+     * the object is dropped when one of them is configured
+     */
+    List<Object> getConfigObjects(Object obj);
 }
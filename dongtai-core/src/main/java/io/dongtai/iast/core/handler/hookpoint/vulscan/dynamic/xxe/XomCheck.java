@@ -4,6 +4,8 @@ import io.dongtai.iast.core.utils.ReflectUtils;
 import io.dongtai.log.DongTaiLog;
 
 import java.lang.reflect.Field;
+import java.util.Collections;
+import java.util.List;
 
 public class XomCheck extends AbstractCheck {
     @Override
@@ -23,6 +25,12 @@ public class XomCheck extends AbstractCheck {
         return Support.DISALLOWED;
     }
 
+    @Override
+    public List<Object> getConfigObjects(Object obj) {
+        Object parser = getXomParser(obj);
+        return parser == null ? Collections.<Object>emptyList() : Collections.singletonList(parser);
+    }
+
     private Object getXomParser(Object obj) {
         try {
             Field field = ReflectUtils.getRecursiveField(obj.getClass(), "parser");
@@ -10,18 +10,44 @@ import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author dongzhiyong@huoxian.cn
  */
 public abstract class AbstractNormalVulScan implements IVulScan {
+    private static final int MAX_REPORT_KEYS = 4096;
+    private static final long REPORT_INTERVAL = TimeUnit.MINUTES.toNanos(10);
+
+    /**
+     * frame of the caller of the sink method, seen from {@link #acquireReport}, the same as stacks[1] of
+     * {@link #getLatestStack()}
+     */
+    private static final int CALLER_STACK_POS = 7;
+
+    /**
+     * 常规漏洞按 漏洞类型+调用位置 去重，同一个调用位置在间隔内只上报一次
+     */
+    static final VulReportLimiter REPORT_LIMITER = new VulReportLimiter(MAX_REPORT_KEYS, REPORT_INTERVAL);
+
+    /**
+     * check before the call stack is captured, a repeated call site costs a single frame lookup and a hash probe.
+     * must be called by scan() directly, like {@link #getLatestStack()}
+     *
+     * @param vulType vulnerability
+     * @return false if the call site was reported in the interval
+     */
+    protected boolean acquireReport(String vulType) {
+        CallSite callSite = new CallSite(vulType, StackUtils.getLatestStack(CALLER_STACK_POS));
+        return REPORT_LIMITER.tryAcquire(callSite, System.nanoTime());
+    }
 
     /**
      * @param stacks  Method Call Stack
      * @param vulType vulnerability
      */
     public void sendReport(StackTraceElement[] stacks, String vulType) {
-        Map<String, Object> requestMeta = EngineManager.REQUEST_CONTEXT.get();
+        Map<String, Object> requestMeta = EngineManager.REQUEST_STATE.get().getRequestContext();
         JSONObject report = new JSONObject();
         JSONObject detail = new JSONObject();
         JSONArray vulStacks = new JSONArray();
@@ -58,6 +84,54 @@ public abstract class AbstractNormalVulScan implements IVulScan {
         return StackUtils.createCallStack(6);
     }
 
+    /**
+     * report key of the vulnerability type and the frame calling the sink method, compared by class, method and line
+     */
+    static final class CallSite {
+        private final String vulType;
+        private final String className;
+        private final String methodName;
+        private final int lineNumber;
+
+        CallSite(String vulType, StackTraceElement frame) {
+            this.vulType = vulType;
+            this.className = frame == null ? null : frame.getClassName();
+            this.methodName = frame == null ? null : frame.getMethodName();
+            this.lineNumber = frame == null ? -1 : frame.getLineNumber();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallSite)) {
+                return false;
+            }
+            CallSite that = (CallSite) o;
+            return this.lineNumber == that.lineNumber
+                    && equals(this.vulType, that.vulType)
+                    && equals(this.className, that.className)
+                    && equals(this.methodName, that.methodName);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = hashCode(this.vulType);
+            h = 31 * h + hashCode(this.className);
+            h = 31 * h + hashCode(this.methodName);
+            return 31 * h + this.lineNumber;
+        }
+
+        private static boolean equals(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        private static int hashCode(String s) {
+            return s == null ? 0 : s.hashCode();
+        }
+    }
+
     public static String getEncodedHeader(Map<String, String> headers) {
         StringBuilder sb = new StringBuilder();
         for (Map.Entry<String, String> headerItem : headers.entrySet()) {
@@ -33,7 +33,9 @@ public class CookieFlagsMissingVulScan extends AbstractNormalVulScan {
                 if (flag) {
                     continue;
                 }
-                sendReport(getLatestStack(), sinkNode.getVulType());
+                if (acquireReport(sinkNode.getVulType())) {
+                    sendReport(getLatestStack(), sinkNode.getVulType());
+                }
                 break;
             } catch (Throwable e) {
                 DongTaiLog.trace("CookieFlagsMissingVulScan scan failed: {}, {}",
@@ -40,7 +40,9 @@ public class CryptoBacCiphersVulScan extends AbstractNormalVulScan {
                 if (matcher.find()) {
                     continue;
                 }
-                sendReport(getLatestStack(), sinkNode.getVulType());
+                if (acquireReport(sinkNode.getVulType())) {
+                    sendReport(getLatestStack(), sinkNode.getVulType());
+                }
                 break;
             } catch (Throwable e) {
                 DongTaiLog.trace("CryptoBacCiphersVulScan scan failed: {}, {}",
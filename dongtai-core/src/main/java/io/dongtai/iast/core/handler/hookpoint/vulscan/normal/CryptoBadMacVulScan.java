@@ -40,6 +40,10 @@ public class CryptoBadMacVulScan extends AbstractNormalVulScan {
                 if (matcher.find()) {
                     continue;
                 }
+                // a call site filtered below stays acquired, its repeats are skipped without the stack walk
+                if (!acquireReport(sinkNode.getVulType())) {
+                    break;
+                }
                 StackTraceElement[] latestStack = getLatestStack();
                 for (StackTraceElement stackTraceElement : latestStack) {
                     // 解决 java.security.SecureRandom.getInstance 导致的 weak hash 误报
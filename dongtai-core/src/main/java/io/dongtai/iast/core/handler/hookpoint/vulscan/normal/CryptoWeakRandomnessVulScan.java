@@ -21,6 +21,8 @@ public class CryptoWeakRandomnessVulScan extends AbstractNormalVulScan {
         if (event.objectInstance != null && SECURE_RANDOM.equals(event.objectInstance.getClass().getName())) {
             return;
         }
-        sendReport(getLatestStack(), sinkNode.getVulType());
+        if (acquireReport(sinkNode.getVulType())) {
+            sendReport(getLatestStack(), sinkNode.getVulType());
+        }
     }
 }
@@ -0,0 +1,77 @@
+package io.dongtai.iast.core.handler.hookpoint.vulscan.normal;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * bounded report limiter, a key is admitted at most once per interval.
+ * when the limiter is full, the expired keys are evicted first, then arbitrary keys, so the bound is approximate.
+ */
+final class VulReportLimiter {
+    private final int maxKeys;
+    private final long intervalNanos;
+    private final ConcurrentHashMap<Object, Long> lastAdmitted = new ConcurrentHashMap<Object, Long>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    VulReportLimiter(int maxKeys, long intervalNanos) {
+        this.maxKeys = maxKeys;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * @param key vulnerability key, compared by equals
+     * @param now current time from System.nanoTime()
+     * @return true if the key was not admitted in the last interval
+     */
+    boolean tryAcquire(Object key, long now) {
+        Long last = this.lastAdmitted.get(key);
+        if (last == null) {
+            if (this.lastAdmitted.putIfAbsent(key, now) != null) {
+                // admitted by another thread
+                return false;
+            }
+            if (this.lastAdmitted.size() > this.maxKeys) {
+                evict(now);
+            }
+            return true;
+        }
+        if (now - last < this.intervalNanos) {
+            return false;
+        }
+        return this.lastAdmitted.replace(key, last, now);
+    }
+
+    int size() {
+        return this.lastAdmitted.size();
+    }
+
+    void clear() {
+        this.lastAdmitted.clear();
+    }
+
+    private void evict(long now) {
+        // one thread evicts, others keep admitting and may overshoot the bound a little
+        if (!this.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<Map.Entry<Object, Long>> it = this.lastAdmitted.entrySet().iterator();
+            while (it.hasNext()) {
+                if (now - it.next().getValue() >= this.intervalNanos) {
+                    it.remove();
+                }
+            }
+
+            int target = this.maxKeys - this.maxKeys / 4;
+            it = this.lastAdmitted.entrySet().iterator();
+            while (this.lastAdmitted.size() > target && it.hasNext()) {
+                it.next();
+                it.remove();
+            }
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package io.dongtai.iast.core.init.impl;
 
 import io.dongtai.iast.core.bytecode.IastClassFileTransformer;
 import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyManager;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.PolicyNodeRegistry;
 import io.dongtai.iast.core.init.IEngine;
 import io.dongtai.iast.core.utils.PropertyUtils;
 import io.dongtai.log.DongTaiLog;
@@ -73,6 +74,7 @@ public class TransformEngine implements IEngine {
                 DongTaiLog.error(ErrorCode.TRANSFORM_ENGINE_DESTROY_REDEFINE_CLASSES_FAILED, e);
             }
         }
+        PolicyNodeRegistry.clear();
         inst = null;
         classFileTransformer = null;
     }
@@ -28,6 +28,7 @@ public class PropertyUtils {
     private String debugFlag;
     private Integer responseLength;
     private String policyPath;
+    private String sourceLazyContainer;
 
     private final String propertiesFilePath;
 
@@ -198,4 +199,15 @@ public class PropertyUtils {
         }
         return this.policyPath;
     }
+
+    /**
+     * 大容器类型的污点来源只将容器本身加入污点池，元素在被读取时由传播节点污染
+     */
+    public boolean isSourceLazyContainer() {
+        if (null == this.sourceLazyContainer) {
+            this.sourceLazyContainer = System.getProperty(PropertyConstant.PROPERTY_SOURCE_LAZY_CONTAINER,
+                    cfg.getProperty(PropertyConstant.PROPERTY_SOURCE_LAZY_CONTAINER, "false"));
+        }
+        return "true".equalsIgnoreCase(this.sourceLazyContainer);
+    }
 }
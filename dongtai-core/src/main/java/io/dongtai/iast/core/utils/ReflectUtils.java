@@ -3,50 +3,65 @@ package io.dongtai.iast.core.utils;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author dongzhiyong@huoxian.cn
  */
 public class ReflectUtils {
+    private static final Object NONE = new Object();
+
+    /**
+     * resolved members of each class, negative results are cached too. values are bound to the class,
+     * so the classloader of the application classes is not pinned
+     */
+    private static final ClassValue<ClassMembers> CLASS_MEMBERS = new ClassValue<ClassMembers>() {
+        @Override
+        protected ClassMembers computeValue(Class<?> type) {
+            return new ClassMembers();
+        }
+    };
 
     public static Field getFieldFromClass(Class<?> cls, String fieldName) throws NoSuchFieldException {
-        Field field = cls.getDeclaredField(fieldName);
-        field.setAccessible(true);
+        Field field = getDeclaredFieldFromClassByName(cls, fieldName);
+        if (field == null) {
+            throw new NoSuchFieldException(fieldName);
+        }
         return field;
     }
 
     public static Field getDeclaredFieldFromClassByName(Class<?> cls, String fieldName) {
-        Field[] declaredFields = cls.getDeclaredFields();
-        for (Field field : declaredFields) {
-            if (fieldName.equals(field.getName())) {
-                field.setAccessible(true);
-                return field;
-            }
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        Object field = members.declaredFields.get(fieldName);
+        if (field == null) {
+            field = findDeclaredField(cls, fieldName);
+            members.declaredFields.putIfAbsent(fieldName, field);
         }
-        return null;
+        return field == NONE ? null : (Field) field;
     }
 
     public static Field getDeclaredFieldFromSuperClassByName(Class<?> cls, String fieldName) {
-        for (Class<?> spc = cls; Object.class != spc && spc != null; spc = spc.getSuperclass()) {
-            Field field = getDeclaredFieldFromClassByName(spc, fieldName);
-            if (field != null) {
-                return field;
+        if (cls == null) {
+            return null;
+        }
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        Object field = members.fields.get(fieldName);
+        if (field == null) {
+            field = NONE;
+            for (Class<?> spc = cls; Object.class != spc && spc != null; spc = spc.getSuperclass()) {
+                Field f = getDeclaredFieldFromClassByName(spc, fieldName);
+                if (f != null) {
+                    field = f;
+                    break;
+                }
             }
+            members.fields.putIfAbsent(fieldName, field);
         }
-        return null;
+        return field == NONE ? null : (Field) field;
     }
 
     public static Field getRecursiveField(Class<?> cls, String fieldName) {
-        if (cls == null || cls == Object.class) {
-            return null;
-        }
-
-        try {
-            return ReflectUtils.getFieldFromClass(cls, fieldName);
-        } catch (NoSuchFieldException e) {
-            Class<?> superclass = cls.getSuperclass();
-            return getRecursiveField(superclass, fieldName);
-        }
+        return getDeclaredFieldFromSuperClassByName(cls, fieldName);
     }
 
     public static Method getPublicMethodFromClass(Class<?> cls, String method) throws NoSuchMethodException {
@@ -54,34 +69,77 @@ public class ReflectUtils {
     }
 
     public static Method getPublicMethodFromClass(Class<?> cls, String methodName, Class<?>[] parameterTypes) throws NoSuchMethodException {
-        Method method = cls.getMethod(methodName, parameterTypes);
-        method.setAccessible(true);
-        return method;
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        MethodKey key = new MethodKey(methodName, parameterTypes);
+        Object method = members.publicMethods.get(key);
+        if (method == null) {
+            try {
+                Method m = cls.getMethod(methodName, parameterTypes);
+                m.setAccessible(true);
+                method = m;
+            } catch (NoSuchMethodException e) {
+                method = NONE;
+            }
+            members.publicMethods.putIfAbsent(key, method);
+        }
+        if (method == NONE) {
+            throw new NoSuchMethodException(cls.getName() + "." + methodName);
+        }
+        return (Method) method;
     }
 
     public static Method getDeclaredMethodFromClass(Class<?> cls, String methodName, Class<?>[] parameterTypes) {
-        Method[] methods = cls.getDeclaredMethods();
-        if (parameterTypes == null) {
-            parameterTypes = ObjectShare.EMPTY_CLASS_ARRAY;
-        }
-        for (Method method : methods) {
-            if (methodName.equals(method.getName()) && Arrays.equals(parameterTypes, method.getParameterTypes())) {
-                method.setAccessible(true);
-                return method;
-            }
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        MethodKey key = new MethodKey(methodName, parameterTypes);
+        Object method = members.declaredMethods.get(key);
+        if (method == null) {
+            method = findDeclaredMethod(cls, methodName, key.parameterTypes);
+            members.declaredMethods.putIfAbsent(key, method);
         }
-        return null;
+        return method == NONE ? null : (Method) method;
     }
 
     public static Method getDeclaredMethodFromSuperClass(Class<?> cls, String methodName, Class<?>[] parameterTypes) {
-        if (cls == Object.class) {
+        if (cls == null || cls == Object.class) {
             return null;
         }
-        Method method = getDeclaredMethodFromClass(cls, methodName, parameterTypes);
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        MethodKey key = new MethodKey(methodName, parameterTypes);
+        Object method = members.methods.get(key);
         if (method == null) {
-            return getDeclaredMethodFromSuperClass(cls.getSuperclass(), methodName, parameterTypes);
+            method = NONE;
+            for (Class<?> spc = cls; Object.class != spc && spc != null; spc = spc.getSuperclass()) {
+                Method m = getDeclaredMethodFromClass(spc, methodName, key.parameterTypes);
+                if (m != null) {
+                    method = m;
+                    break;
+                }
+            }
+            members.methods.putIfAbsent(key, method);
+        }
+        return method == NONE ? null : (Method) method;
+    }
+
+    private static Object findDeclaredField(Class<?> cls, String fieldName) {
+        Field[] declaredFields = cls.getDeclaredFields();
+        for (Field field : declaredFields) {
+            if (fieldName.equals(field.getName())) {
+                field.setAccessible(true);
+                return field;
+            }
+        }
+        return NONE;
+    }
+
+    private static Object findDeclaredMethod(Class<?> cls, String methodName, Class<?>[] parameterTypes) {
+        Method[] methods = cls.getDeclaredMethods();
+        for (Method method : methods) {
+            if (methodName.equals(method.getName()) && Arrays.equals(parameterTypes, method.getParameterTypes())) {
+                method.setAccessible(true);
+                return method;
+            }
         }
-        return method;
+        return NONE;
     }
 
     public static boolean isDescendantOf(Class<?> cls, String className) {
@@ -103,26 +161,19 @@ public class ReflectUtils {
         if (cls == null) {
             return false;
         }
-        if (cls.isInterface()) {
-            if (interfaceName.equals(cls.getName())) {
-                return true;
-            }
-            for (Class<?> itf : cls.getInterfaces()) {
-                if (isImplementsInterface(itf, interfaceName)) {
-                    return true;
-                }
+        ClassMembers members = CLASS_MEMBERS.get(cls);
+        Set<String> interfaceNames = members.interfaceNames;
+        if (interfaceNames == null) {
+            interfaceNames = new HashSet<String>();
+            if (cls.isInterface()) {
+                interfaceNames.add(cls.getName());
             }
-            return false;
-        }
-        while (cls != null) {
-            for (Class<?> itf : cls.getInterfaces()) {
-                if (isImplementsInterface(itf, interfaceName)) {
-                    return true;
-                }
+            for (Class<?> itf : getAllInterfaces(cls)) {
+                interfaceNames.add(itf.getName());
             }
-            cls = cls.getSuperclass();
+            members.interfaceNames = interfaceNames;
         }
-        return false;
+        return interfaceNames.contains(interfaceName);
     }
 
     public static List<Class<?>> getAllInterfaces(Class<?> cls) {
@@ -146,4 +197,45 @@ public class ReflectUtils {
             cls = cls.getSuperclass();
         }
     }
+
+    private static final class ClassMembers {
+        private final ConcurrentHashMap<String, Object> declaredFields = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentHashMap<String, Object> fields = new ConcurrentHashMap<String, Object>();
+        private final ConcurrentHashMap<MethodKey, Object> declaredMethods = new ConcurrentHashMap<MethodKey, Object>();
+        private final ConcurrentHashMap<MethodKey, Object> methods = new ConcurrentHashMap<MethodKey, Object>();
+        private final ConcurrentHashMap<MethodKey, Object> publicMethods = new ConcurrentHashMap<MethodKey, Object>();
+        /**
+         * names of all interfaces implemented by the class, immutable once published
+         */
+        private volatile Set<String> interfaceNames;
+    }
+
+    private static final class MethodKey {
+        private final String name;
+        private final Class<?>[] parameterTypes;
+        private final int hash;
+
+        private MethodKey(String name, Class<?>[] parameterTypes) {
+            this.name = name;
+            this.parameterTypes = parameterTypes == null ? ObjectShare.EMPTY_CLASS_ARRAY : parameterTypes;
+            this.hash = 31 * name.hashCode() + Arrays.hashCode(this.parameterTypes);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MethodKey)) {
+                return false;
+            }
+            MethodKey that = (MethodKey) o;
+            return this.name.equals(that.name) && Arrays.equals(this.parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
 }
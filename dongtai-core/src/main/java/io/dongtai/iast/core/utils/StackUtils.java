@@ -16,8 +16,11 @@ public class StackUtils {
         return selfCallStack;
     }
 
+    /**
+     * @return the frame at the position, null if the stack is not that deep
+     */
     public static StackTraceElement getLatestStack(int stackStartPos) {
         StackTraceElement[] stackTraceElements = Thread.currentThread().getStackTrace();
-        return stackTraceElements[stackStartPos];
+        return stackStartPos < stackTraceElements.length ? stackTraceElements[stackStartPos] : null;
     }
 }
@@ -2,9 +2,13 @@ package io.dongtai.iast.core.utils;
 
 import io.dongtai.iast.core.EngineManager;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
+import io.dongtai.iast.core.utils.threadlocal.TaintObjectPool;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.*;
@@ -20,6 +24,16 @@ public class TaintPoolUtils {
     private static final String VALUES_ENUMERATOR = " org.apache.tomcat.util.http.ValuesEnumerator".substring(1);
     private static final String SPRING_OBJECT = " org.springframework.".substring(1);
 
+    /**
+     * 自定义模型的 getter 方法，每个类只反射一次，随类卸载
+     */
+    private static final ClassValue<ModelGetters> MODEL_GETTERS = new ClassValue<ModelGetters>() {
+        @Override
+        protected ModelGetters computeValue(Class<?> type) {
+            return ModelGetters.create(type);
+        }
+    };
+
     /**
      * 判断 obj 对象是否为 java 的内置数据类型，包括：string、array、list、map、enum 等
      *
@@ -31,14 +45,16 @@ public class TaintPoolUtils {
     }
 
     public static boolean poolContains(Object obj, MethodEvent event) {
+        return poolContains(EngineManager.REQUEST_STATE.get().getTaintPool(), obj, event);
+    }
+
+    public static boolean poolContains(TaintObjectPool taintPool, Object obj, MethodEvent event) {
         if (obj == null) {
             return false;
         }
 
-        boolean isContains;
-        // check object hash exists
-        isContains = contains(obj);
-        if (isContains) {
+        // check object exists
+        if (taintPool.contains(obj)) {
             event.addSourceHash(System.identityHashCode(obj));
             return true;
         }
@@ -46,14 +62,14 @@ public class TaintPoolUtils {
         if (obj instanceof String[]) {
             String[] stringArray = (String[]) obj;
             for (String stringItem : stringArray) {
-                if (poolContains(stringItem, event)) {
+                if (poolContains(taintPool, stringItem, event)) {
                     return true;
                 }
             }
         } else if (obj instanceof Object[]) {
             Object[] objArray = (Object[]) obj;
             for (Object objItem : objArray) {
-                if (poolContains(objItem, event)) {
+                if (poolContains(taintPool, objItem, event)) {
                     return true;
                 }
             }
@@ -63,13 +79,28 @@ public class TaintPoolUtils {
     }
 
     /**
-     * 判断污点是否匹配
+     * 检查对象或其数组元素是否命中污点池，不记录污点来源，用于构造方法事件之前的快速过滤
      *
-     * @param obj Object
-     * @return boolean
+     * @param taintPool 当前请求的污点池
+     * @param obj            待检查的对象
+     * @return true-命中污点池；false-未命中
      */
-    private static boolean contains(Object obj) {
-        return EngineManager.TAINT_HASH_CODES.contains(System.identityHashCode(obj));
+    public static boolean poolContains(TaintObjectPool taintPool, Object obj) {
+        if (obj == null) {
+            return false;
+        }
+        if (taintPool.contains(obj)) {
+            return true;
+        }
+        if (obj instanceof Object[]) {
+            Object[] objArray = (Object[]) obj;
+            for (Object objItem : objArray) {
+                if (poolContains(taintPool, objItem)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     /**
@@ -142,31 +173,65 @@ public class TaintPoolUtils {
         return isAllowTaintType(obj.getClass());
     }
 
+    private static final class ModelGetters {
+        private static final ModelGetters NONE = new ModelGetters(new String[0], new MethodHandle[0]);
+        private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+        private final String[] names;
+        private final MethodHandle[] getters;
+
+        private ModelGetters(String[] names, MethodHandle[] getters) {
+            this.names = names;
+            this.getters = getters;
+        }
+
+        private static ModelGetters create(Class<?> clazz) {
+            if (clazz.getClassLoader() == null || !isAllowTaintGetterClass(clazz)) {
+                return NONE;
+            }
+
+            List<String> names = new ArrayList<String>();
+            List<MethodHandle> getters = new ArrayList<MethodHandle>();
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            for (Method method : clazz.getMethods()) {
+                if (!isAllowTaintGetterMethod(method)) {
+                    continue;
+                }
+                try {
+                    method.setAccessible(true);
+                    getters.add(lookup.unreflect(method).asType(GETTER_TYPE));
+                    names.add(method.getName());
+                } catch (Throwable e) {
+                    DongTaiLog.debug("resolve getter {}.{} failed: {}", clazz.getName(), method.getName(),
+                            e.getMessage());
+                }
+            }
+            if (getters.isEmpty()) {
+                return NONE;
+            }
+            return new ModelGetters(names.toArray(new String[0]), getters.toArray(new MethodHandle[0]));
+        }
+    }
+
     public static Set<Object> parseCustomModel(Object model) {
         Set<Object> modelValues = new HashSet<Object>();
         try {
-            if (!TaintPoolUtils.isAllowTaintGetterModel(model)) {
+            if (!TaintPoolUtils.isNotEmpty(model)) {
                 return modelValues;
             }
 
-            // getter methods
-            Method[] methods = model.getClass().getMethods();
-            Object itemValue = null;
-            for (Method method : methods) {
-                if (!TaintPoolUtils.isAllowTaintGetterMethod(method)) {
-                    continue;
-                }
-
+            ModelGetters modelGetters = MODEL_GETTERS.get(model.getClass());
+            MethodHandle[] getters = modelGetters.getters;
+            for (int i = 0; i < getters.length; i++) {
                 try {
-                    method.setAccessible(true);
-                    itemValue = method.invoke(model);
+                    Object itemValue = getters[i].invokeExact(model);
                     if (!TaintPoolUtils.isNotEmpty(itemValue) || !TaintPoolUtils.isAllowTaintType(itemValue)) {
                         continue;
                     }
                     modelValues.add(itemValue);
                 } catch (Throwable e) {
                     DongTaiLog.error(ErrorCode.UTIL_TAINT_PARSE_CUSTOM_MODEL_FAILED,
-                            model.getClass().getName(), method.getName(), e);
+                            model.getClass().getName(), modelGetters.names[i], e);
                 }
             }
         } catch (Throwable ignore) {
@@ -174,20 +239,6 @@ public class TaintPoolUtils {
         return modelValues;
     }
 
-    public static boolean isAllowTaintGetterModel(Object model) {
-        if (!TaintPoolUtils.isNotEmpty(model)) {
-            return false;
-        }
-        Class<?> sourceClass = model.getClass();
-        if (sourceClass.getClassLoader() == null) {
-            return false;
-        }
-        if (!TaintPoolUtils.isAllowTaintGetterClass(sourceClass)) {
-            return false;
-        }
-        return true;
-    }
-
     public static boolean isAllowTaintGetterClass(Class<?> clazz) {
         String className = clazz.getName();
         if (className.startsWith("cn.huoxian.iast.api.") ||
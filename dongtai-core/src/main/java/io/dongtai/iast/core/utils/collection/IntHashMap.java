@@ -0,0 +1,150 @@
+package io.dongtai.iast.core.utils.collection;
+
+import java.util.Arrays;
+
+/**
+ * open addressing hash map with primitive int keys, no boxing and no per-entry allocation. entries are kept in
+ * insertion order in dense arrays, the hash table only holds entry positions. removal is not supported, the map is
+ * cleared and reused for each request on the same thread.
+ *
+ * @param <V> value type
+ */
+public class IntHashMap<V> {
+    private static final int DEFAULT_CAPACITY = 8;
+    /**
+     * arrays larger than this are dropped on clear instead of being retained by the thread
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 15;
+
+    /**
+     * entry position + 1, 0 for empty slot
+     */
+    private int[] index;
+    private int mask;
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    public IntHashMap() {
+        init(DEFAULT_CAPACITY);
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int pos = position(key);
+        return pos < 0 ? null : (V) this.values[pos];
+    }
+
+    public boolean containsKey(int key) {
+        return position(key) >= 0;
+    }
+
+    /**
+     * @return previous value of the key, null if absent
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        int[] idx = this.index;
+        int m = this.mask;
+        int i = mix(key) & m;
+        int slot;
+        while ((slot = idx[i]) != 0) {
+            if (this.keys[slot - 1] == key) {
+                V old = (V) this.values[slot - 1];
+                this.values[slot - 1] = value;
+                return old;
+            }
+            i = (i + 1) & m;
+        }
+        if (this.size == this.keys.length) {
+            grow();
+            put(key, value);
+            return null;
+        }
+        this.keys[this.size] = key;
+        this.values[this.size] = value;
+        idx[i] = ++this.size;
+        return null;
+    }
+
+    /**
+     * @param pos entry position in insertion order, 0 <= pos < size()
+     */
+    public int keyAt(int pos) {
+        return this.keys[pos];
+    }
+
+    /**
+     * @param pos entry position in insertion order, 0 <= pos < size()
+     */
+    @SuppressWarnings("unchecked")
+    public V valueAt(int pos) {
+        return (V) this.values[pos];
+    }
+
+    public void clear() {
+        if (this.size == 0) {
+            return;
+        }
+        if (this.keys.length > MAX_RETAINED_CAPACITY) {
+            init(DEFAULT_CAPACITY);
+            return;
+        }
+        Arrays.fill(this.index, 0);
+        Arrays.fill(this.values, 0, this.size, null);
+        this.size = 0;
+    }
+
+    private int position(int key) {
+        int[] idx = this.index;
+        int m = this.mask;
+        int i = mix(key) & m;
+        int slot;
+        while ((slot = idx[i]) != 0) {
+            if (this.keys[slot - 1] == key) {
+                return slot - 1;
+            }
+            i = (i + 1) & m;
+        }
+        return -1;
+    }
+
+    private void grow() {
+        int capacity = this.keys.length << 1;
+        this.keys = Arrays.copyOf(this.keys, capacity);
+        this.values = Arrays.copyOf(this.values, capacity);
+        // index table is twice the entry capacity, load factor stays under 1/2
+        int[] idx = new int[capacity << 1];
+        int m = idx.length - 1;
+        for (int pos = 0; pos < this.size; pos++) {
+            int i = mix(this.keys[pos]) & m;
+            while (idx[i] != 0) {
+                i = (i + 1) & m;
+            }
+            idx[i] = pos + 1;
+        }
+        this.index = idx;
+        this.mask = m;
+    }
+
+    private void init(int capacity) {
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        this.index = new int[capacity << 1];
+        this.mask = this.index.length - 1;
+        this.size = 0;
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,106 @@
+package io.dongtai.iast.core.utils.collection;
+
+/**
+ * thread safe cache keyed by reference identity, keys are weakly held. the entries are spread over segments by the
+ * identity hash code, each segment is a bounded {@link WeakIdentityMap} with its own lock, so that threads working on
+ * different objects rarely contend. a full segment is cleared to make room for new keys.
+ *
+ * @param <V> value type
+ */
+public class WeakIdentityCache<V> {
+    private static final int SEGMENTS = 16;
+
+    private final WeakIdentityMap<V>[] segments;
+
+    /**
+     * @param maxSize max number of entries, spread evenly over the segments
+     */
+    @SuppressWarnings("unchecked")
+    public WeakIdentityCache(int maxSize) {
+        int segmentSize = Math.max(1, maxSize / SEGMENTS);
+        this.segments = (WeakIdentityMap<V>[]) new WeakIdentityMap[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new WeakIdentityMap<V>(segmentSize);
+        }
+    }
+
+    public V get(Object key) {
+        if (key == null) {
+            return null;
+        }
+        WeakIdentityMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    public void put(Object key, V value) {
+        if (key == null) {
+            return;
+        }
+        WeakIdentityMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            if (!segment.put(key, value)) {
+                // full of stale or rarely used keys
+                segment.clear();
+                segment.put(key, value);
+            }
+        }
+    }
+
+    /**
+     * @return the value already mapped to the key, null if the value is added
+     */
+    public V putIfAbsent(Object key, V value) {
+        if (key == null) {
+            return null;
+        }
+        WeakIdentityMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            V old = segment.get(key);
+            if (old != null) {
+                return old;
+            }
+            if (!segment.put(key, value)) {
+                segment.clear();
+                segment.put(key, value);
+            }
+            return null;
+        }
+    }
+
+    public V remove(Object key) {
+        if (key == null) {
+            return null;
+        }
+        WeakIdentityMap<V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.remove(key);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (WeakIdentityMap<V> segment : this.segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (WeakIdentityMap<V> segment : this.segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    private WeakIdentityMap<V> segmentFor(Object key) {
+        int h = System.identityHashCode(key);
+        // the low bits pick the bucket inside the segment
+        h ^= h >>> 16;
+        return this.segments[(h >>> 4) & (SEGMENTS - 1)];
+    }
+}
@@ -0,0 +1,216 @@
+package io.dongtai.iast.core.utils.collection;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+
+/**
+ * hash map keyed by reference identity, keys are weakly held. the identity hash code is only used to pick the bucket,
+ * so that distinct objects with the same identity hash code never alias each other. entries of collected keys are
+ * expunged on the next access. the number of entries is bounded, new keys are rejected when the map is full.
+ * <p>
+ * not thread safe, the map is cleared and reused for each request on the same thread.
+ *
+ * @param <V> value type
+ */
+public class WeakIdentityMap<V> {
+    private static final int DEFAULT_CAPACITY = 16;
+    /**
+     * table larger than this is dropped on clear instead of being retained by the thread
+     */
+    private static final int MAX_RETAINED_CAPACITY = 1 << 15;
+
+    private final int maxSize;
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+    private Entry<V>[] table;
+    private int size;
+
+    private static final class Entry<V> extends WeakReference<Object> {
+        private final int hash;
+        private V value;
+        private Entry<V> next;
+
+        Entry(Object key, int hash, V value, Entry<V> next, ReferenceQueue<Object> queue) {
+            super(key, queue);
+            this.hash = hash;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    /**
+     * @param maxSize max number of entries
+     */
+    public WeakIdentityMap(int maxSize) {
+        this.maxSize = maxSize;
+        this.table = newTable(DEFAULT_CAPACITY);
+    }
+
+    public int size() {
+        expungeStaleEntries();
+        return this.size;
+    }
+
+    public boolean isEmpty() {
+        if (this.size == 0) {
+            return true;
+        }
+        expungeStaleEntries();
+        return this.size == 0;
+    }
+
+    public V get(Object key) {
+        Entry<V> e = getEntry(key);
+        return e == null ? null : e.value;
+    }
+
+    public boolean containsKey(Object key) {
+        return getEntry(key) != null;
+    }
+
+    /**
+     * @return false if the key is null or the map is full
+     */
+    public boolean put(Object key, V value) {
+        if (key == null) {
+            return false;
+        }
+        expungeStaleEntries();
+        int hash = System.identityHashCode(key);
+        Entry<V>[] tab = this.table;
+        int i = hash & (tab.length - 1);
+        for (Entry<V> e = tab[i]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                e.value = value;
+                return true;
+            }
+        }
+        if (this.size >= this.maxSize) {
+            return false;
+        }
+        tab[i] = new Entry<V>(key, hash, value, tab[i], this.queue);
+        if (++this.size > tab.length - (tab.length >>> 2)) {
+            resize(tab.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return the removed value, null if the key is not in the map
+     */
+    public V remove(Object key) {
+        if (key == null || this.size == 0) {
+            return null;
+        }
+        expungeStaleEntries();
+        int hash = System.identityHashCode(key);
+        Entry<V>[] tab = this.table;
+        int i = hash & (tab.length - 1);
+        Entry<V> prev = null;
+        for (Entry<V> e = tab[i]; e != null; prev = e, e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                if (prev == null) {
+                    tab[i] = e.next;
+                } else {
+                    prev.next = e.next;
+                }
+                V value = e.value;
+                e.value = null;
+                // cleared reference will not be enqueued
+                e.clear();
+                this.size--;
+                return value;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        while (this.queue.poll() != null) {
+            // drain
+        }
+        if (this.size == 0) {
+            return;
+        }
+        if (this.table.length > MAX_RETAINED_CAPACITY) {
+            this.table = newTable(DEFAULT_CAPACITY);
+        } else {
+            Entry<V>[] tab = this.table;
+            for (int i = 0; i < tab.length; i++) {
+                for (Entry<V> e = tab[i]; e != null; e = e.next) {
+                    // cleared reference will not be enqueued
+                    e.clear();
+                }
+                tab[i] = null;
+            }
+        }
+        this.size = 0;
+    }
+
+    /**
+     * @return the weak reference holding the key, for tests to simulate the collection of the key
+     */
+    Reference<Object> getReference(Object key) {
+        return getEntry(key);
+    }
+
+    private Entry<V> getEntry(Object key) {
+        if (key == null || this.size == 0) {
+            return null;
+        }
+        expungeStaleEntries();
+        int hash = System.identityHashCode(key);
+        Entry<V>[] tab = this.table;
+        for (Entry<V> e = tab[hash & (tab.length - 1)]; e != null; e = e.next) {
+            if (e.hash == hash && e.get() == key) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeStaleEntries() {
+        Reference<?> ref;
+        while ((ref = this.queue.poll()) != null) {
+            Entry<V> stale = (Entry<V>) ref;
+            Entry<V>[] tab = this.table;
+            int i = stale.hash & (tab.length - 1);
+            Entry<V> prev = null;
+            for (Entry<V> e = tab[i]; e != null; prev = e, e = e.next) {
+                if (e == stale) {
+                    if (prev == null) {
+                        tab[i] = e.next;
+                    } else {
+                        prev.next = e.next;
+                    }
+                    e.value = null;
+                    this.size--;
+                    break;
+                }
+            }
+        }
+    }
+
+    private void resize(int capacity) {
+        Entry<V>[] oldTab = this.table;
+        Entry<V>[] newTab = newTable(capacity);
+        int mask = capacity - 1;
+        for (Entry<V> head : oldTab) {
+            Entry<V> e = head;
+            while (e != null) {
+                Entry<V> next = e.next;
+                int i = e.hash & mask;
+                e.next = newTab[i];
+                newTab[i] = e;
+                e = next;
+            }
+        }
+        this.table = newTab;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newTable(int capacity) {
+        return (Entry<V>[]) new Entry[capacity];
+    }
+}
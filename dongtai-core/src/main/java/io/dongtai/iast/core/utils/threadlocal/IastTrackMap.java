@@ -1,19 +1,211 @@
 package io.dongtai.iast.core.utils.threadlocal;
 
+import io.dongtai.iast.core.handler.hookpoint.graphy.GraphNode;
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
+import io.dongtai.iast.core.utils.PropertyUtils;
+import io.dongtai.iast.core.utils.collection.IntHashMap;
+import io.dongtai.log.DongTaiLog;
 
-import java.util.Map;
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
 
 /**
+ * method pool of current request, keyed by invoke id and kept in insertion order.
+ * <p>
+ * the bytes retained by the events are accounted, events can be spilled to a local file as report json,
+ * and are read back when the method pool is reported.
+ *
  * @author dongzhiyong@huoxian.cn
  */
-public class IastTrackMap extends ThreadLocal<Map<Integer, MethodEvent>> {
-    @Override
-    protected Map<Integer, MethodEvent> initialValue() {
-        return null;
+public class IastTrackMap {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final IntHashMap<MethodEvent> events = new IntHashMap<MethodEvent>();
+    private long retainedBytes;
+    private int spilledCount;
+    private File spillFile;
+
+    public void addTrackMethod(int invokeId, MethodEvent event) {
+        this.events.put(invokeId, event);
+        this.retainedBytes += event.estimateSize();
+    }
+
+    /**
+     * @return number of events in memory
+     */
+    public int size() {
+        return this.events.size();
+    }
+
+    /**
+     * @return number of events in memory and spilled
+     */
+    public int totalSize() {
+        return this.spilledCount + this.events.size();
+    }
+
+    /**
+     * @return estimated bytes retained by the events in memory
+     */
+    public long getRetainedBytes() {
+        return this.retainedBytes;
+    }
+
+    /**
+     * @param pos event position in insertion order, 0 <= pos < size()
+     */
+    public MethodEvent eventAt(int pos) {
+        return this.events.valueAt(pos);
+    }
+
+    /**
+     * write all events in memory to the spill file and release them. must be called between hooks,
+     * when no event in the method pool is still being built.
+     *
+     * @return false if the events can not be written, they are kept in memory
+     */
+    public boolean spill() {
+        int count = this.events.size();
+        if (count == 0) {
+            return true;
+        }
+
+        FileOutputStream out = null;
+        long length = 0;
+        try {
+            if (this.spillFile == null) {
+                this.spillFile = createSpillFile();
+            }
+            length = this.spillFile.length();
+            out = new FileOutputStream(this.spillFile, true);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+            for (int i = 0; i < count; i++) {
+                writer.write(new GraphNode(this.events.valueAt(i)).toJson().toString());
+                writer.write('\n');
+            }
+            writer.flush();
+        } catch (Throwable e) {
+            if (out != null) {
+                try {
+                    // drop the partially written events
+                    out.getChannel().truncate(length);
+                } catch (IOException ignore) {
+                }
+            }
+            return false;
+        } finally {
+            closeQuietly(out);
+        }
+
+        this.spilledCount += count;
+        this.events.clear();
+        this.retainedBytes = 0;
+        return true;
+    }
+
+    /**
+     * @return number of spilled events
+     */
+    public int getSpilledCount() {
+        return this.spilledCount;
+    }
+
+    /**
+     * append the spilled events to the method pool json array of the report, in insertion order, comma separated.
+     * the lines are copied as they were written, without parsing them back.
+     *
+     * @return number of events appended, nothing is appended if the spill file can not be read
+     */
+    public int appendSpilled(StringBuilder out) throws IOException {
+        if (this.spillFile == null || this.spilledCount == 0) {
+            return 0;
+        }
+
+        int start = out.length();
+        int count = 0;
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.spillFile), UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (count > 0) {
+                    out.append(',');
+                }
+                out.append(line);
+                count++;
+            }
+        } catch (IOException e) {
+            out.setLength(start);
+            throw e;
+        } finally {
+            closeQuietly(reader);
+        }
+        return count;
+    }
+
+    File getSpillFile() {
+        return this.spillFile;
+    }
+
+    public void clear() {
+        this.events.clear();
+        this.retainedBytes = 0;
+        this.spilledCount = 0;
+        if (this.spillFile != null) {
+            // retry once, the file may still be briefly held open on some platforms
+            if (!this.spillFile.delete() && !this.spillFile.delete() && this.spillFile.exists()) {
+                DongTaiLog.warn("delete method pool spill file {} failed", this.spillFile.getPath());
+            }
+            this.spillFile = null;
+        }
+    }
+
+    /**
+     * the spill file holds request values, it is readable and writable by the owner only
+     */
+    private static File createSpillFile() throws IOException {
+        Path dir = null;
+        String tmpDir = PropertyUtils.getTmpDir();
+        if (tmpDir != null) {
+            dir = Paths.get(tmpDir);
+            if (!Files.isDirectory(dir)) {
+                dir = null;
+            }
+        }
+        if (dir == null) {
+            dir = Paths.get(System.getProperty("java.io.tmpdir"));
+        }
+
+        Path path;
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            path = Files.createTempFile(dir, "method-pool-", ".spill",
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            path = Files.createTempFile(dir, "method-pool-", ".spill");
+            File file = path.toFile();
+            file.setReadable(false, false);
+            file.setWritable(false, false);
+            file.setReadable(true, true);
+            file.setWritable(true, true);
+        }
+        return path.toFile();
     }
 
-    public void addTrackMethod(Integer invokeId, MethodEvent event) {
-        this.get().put(invokeId, event);
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (IOException ignore) {
+        }
     }
 }
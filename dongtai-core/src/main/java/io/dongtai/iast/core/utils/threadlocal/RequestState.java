@@ -0,0 +1,99 @@
+package io.dongtai.iast.core.utils.threadlocal;
+
+import io.dongtai.iast.common.scope.*;
+import io.dongtai.iast.core.handler.context.TracingContext;
+import io.dongtai.iast.core.utils.collection.WeakIdentityMap;
+
+import java.util.Map;
+
+/**
+ * all per-thread request state of the engine, read with a single ThreadLocal access per hook.
+ * the instance is reset and reused for the next request on the same thread.
+ */
+public class RequestState {
+    private final ScopeAggregator scope = new ScopeAggregator();
+    private final IastTrackMap trackMap = new IastTrackMap();
+    private final TaintObjectPool taintPool = new TaintObjectPool();
+    private final TaintRangesPool taintRangesPool = new TaintRangesPool();
+    /**
+     * source containers already walked in the current request
+     */
+    private final WeakIdentityMap<Boolean> trackedContainers = new WeakIdentityMap<Boolean>(1 << 12);
+    private Map<String, Object> requestContext;
+    private TracingContext tracingContext;
+    private boolean replayRequest;
+
+    public GeneralScope getHttpRequestScope() {
+        return this.scope.getHttpRequestScope();
+    }
+
+    public GeneralScope getHttpEntryScope() {
+        return this.scope.getHttpEntryScope();
+    }
+
+    public PolicyScope getPolicyScope() {
+        return this.scope.getPolicyScope();
+    }
+
+    public boolean inEnterEntry() {
+        return this.scope.getHttpEntryScope().in();
+    }
+
+    public boolean inAgent() {
+        return this.scope.getPolicyScope().inAgent();
+    }
+
+    public IastTrackMap getTrackMap() {
+        return this.trackMap;
+    }
+
+    public TaintObjectPool getTaintPool() {
+        return this.taintPool;
+    }
+
+    public TaintRangesPool getTaintRangesPool() {
+        return this.taintRangesPool;
+    }
+
+    public WeakIdentityMap<Boolean> getTrackedContainers() {
+        return this.trackedContainers;
+    }
+
+    public Map<String, Object> getRequestContext() {
+        return this.requestContext;
+    }
+
+    public void setRequestContext(Map<String, Object> requestContext) {
+        this.requestContext = requestContext;
+    }
+
+    public TracingContext getTracingContext() {
+        return this.tracingContext;
+    }
+
+    public void setTracingContext(TracingContext tracingContext) {
+        this.tracingContext = tracingContext;
+    }
+
+    public boolean isReplayRequest() {
+        return this.replayRequest;
+    }
+
+    public void setReplayRequest(boolean replayRequest) {
+        this.replayRequest = replayRequest;
+    }
+
+    /**
+     * clear all state in place, so that the instance can be reused by the next request
+     */
+    public void reset() {
+        this.scope.reset();
+        this.trackMap.clear();
+        this.taintPool.clear();
+        this.taintRangesPool.clear();
+        this.trackedContainers.clear();
+        this.requestContext = null;
+        this.tracingContext = null;
+        this.replayRequest = false;
+    }
+}
@@ -0,0 +1,8 @@
+package io.dongtai.iast.core.utils.threadlocal;
+
+public class RequestStateTracker extends ThreadLocal<RequestState> {
+    @Override
+    protected RequestState initialValue() {
+        return new RequestState();
+    }
+}
@@ -2,37 +2,44 @@ package io.dongtai.iast.core.utils.threadlocal;
 
 import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import io.dongtai.iast.core.utils.TaintPoolUtils;
+import io.dongtai.iast.core.utils.collection.WeakIdentityMap;
 import io.dongtai.log.DongTaiLog;
 import io.dongtai.log.ErrorCode;
 
-import java.util.HashSet;
 import java.util.Map;
 
 /**
+ * 当前请求的污点对象池，弱引用持有污点对象，按对象引用判断是否为污点，identity hash code 只用于上报
+ *
  * @author dongzhiyong@huoxian.cn
  */
-public class IastTaintHashCodes extends ThreadLocal<HashSet<Integer>> {
-    @Override
-    protected HashSet<Integer> initialValue() {
-        return null;
-    }
+public class TaintObjectPool {
+    /**
+     * max tainted objects of one request
+     */
+    private static final int MAX_SIZE = 1 << 16;
+
+    private final WeakIdentityMap<Boolean> taints = new WeakIdentityMap<Boolean>(MAX_SIZE);
+    private boolean overflowLogged;
 
     public boolean isEmpty() {
-        return this.get() == null || this.get().isEmpty();
+        return this.taints.isEmpty();
     }
 
-    public boolean contains(Integer hashCode) {
-        if (this.get() == null) {
-            return false;
-        }
-        return this.get().contains(hashCode);
+    public boolean contains(Object obj) {
+        return this.taints.containsKey(obj);
     }
 
-    public void add(Integer hashCode) {
-        if (this.get() == null) {
-            return;
+    public void add(Object obj) {
+        if (!this.taints.put(obj, Boolean.TRUE) && obj != null && !this.overflowLogged) {
+            this.overflowLogged = true;
+            DongTaiLog.debug("taint pool reached max size {}, new taint objects are ignored", MAX_SIZE);
         }
-        this.get().add(hashCode);
+    }
+
+    public void clear() {
+        this.taints.clear();
+        this.overflowLogged = false;
     }
 
     public void addObject(Object obj, MethodEvent event) {
@@ -41,18 +48,15 @@ public class IastTaintHashCodes extends ThreadLocal<HashSet<Integer>> {
         }
 
         try {
-            int subHashCode = 0;
             if (obj instanceof String[]) {
                 String[] tempObjs = (String[]) obj;
                 for (String tempObj : tempObjs) {
-                    subHashCode = System.identityHashCode(tempObj);
-                    this.add(subHashCode);
-                    event.addTargetHash(subHashCode);
+                    this.add(tempObj);
+                    event.addTargetHash(System.identityHashCode(tempObj));
                 }
             } else if (obj instanceof Map) {
-                int hashCode = System.identityHashCode(obj);
-                this.add(hashCode);
-                event.addTargetHash(hashCode);
+                this.add(obj);
+                event.addTargetHash(System.identityHashCode(obj));
             } else if (obj.getClass().isArray() && !obj.getClass().getComponentType().isPrimitive()) {
                 Object[] tempObjs = (Object[]) obj;
                 if (tempObjs.length != 0) {
@@ -61,9 +65,8 @@ public class IastTaintHashCodes extends ThreadLocal<HashSet<Integer>> {
                     }
                 }
             } else {
-                subHashCode = System.identityHashCode(obj);
-                this.add(subHashCode);
-                event.addTargetHash(subHashCode);
+                this.add(obj);
+                event.addTargetHash(System.identityHashCode(obj));
             }
         } catch (Throwable e) {
             DongTaiLog.warn(ErrorCode.UTIL_TAINT_ADD_OBJECT_TO_POOL_FAILED, e);
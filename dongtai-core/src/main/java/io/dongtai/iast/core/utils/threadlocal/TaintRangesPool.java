@@ -1,20 +1,25 @@
 package io.dongtai.iast.core.utils.threadlocal;
 
 import io.dongtai.iast.core.handler.hookpoint.models.taint.range.TaintRanges;
+import io.dongtai.iast.core.utils.collection.WeakIdentityMap;
 
-import java.util.Map;
+public class TaintRangesPool {
+    /**
+     * max tainted objects with ranges of one request
+     */
+    private static final int MAX_SIZE = 1 << 16;
 
-public class TaintRangesPool extends ThreadLocal<Map<Integer, TaintRanges>> {
-    @Override
-    protected Map<Integer, TaintRanges> initialValue() {
-        return null;
+    private final WeakIdentityMap<TaintRanges> pool = new WeakIdentityMap<TaintRanges>(MAX_SIZE);
+
+    public void add(Object obj, TaintRanges taintRanges) {
+        this.pool.put(obj, taintRanges);
     }
 
-    public void add(Integer hash, TaintRanges taintRanges) {
-        this.get().put(hash, taintRanges);
+    public TaintRanges get(Object obj) {
+        return this.pool.get(obj);
     }
 
-    public TaintRanges get(int hash) {
-        return this.get().get(hash);
+    public void clear() {
+        this.pool.clear();
     }
 }
@@ -0,0 +1,100 @@
+package io.dongtai.iast.core.bytecode.enhance.plugin.framework.xml;
+
+import io.dongtai.iast.core.bytecode.enhance.ClassContext;
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.dongtai.SpyDispatcher;
+import java.lang.dongtai.SpyDispatcherHandler;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+
+public class XmlParserConfigAdapterTest {
+    public static class ConfigurableParser {
+        private final Map<String, Object> config = new HashMap<String, Object>();
+
+        public ConfigurableParser() {
+            setFeature("http://xml.org/sax/features/namespaces", true);
+        }
+
+        public void setFeature(String name, boolean value) {
+            this.config.put(name, value);
+        }
+
+        public void setProperty(String name, Object value) {
+            this.config.put(name, value);
+        }
+
+        public void setProperty(String name, String value) {
+            this.config.put(name, value);
+        }
+    }
+
+    @Test
+    public void testSetterReportsInstance() throws Exception {
+        final String name = ConfigurableParser.class.getName();
+        ClassReader cr = new ClassReader(readClass(ConfigurableParser.class));
+        ClassWriter cw = new ClassWriter(cr, ClassWriter.COMPUTE_MAXS);
+        XmlParserConfigAdapter adapter = new XmlParserConfigAdapter(cw, new ClassContext(cr, null));
+        cr.accept(adapter, ClassReader.EXPAND_FRAMES);
+        Assert.assertTrue(adapter.hasTransformed());
+
+        final byte[] bytes = cw.toByteArray();
+        Class<?> cls = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            protected Class<?> loadClass(String className, boolean resolve) throws ClassNotFoundException {
+                if (name.equals(className)) {
+                    return defineClass(className, bytes, 0, bytes.length);
+                }
+                return super.loadClass(className, resolve);
+            }
+        }.loadClass(name);
+
+        final List<Object> configured = new ArrayList<Object>();
+        SpyDispatcher dispatcher = (SpyDispatcher) Proxy.newProxyInstance(SpyDispatcher.class.getClassLoader(),
+                new Class<?>[]{SpyDispatcher.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if ("xmlParserConfigured".equals(method.getName())) {
+                            configured.add(args[0]);
+                        }
+                        return null;
+                    }
+                });
+        SpyDispatcherHandler.setDispatcher(dispatcher);
+        try {
+            Object parser = cls.newInstance();
+            // the feature set by the constructor is reported too, the parser has no cached verdict yet
+            Assert.assertEquals(Collections.singletonList(parser), configured);
+
+            configured.clear();
+            cls.getMethod("setFeature", String.class, boolean.class).invoke(parser, "feature", false);
+            cls.getMethod("setProperty", String.class, Object.class).invoke(parser, "property", 1);
+            cls.getMethod("setProperty", String.class, String.class).invoke(parser, "property", "");
+            Assert.assertEquals(Arrays.asList(parser, parser), configured);
+        } finally {
+            SpyDispatcherHandler.destroy();
+        }
+    }
+
+    private static byte[] readClass(Class<?> cls) throws IOException {
+        InputStream in = cls.getClassLoader().getResourceAsStream(cls.getName().replace('.', '/') + ".class");
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+}
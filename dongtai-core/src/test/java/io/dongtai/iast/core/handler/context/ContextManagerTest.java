@@ -7,17 +7,17 @@ public class ContextManagerTest {
     @Test
     public void testTracingContext() {
         String traceId1 = ContextManager.currentTraceId();
-        TracingContext context1 = ContextManager.getContext().get();
+        TracingContext context1 = ContextManager.getContext();
         Assert.assertEquals(context1.getLevel(), 0);
         Assert.assertEquals(context1.getParentId(), "0");
 
         ContextManager.parseTraceId(traceId1);
-        TracingContext context2 = ContextManager.getContext().get();
+        TracingContext context2 = ContextManager.getContext();
         Assert.assertEquals(context1, context2);
 
         String traceId3 = ContextManager.nextTraceId();
         ContextManager.parseTraceId(traceId3);
-        TracingContext context3 = ContextManager.getContext().get();
+        TracingContext context3 = ContextManager.getContext();
         Assert.assertNotEquals(context1, context3);
         Assert.assertEquals(context1.getGlobalId(), context3.getGlobalId());
         Assert.assertEquals(context1.getSpanId(), context3.getParentId());
@@ -25,14 +25,14 @@ public class ContextManagerTest {
         Assert.assertNotEquals(context1.getSpanId(), context3.getSpanId());
 
         ContextManager.currentTraceId();
-        TracingContext context4 = ContextManager.getContext().get();
+        TracingContext context4 = ContextManager.getContext();
         Assert.assertEquals(context3, context4);
 
-        ContextManager.getContext().remove();
+        ContextManager.removeContext();
         ContextManager.currentTraceId();
-        TracingContext context5 = ContextManager.getContext().get();
+        TracingContext context5 = ContextManager.getContext();
         Assert.assertNotEquals(context4.getGlobalId(), context5.getGlobalId());
 
-        ContextManager.getContext().remove();
+        ContextManager.removeContext();
     }
 }
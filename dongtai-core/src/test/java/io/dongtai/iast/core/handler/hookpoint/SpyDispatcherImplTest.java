@@ -0,0 +1,75 @@
+package io.dongtai.iast.core.handler.hookpoint;
+
+import io.dongtai.iast.common.state.State;
+import io.dongtai.iast.core.EngineManager;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.dongtai.NopSpy;
+import java.lang.dongtai.SpyDispatcherHandler;
+
+public class SpyDispatcherImplTest {
+    private State oldState;
+
+    @Before
+    public void setUp() {
+        this.oldState = EngineManager.AGENT_STATE.getState();
+        EngineManager.AGENT_STATE.setState(State.RUNNING);
+        SpyDispatcherHandler.setDispatcher(new SpyDispatcherImpl());
+        SpyDispatcherHandler.setEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        EngineManager.AGENT_STATE.setPendingState(null);
+        EngineManager.AGENT_STATE.setState(this.oldState);
+        SpyDispatcherHandler.setEnabled(true);
+        SpyDispatcherHandler.destroy();
+        EngineManager.removeThreadState();
+    }
+
+    @Test
+    public void testPauseInFlightRequest() {
+        enterRequest();
+        Assert.assertTrue(SpyDispatcherHandler.isInRequest());
+
+        // the engine is paused before the request leaves, the hooks are switched to NopSpy
+        EngineManager.AGENT_STATE.setPendingState(State.PAUSED);
+        SpyDispatcherHandler.setEnabled(false);
+        Assert.assertTrue(SpyDispatcherHandler.getDispatcher() instanceof NopSpy);
+        Assert.assertFalse(SpyDispatcherHandler.getEntryDispatcher() instanceof NopSpy);
+        SpyDispatcherHandler.getEntryDispatcher().leaveHttp(null, null);
+
+        RequestState state = EngineManager.REQUEST_STATE.get();
+        Assert.assertFalse("request scope cleaned", state.getHttpRequestScope().in());
+        Assert.assertFalse("entry scope cleaned", state.inEnterEntry());
+        Assert.assertFalse("in request flag cleaned", SpyDispatcherHandler.isInRequest());
+
+        // requests on the paused engine are not tracked
+        SpyDispatcherHandler.getEntryDispatcher().enterHttp();
+        Assert.assertFalse(SpyDispatcherHandler.getDispatcher().isFirstLevelHttp());
+        SpyDispatcherHandler.getEntryDispatcher().leaveHttp(null, null);
+
+        EngineManager.AGENT_STATE.setPendingState(null);
+        SpyDispatcherHandler.setEnabled(true);
+
+        // the next request on the same thread is the first level entry again, so it is collected and reported
+        SpyDispatcherHandler.getEntryDispatcher().enterHttp();
+        Assert.assertTrue(SpyDispatcherHandler.getDispatcher().isFirstLevelHttp());
+    }
+
+    private static void enterRequest() {
+        SpyDispatcherHandler.getEntryDispatcher().enterHttp();
+        Assert.assertTrue(SpyDispatcherHandler.getDispatcher().isFirstLevelHttp());
+        // what EngineManager.enterHttpEntry does for the collected request
+        EngineManager.REQUEST_STATE.get().getHttpEntryScope().enter();
+        SpyDispatcherHandler.setInRequest(true);
+        // a nested servlet
+        SpyDispatcherHandler.getEntryDispatcher().enterHttp();
+        Assert.assertFalse(SpyDispatcherHandler.getDispatcher().isFirstLevelHttp());
+        SpyDispatcherHandler.getEntryDispatcher().leaveHttp(null, null);
+    }
+}
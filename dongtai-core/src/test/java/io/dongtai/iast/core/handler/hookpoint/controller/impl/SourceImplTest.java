@@ -0,0 +1,140 @@
+package io.dongtai.iast.core.handler.hookpoint.controller.impl;
+
+import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
+import io.dongtai.iast.common.constants.PropertyConstant;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.*;
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
+import io.dongtai.iast.core.utils.PropertyUtils;
+import io.dongtai.iast.core.utils.threadlocal.RequestState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SourceImplTest {
+    private static SourceNode newSourceNode() throws TaintPositionException {
+        return new SourceNode(TaintPosition.parse("O"), TaintPosition.parse("R"), new SignatureMethodMatcher(
+                new Signature("javax.servlet.ServletRequest", "getParameterMap", new String[0])));
+    }
+
+    private static MethodEvent newEvent(Object ret) {
+        return new MethodEvent("foo.Request", "javax.servlet.ServletRequest", "getParameterMap",
+                "foo.Request.getParameterMap()", new Object(), new Object[0], ret);
+    }
+
+    @Test
+    public void testTrackMap() throws TaintPositionException {
+        RequestState state = new RequestState();
+        SourceNode sourceNode = newSourceNode();
+        Map<String, String[]> params = new HashMap<String, String[]>();
+        params.put("a", new String[]{new String("1"), new String("2")});
+        params.put("b", new String[]{new String("3")});
+
+        MethodEvent event = newEvent(params);
+        SourceImpl.solveSource(state, event, sourceNode, new AtomicInteger());
+        // keys and values
+        Assert.assertEquals(5, event.getTargetHashes().size());
+        for (String[] values : params.values()) {
+            for (String value : values) {
+                Assert.assertTrue(state.getTaintPool().contains(value));
+            }
+        }
+        Assert.assertEquals(1, state.getTrackMap().size());
+
+        // the same container is walked only once per request
+        params.get("b")[0] = new String("4");
+        event = newEvent(params);
+        SourceImpl.solveSource(state, event, sourceNode, new AtomicInteger());
+        Assert.assertEquals(0, event.getTargetHashes().size());
+        Assert.assertFalse(state.getTaintPool().contains(params.get("b")[0]));
+
+        state.reset();
+        event = newEvent(params);
+        SourceImpl.solveSource(state, event, sourceNode, new AtomicInteger());
+        Assert.assertTrue(state.getTaintPool().contains(params.get("b")[0]));
+    }
+
+    @Test
+    public void testBounded() throws TaintPositionException {
+        RequestState state = new RequestState();
+        Map<String, String> large = new LinkedHashMap<String, String>();
+        for (int i = 0; i < 5000; i++) {
+            large.put("k" + i, "v" + i);
+        }
+        MethodEvent event = newEvent(large);
+        SourceImpl.solveSource(state, event, newSourceNode(), new AtomicInteger());
+        Assert.assertEquals("breadth of one container is bounded", 2 * 1024, event.getTargetHashes().size());
+
+        // deeply nested lists
+        List<Object> root = new ArrayList<Object>();
+        List<Object> current = root;
+        for (int i = 0; i < 20; i++) {
+            current.add("depth" + i);
+            List<Object> child = new ArrayList<Object>();
+            current.add(child);
+            current = child;
+        }
+        current.add("leaf");
+        event = newEvent(root);
+        SourceImpl.solveSource(state, event, newSourceNode(), new AtomicInteger());
+        Assert.assertEquals("depth is bounded", 9, event.getTargetHashes().size());
+    }
+
+    @Test
+    public void testLazyContainer() throws TaintPositionException {
+        PropertyUtils.clear();
+        System.setProperty(PropertyConstant.PROPERTY_SOURCE_LAZY_CONTAINER, "true");
+        try {
+            PropertyUtils.getInstance("src/test/fixture/property/policy-test-invalid.properties");
+            RequestState state = new RequestState();
+            SourceNode sourceNode = newSourceNode();
+            sourceNode.setTags(new TaintTag[]{TaintTag.CROSS_SITE});
+
+            // array values are read with array loads that no policy hooks, they are tainted eagerly
+            Map<String, String[]> params = new HashMap<String, String[]>();
+            for (int i = 0; i < 100; i++) {
+                params.put("k" + i, new String[]{"v" + i});
+            }
+            MethodEvent event = newEvent(params);
+            SourceImpl.solveSource(state, event, sourceNode, new AtomicInteger());
+            Assert.assertEquals("container and array elements", 101, event.getTargetHashes().size());
+            Assert.assertTrue(state.getTaintPool().contains(params));
+            Assert.assertNotNull(state.getTaintRangesPool().get(params));
+            String value = params.get("k0")[0];
+            Assert.assertTrue(state.getTaintPool().contains(value));
+            Assert.assertEquals("Taints:[untrusted(0,2), cross-site(0,2)]",
+                    state.getTaintRangesPool().get(value).toString());
+
+            // other elements are tainted when they are read through a hooked getter
+            Map<String, String> headers = new HashMap<String, String>();
+            for (int i = 0; i < 100; i++) {
+                headers.put("h" + i, new String("value" + i));
+            }
+            event = newEvent(headers);
+            SourceImpl.solveSource(state, event, sourceNode, new AtomicInteger());
+            Assert.assertEquals("only the container", 1, event.getTargetHashes().size());
+            value = headers.get("h10");
+            Assert.assertFalse(state.getTaintPool().contains(value));
+
+            PropagatorNode mapGet = new PropagatorNode(TaintPosition.parse("O"), TaintPosition.parse("R"),
+                    null, new String[]{}, new SignatureMethodMatcher(
+                    new Signature("java.util.Map", "get", new String[]{"java.lang.Object"})));
+            MethodEvent getEvent = new MethodEvent("java.util.HashMap", "java.util.Map", "get",
+                    "java.util.HashMap.get(java.lang.Object)", headers, new Object[]{"h10"}, value);
+            PropagatorImpl.solvePropagator(state, getEvent, mapGet, new AtomicInteger());
+            Assert.assertTrue(state.getTaintPool().contains(value));
+            Assert.assertEquals("source tags expanded to the element",
+                    "Taints:[untrusted(0,7), cross-site(0,7)]", state.getTaintRangesPool().get(value).toString());
+
+            Map<String, String[]> small = new HashMap<String, String[]>();
+            small.put("a", new String[]{new String("1")});
+            event = newEvent(small);
+            SourceImpl.solveSource(state, event, newSourceNode(), new AtomicInteger());
+            Assert.assertTrue("small containers are walked", state.getTaintPool().contains(small.get("a")[0]));
+        } finally {
+            System.clearProperty(PropertyConstant.PROPERTY_SOURCE_LAZY_CONTAINER);
+            PropertyUtils.clear();
+        }
+    }
+}
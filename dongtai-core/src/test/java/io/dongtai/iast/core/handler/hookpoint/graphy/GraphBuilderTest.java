@@ -0,0 +1,25 @@
+package io.dongtai.iast.core.handler.hookpoint.graphy;
+
+import org.json.JSONObject;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class GraphBuilderTest {
+    @Test
+    public void testAppendOpen() {
+        JSONObject report = new JSONObject();
+        report.put("type", 36);
+        report.put("version", "v3");
+
+        StringBuilder out = new StringBuilder();
+        GraphBuilder.appendOpen(out, report);
+        out.append(JSONObject.quote("detail")).append(':');
+        GraphBuilder.appendOpen(out, new JSONObject());
+        out.append(JSONObject.quote("pool")).append(":[{\"invokeId\":1}]}}");
+
+        JSONObject parsed = new JSONObject(out.toString());
+        Assert.assertEquals(36, parsed.getInt("type"));
+        Assert.assertEquals("v3", parsed.getString("version"));
+        Assert.assertEquals(1, parsed.getJSONObject("detail").getJSONArray("pool").getJSONObject(0).getInt("invokeId"));
+    }
+}
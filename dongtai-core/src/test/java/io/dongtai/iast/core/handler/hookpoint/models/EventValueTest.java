@@ -0,0 +1,98 @@
+package io.dongtai.iast.core.handler.hookpoint.models;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.*;
+
+public class EventValueTest {
+    @Test
+    public void testFormat() {
+        Assert.assertEquals("[foo]3", new EventValue("foo", false).getFormatted());
+        Assert.assertEquals("[foo]*3", new EventValue("foo", true).getFormatted());
+        Assert.assertEquals("[a b c ]6", new EventValue(new Object[]{"a", new String[]{"b", "c"}}, false).getFormatted());
+        Assert.assertEquals("[[a, b]]6", new EventValue(Arrays.asList("a", "b"), false).getFormatted());
+        Assert.assertEquals("[{k=v}]5", new EventValue(Collections.singletonMap("k", "v"), false).getFormatted());
+
+        StringWriter writer = new StringWriter();
+        writer.write("abc");
+        Assert.assertEquals("[abc]*3", new EventValue(writer, true).getFormatted());
+    }
+
+    @Test
+    public void testMutableValueCapturedEagerly() {
+        StringBuilder sb = new StringBuilder("abc");
+        EventValue value = new EventValue(sb, false);
+        sb.append("def");
+        Assert.assertEquals("[abc]3", value.getFormatted());
+    }
+
+    @Test
+    public void testBounded() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            sb.append('a');
+        }
+        String large = sb.toString();
+        String formatted = new EventValue(large, false).getFormatted();
+        Assert.assertTrue(formatted.endsWith("]3000"));
+        Assert.assertEquals(EventValue.MAX_VALUE_LENGTH + "[]3000".length(), formatted.length());
+
+        List<String> list = new ArrayList<String>();
+        for (int i = 0; i < EventValue.MAX_ELEMENT_COUNT * 2; i++) {
+            list.add("x");
+        }
+        formatted = new EventValue(list, false).getFormatted();
+        Assert.assertTrue(formatted.contains("x, ...]"));
+        Assert.assertFalse(formatted.contains("x]"));
+
+        formatted = new EventValue(Collections.singletonList(large), false).getFormatted();
+        Assert.assertTrue(formatted.length() <= EventValue.MAX_VALUE_LENGTH + "[]*9999".length());
+    }
+
+    @Test
+    public void testNestedBounded() {
+        List<List<String>> nested = new ArrayList<List<String>>();
+        for (int i = 0; i < 4; i++) {
+            List<String> inner = new ArrayList<String>();
+            for (int j = 0; j < 10000; j++) {
+                inner.add("value" + j);
+            }
+            nested.add(inner);
+        }
+        String formatted = new EventValue(nested, false).getFormatted();
+        Assert.assertTrue(formatted.startsWith("[[[value0, value1, "));
+        Assert.assertTrue(formatted.length() <= EventValue.MAX_VALUE_LENGTH + "[]9999".length());
+
+        Map<String, List<String>> map = Collections.singletonMap("k", Arrays.asList("a", "b"));
+        Assert.assertEquals("[{k=[a, b]}]10", new EventValue(map, false).getFormatted());
+    }
+
+    @Test
+    public void testToStringNotCalled() {
+        Object dto = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException("toString called");
+            }
+        };
+        String identity = dto.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(dto));
+        Assert.assertEquals("[" + identity + "]" + identity.length(), new EventValue(dto, false).getFormatted());
+        Assert.assertEquals("[[1, true, c, MILLISECONDS, " + identity + "]]",
+                new EventValue(Arrays.asList(1, true, 'c', java.util.concurrent.TimeUnit.MILLISECONDS, dto), false)
+                        .getFormatted().replaceAll("\\d+$", ""));
+        Assert.assertEquals("[[a, null]]9", new EventValue(Arrays.asList("a", null), false).getFormatted());
+    }
+
+    @Test
+    public void testLargeStringNotRetained() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append('a');
+        }
+        EventValue value = new EventValue(sb.toString(), true);
+        Assert.assertTrue(value.estimateSize() < 4 * EventValue.MAX_VALUE_LENGTH);
+        Assert.assertTrue(value.getFormatted().endsWith("]*100000"));
+    }
+}
@@ -0,0 +1,51 @@
+package io.dongtai.iast.core.handler.hookpoint.models.policy;
+
+import org.junit.*;
+
+import java.util.HashSet;
+
+public class PolicyNodeRegistryTest {
+    @After
+    public void tearDown() {
+        PolicyNodeRegistry.clear();
+    }
+
+    private SourceNode newNode(String className, String methodName) {
+        Signature signature = new Signature(className, methodName, new String[]{});
+        return new SourceNode(new HashSet<TaintPosition>(), new HashSet<TaintPosition>(),
+                new SignatureMethodMatcher(signature));
+    }
+
+    @Test
+    public void testRegister() {
+        SourceNode node1 = newNode("Foo", "bar");
+        SourceNode node2 = newNode("Foo", "baz");
+
+        int id1 = PolicyNodeRegistry.register(node1);
+        int id2 = PolicyNodeRegistry.register(node2);
+        Assert.assertEquals("first index", 0, id1);
+        Assert.assertEquals("second index", 1, id2);
+        Assert.assertSame("get node1", node1, PolicyNodeRegistry.get(id1));
+        Assert.assertSame("get node2", node2, PolicyNodeRegistry.get(id2));
+
+        SourceNode reloaded = newNode("Foo", "bar");
+        Assert.assertEquals("same key reuse index", id1, PolicyNodeRegistry.register(reloaded));
+        Assert.assertSame("same key replace node", reloaded, PolicyNodeRegistry.get(id1));
+
+        Assert.assertNull("unregistered index", PolicyNodeRegistry.get(2));
+        Assert.assertNull("negative index", PolicyNodeRegistry.get(-1));
+        Assert.assertNull("out of range index", PolicyNodeRegistry.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGrow() {
+        SourceNode[] nodes = new SourceNode[1000];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = newNode("Foo", "bar" + i);
+            Assert.assertEquals("index " + i, i, PolicyNodeRegistry.register(nodes[i]));
+        }
+        for (int i = 0; i < nodes.length; i++) {
+            Assert.assertSame("node " + i, nodes[i], PolicyNodeRegistry.get(i));
+        }
+    }
+}
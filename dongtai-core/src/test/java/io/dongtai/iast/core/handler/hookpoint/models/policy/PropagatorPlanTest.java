@@ -0,0 +1,59 @@
+package io.dongtai.iast.core.handler.hookpoint.models.policy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PropagatorPlanTest {
+    private static PropagatorNode newNode(String signature, String sources, String targets)
+            throws TaintPositionException {
+        String className = signature.substring(0, signature.indexOf('('));
+        String methodName = className.substring(className.lastIndexOf('.') + 1);
+        className = className.substring(0, className.lastIndexOf('.'));
+        String params = signature.substring(signature.indexOf('(') + 1, signature.length() - 1);
+        Signature sig = new Signature(className, methodName, params.isEmpty() ? new String[0] : params.split(","));
+        return new PropagatorNode(TaintPosition.parse(sources), TaintPosition.parse(targets),
+                null, new String[]{}, new SignatureMethodMatcher(sig));
+    }
+
+    @Test
+    public void testCompile() throws TaintPositionException {
+        PropagatorPlan plan = newNode("java.lang.StringBuilder.append(java.lang.String)", "O|P1", "O").getPlan();
+        Assert.assertFalse(plan.isEmpty());
+        Assert.assertTrue(plan.isSourceObject());
+        Assert.assertArrayEquals(new int[]{0}, plan.getSourceParameters());
+        Assert.assertEquals(PropagatorPlan.SOURCE_OBJECT_PARAMETER, plan.getSourceKind());
+        Assert.assertEquals(0, plan.getSourceParameter());
+        Assert.assertEquals(PropagatorPlan.TARGET_OBJECT, plan.getTargetKind());
+        Assert.assertFalse(plan.isObjectToSelf());
+        Assert.assertNotNull("runner bound", plan.getRunner());
+
+        plan = newNode("java.lang.StringBuilder.toString()", "O", "R").getPlan();
+        Assert.assertEquals(PropagatorPlan.SOURCE_OBJECT, plan.getSourceKind());
+        Assert.assertEquals(PropagatorPlan.TARGET_RETURN, plan.getTargetKind());
+        Assert.assertTrue(plan.isObjectToSelf());
+
+        plan = newNode("foo.Bar.baz(java.lang.String,java.lang.String,java.lang.String)", "P3,1", "P2").getPlan();
+        Assert.assertArrayEquals(new int[]{0, 2}, plan.getSourceParameters());
+        Assert.assertEquals(PropagatorPlan.SOURCE_NONE, plan.getSourceKind());
+        Assert.assertEquals(PropagatorPlan.TARGET_PARAMETER, plan.getTargetKind());
+        Assert.assertEquals(1, plan.getTargetParameter());
+        Assert.assertNull("no command", plan.getRunner());
+
+        plan = newNode("foo.Bar.baz(java.lang.String)", "P1", "O|R").getPlan();
+        Assert.assertEquals(PropagatorPlan.SOURCE_PARAMETER, plan.getSourceKind());
+        Assert.assertEquals(PropagatorPlan.TARGET_NONE, plan.getTargetKind());
+        Assert.assertTrue(plan.isTargetObject());
+        Assert.assertTrue(plan.isTargetReturn());
+    }
+
+    @Test
+    public void testRecompileOnChange() throws TaintPositionException {
+        PropagatorNode node = newNode("foo.Bar.baz(java.lang.String)", "P1", "R");
+        PropagatorPlan plan = node.getPlan();
+        Assert.assertSame(plan, node.getPlan());
+
+        node.setTargets(TaintPosition.parse("O"));
+        Assert.assertNotSame(plan, node.getPlan());
+        Assert.assertEquals(PropagatorPlan.TARGET_OBJECT, node.getPlan().getTargetKind());
+    }
+}
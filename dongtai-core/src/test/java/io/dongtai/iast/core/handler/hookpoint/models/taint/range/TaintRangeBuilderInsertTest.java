@@ -23,14 +23,14 @@ public class TaintRangeBuilderInsertTest {
         srcTs = new TaintRanges(new TaintRange(0, 2));
         // new StringBuilder("fbAr").insert(1, "OO")    // fOObAr
         tb.insert(ts, oldTs, new StringBuilder("OO"), srcTs, 1, 0, 0, 1);
-        Assert.assertEquals("Taints:[untrusted(4,5), untrusted(1,3)]", ts.toString());
+        Assert.assertEquals("Taints:[untrusted(1,3), untrusted(4,5)]", ts.toString());
 
         ts = new TaintRanges();
         oldTs = new TaintRanges(new TaintRange(0, 1), new TaintRange(2, 3));
         srcTs = new TaintRanges(new TaintRange(1, 2));
         // new StringBuilder("FbAr").insert(1, "oO")    // FoObAr
         tb.insert(ts, oldTs, new StringBuilder("oO"), srcTs, 1, 0, 0, 1);
-        Assert.assertEquals("Taints:[untrusted(0,1), untrusted(4,5), untrusted(2,3)]", ts.toString());
+        Assert.assertEquals("Taints:[untrusted(0,1), untrusted(2,3), untrusted(4,5)]", ts.toString());
     }
 
     @Test
@@ -59,7 +59,7 @@ public class TaintRangeBuilderInsertTest {
         srcTs = new TaintRanges(new TaintRange(2, 4));
         // new StringBuilder("foaR").insert(2, "zzOBzz", 2, 4)  // foOBaR
         tb.insert(ts, oldTs, new StringBuilder("zzOBzz"), srcTs, 2, 2, 4, 3);
-        Assert.assertEquals("Taints:[untrusted(5,6), untrusted(2,4)]", ts.toString());
+        Assert.assertEquals("Taints:[untrusted(2,4), untrusted(5,6)]", ts.toString());
 
         ts = new TaintRanges();
         oldTs = new TaintRanges(new TaintRange(2, 3));
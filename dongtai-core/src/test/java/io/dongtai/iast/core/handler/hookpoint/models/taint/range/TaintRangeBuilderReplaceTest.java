@@ -81,7 +81,7 @@ public class TaintRangeBuilderReplaceTest {
         obj.replace(2, 4, src);
         tb.replace(ts, obj, oldTs, src, srcTs, 2, 4, 2);
         Assert.assertEquals("foBaZaR", obj.toString());
-        Assert.assertEquals("Taints:[untrusted(6,7), untrusted(2,3), untrusted(4,5)]", ts.toString());
+        Assert.assertEquals("Taints:[untrusted(2,3), untrusted(4,5), untrusted(6,7)]", ts.toString());
 
         ts = new TaintRanges();
         oldTs = new TaintRanges(new TaintRange(0, 1), new TaintRange(5, 6));
@@ -91,7 +91,7 @@ public class TaintRangeBuilderReplaceTest {
         obj.replace(2, 4, src);
         tb.replace(ts, obj, oldTs, src, srcTs, 2, 4, 2);
         Assert.assertEquals("FoBaZaR", obj.toString());
-        Assert.assertEquals("Taints:[untrusted(0,1), untrusted(6,7), untrusted(2,3), untrusted(4,5)]", ts.toString());
+        Assert.assertEquals("Taints:[untrusted(0,1), untrusted(2,3), untrusted(4,5), untrusted(6,7)]", ts.toString());
 
         ts = new TaintRanges();
         oldTs = new TaintRanges(new TaintRange(0, 1));
@@ -0,0 +1,104 @@
+package io.dongtai.iast.core.handler.hookpoint.models.taint.range;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+/**
+ * merge and append with many fragments, the result must stay sorted and merged
+ */
+public class TaintRangesMergeTest {
+    @Test
+    public void testMergeManyFragments() {
+        int count = 200000;
+        List<Integer> order = new ArrayList<Integer>();
+        for (int i = 0; i < count; i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(42));
+
+        // fragments of width 3 at every 4 chars, every 10th fragment is adjacent to the next one
+        TaintRanges ts = new TaintRanges();
+        for (int i : order) {
+            int start = i * 4;
+            ts.add(new TaintRange(start, start + (i % 10 == 0 ? 4 : 3)));
+        }
+        ts.merge();
+
+        Assert.assertEquals(count - count / 10, ts.size());
+        for (int i = 1; i < ts.size(); i++) {
+            Assert.assertTrue(ts.getStop(i - 1) < ts.getStart(i));
+        }
+        Assert.assertEquals(0, ts.getStart(0));
+        Assert.assertEquals(7, ts.getStop(0));
+    }
+
+    @Test
+    public void testAppendManyFragments() {
+        // a json body assembled from tainted values: {"k0":"v0","k1":"v1",...}
+        TaintRangesBuilder tb = new TaintRangesBuilder();
+        StringBuilder sb = new StringBuilder("{");
+        TaintRanges current = new TaintRanges();
+        int count = 10000;
+        for (int i = 0; i < count; i++) {
+            String literal = (i == 0 ? "\"k" : ",\"k") + i + "\":\"";
+            sb.append(literal);
+            String value = "value" + i;
+            sb.append(value);
+            TaintRanges ts = new TaintRanges();
+            tb.append(ts, sb, current, value, new TaintRanges(new TaintRange(0, value.length())), 0, 0, 0);
+            current = ts;
+            sb.append('"');
+        }
+
+        Assert.assertEquals(count, current.size());
+        int last = sb.length() - 1;
+        Assert.assertEquals(last, current.getStop(count - 1));
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("value" + i, sb.substring(current.getStart(i), current.getStop(i)));
+        }
+    }
+
+    @Test
+    public void testMergeAgainstNaive() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            TaintRanges ts = new TaintRanges();
+            List<int[]> ranges = new ArrayList<int[]>();
+            int n = random.nextInt(30);
+            for (int i = 0; i < n; i++) {
+                int start = random.nextInt(100);
+                int stop = start + 1 + random.nextInt(10);
+                ts.add(new TaintRange(start, stop));
+                ranges.add(new int[]{start, stop});
+            }
+            ts.merge();
+            Assert.assertEquals("round " + round, naiveMerge(ranges), ts.toString());
+        }
+    }
+
+    private static String naiveMerge(List<int[]> ranges) {
+        // adjacent ranges are merged too, so merged ranges are the runs of covered chars
+        boolean[] covered = new boolean[200];
+        for (int[] range : ranges) {
+            for (int i = range[0]; i < range[1]; i++) {
+                covered[i] = true;
+            }
+        }
+        List<String> merged = new ArrayList<String>();
+        int i = 0;
+        while (i < covered.length) {
+            if (!covered[i]) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < covered.length && covered[i]) {
+                i++;
+            }
+            merged.add("untrusted(" + start + "," + i + ")");
+        }
+        return "Taints:" + merged;
+    }
+}
@@ -1,5 +1,6 @@
 package io.dongtai.iast.core.handler.hookpoint.models.taint.range;
 
+import io.dongtai.iast.core.handler.hookpoint.models.taint.tag.TaintTag;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
@@ -167,7 +168,7 @@ public class TaintRangesTest {
 
         tr1 = new TaintRange(5, 10);
         Map<TaintRange, String> tests = new HashMap<TaintRange, String>() {{
-            put(new TaintRange(1, 4), "Taints:[untrusted(5,10), untrusted(1,4)]");
+            put(new TaintRange(1, 4), "Taints:[untrusted(1,4), untrusted(5,10)]");
             put(new TaintRange(1, 5), "Taints:[untrusted(1,10)]");
             put(new TaintRange(1, 7), "Taints:[untrusted(1,10)]");
             put(new TaintRange(1, 11), "Taints:[untrusted(1,11)]");
@@ -186,4 +187,57 @@ public class TaintRangesTest {
             Assert.assertEquals(tsCopy.toString(), entry.getValue(), ts.toString());
         }
     }
+
+    @Test
+    public void testTags() {
+        TaintRanges ts = new TaintRanges(new TaintRange(0, 5));
+        ts.add(TaintTag.CROSS_SITE, 0, 5);
+        ts.add(TaintTag.XSS_ENCODED, 2, 4);
+        Assert.assertEquals("Taints:[untrusted(0,5), cross-site(0,5), xss-encoded(2,4)]", ts.toString());
+
+        int required = TaintTag.mask(TaintTag.UNTRUSTED, TaintTag.CROSS_SITE);
+        int disallowed = TaintTag.mask(TaintTag.XSS_ENCODED, TaintTag.URL_ENCODED);
+        Assert.assertTrue(ts.hasRequiredTaintTags(required));
+        Assert.assertTrue(ts.hasDisallowedTaintTags(disallowed));
+
+        TaintRanges copy = ts.clone();
+        ts.untag(new TaintTag[]{TaintTag.XSS_ENCODED, TaintTag.CROSS_SITE});
+        Assert.assertEquals("Taints:[untrusted(0,5)]", ts.toString());
+        Assert.assertFalse(ts.hasRequiredTaintTags(required));
+        Assert.assertFalse(ts.hasDisallowedTaintTags(disallowed));
+        Assert.assertEquals("clone unchanged", 3, copy.size());
+
+        // ranges of different tags are not merged
+        copy.add(TaintTag.CROSS_SITE, 5, 8);
+        copy.merge();
+        Assert.assertEquals("Taints:[untrusted(0,5), cross-site(0,8), xss-encoded(2,4)]", copy.toString());
+    }
+
+    @Test
+    public void testCopyOnWrite() {
+        TaintRanges origin = new TaintRanges(new TaintRange(5, 10), new TaintRange(13, 16));
+        TaintRanges copy = origin.clone();
+        copy.shift(3);
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,16)]", origin.toString());
+        Assert.assertEquals("Taints:[untrusted(8,13), untrusted(16,19)]", copy.toString());
+
+        copy = origin.clone();
+        origin.trim(6, 15);
+        Assert.assertEquals("Taints:[untrusted(0,4), untrusted(7,9)]", origin.toString());
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,16)]", copy.toString());
+
+        TaintRanges target = new TaintRanges();
+        target.addAll(copy);
+        target.add(new TaintRange(20, 22));
+        target.merge();
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,16), untrusted(20,22)]", target.toString());
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,16)]", copy.toString());
+
+        target = new TaintRanges();
+        target.addAll(copy);
+        copy.add(new TaintRange(16, 18));
+        copy.merge();
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,16)]", target.toString());
+        Assert.assertEquals("Taints:[untrusted(5,10), untrusted(13,18)]", copy.toString());
+    }
 }
@@ -0,0 +1,135 @@
+package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class FastjsonCheckTest {
+    private static final String JSON = "com/alibaba/fastjson/JSON";
+    private static final String PARSER_CONFIG = "com/alibaba/fastjson/parser/ParserConfig";
+
+    @Test
+    public void testVerdictCache() throws Exception {
+        FastjsonLoader loader = new FastjsonLoader("1.2.70");
+        FastjsonCheck check = new FastjsonCheck();
+        Assert.assertFalse("safe mode off", isSafe(check, loader));
+
+        // the safe mode is read on each check
+        loader.setStatic(PARSER_CONFIG, "safeMode", true);
+        Assert.assertTrue("safe mode on", isSafe(check, loader));
+        loader.setStatic(PARSER_CONFIG, "safeMode", false);
+
+        // the version is read once for the library
+        loader.setStatic(JSON, "VERSION", "1.2.83");
+        Assert.assertFalse("cached version", isSafe(check, loader));
+    }
+
+    @Test
+    public void testLoaderIsolation() throws Exception {
+        FastjsonCheck check = new FastjsonCheck();
+        FastjsonLoader unsafe = new FastjsonLoader("1.2.60");
+        FastjsonLoader safe = new FastjsonLoader("1.2.83");
+        Assert.assertFalse("old version", isSafe(check, unsafe));
+        Assert.assertTrue("safe version", isSafe(check, safe));
+        Assert.assertFalse("old version", isSafe(check, unsafe));
+
+        // a context loader that delegates to a library shares its verdict
+        ClassLoader webapp = new ClassLoader(unsafe) {
+        };
+        Assert.assertFalse("parent library", isSafe(check, webapp));
+
+        Assert.assertTrue("no fastjson", isSafe(check, new ClassLoader(null) {
+        }));
+    }
+
+    private static boolean isSafe(FastjsonCheck check, ClassLoader loader) {
+        Thread thread = Thread.currentThread();
+        ClassLoader old = thread.getContextClassLoader();
+        thread.setContextClassLoader(loader);
+        try {
+            return check.isSafe(null, null);
+        } finally {
+            thread.setContextClassLoader(old);
+        }
+    }
+
+    /**
+     * defines a minimal fastjson JSON and ParserConfig
+     */
+    private static class FastjsonLoader extends ClassLoader {
+        private final Map<String, byte[]> classes = new HashMap<String, byte[]>();
+
+        FastjsonLoader(String version) {
+            super(FastjsonCheckTest.class.getClassLoader());
+            this.classes.put(JSON.replace('/', '.'), newJson(version));
+            this.classes.put(PARSER_CONFIG.replace('/', '.'), newParserConfig());
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = this.classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+        void setStatic(String className, String field, Object value) throws Exception {
+            loadClass(className.replace('/', '.')).getField(field).set(null, value);
+        }
+
+        private static byte[] newJson(String version) {
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, JSON, null, "java/lang/Object", null);
+            cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "VERSION", "Ljava/lang/String;", null, null).visitEnd();
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            mv.visitCode();
+            mv.visitLdcInsn(version);
+            mv.visitFieldInsn(Opcodes.PUTSTATIC, JSON, "VERSION", "Ljava/lang/String;");
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private static byte[] newParserConfig() {
+            String desc = "L" + PARSER_CONFIG + ";";
+            ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_6, Opcodes.ACC_PUBLIC, PARSER_CONFIG, null, "java/lang/Object", null);
+            cw.visitField(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "safeMode", "Z", null, null).visitEnd();
+
+            MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+            mv.visitCode();
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+            mv.visitInsn(Opcodes.RETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "getGlobalInstance", "()" + desc, null, null);
+            mv.visitCode();
+            mv.visitTypeInsn(Opcodes.NEW, PARSER_CONFIG);
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, PARSER_CONFIG, "<init>", "()V", false);
+            mv.visitInsn(Opcodes.ARETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "isSafeMode", "()Z", null, null);
+            mv.visitCode();
+            mv.visitFieldInsn(Opcodes.GETSTATIC, PARSER_CONFIG, "safeMode", "Z");
+            mv.visitInsn(Opcodes.IRETURN);
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic;
+
+import io.dongtai.iast.core.handler.hookpoint.models.policy.*;
+import io.dongtai.iast.core.handler.hookpoint.service.trace.HttpService;
+import io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe.XXECheck;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashSet;
+
+public class SinkCheckersTest {
+    private static SinkNode newNode(String className, String methodName, String[] params, String vulType) {
+        SinkNode node = new SinkNode(new HashSet<TaintPosition>(),
+                new SignatureMethodMatcher(new Signature(className, methodName, params)));
+        node.setVulType(vulType);
+        return node;
+    }
+
+    @Test
+    public void testBind() {
+        SinkNode node = newNode("java.io.File", "<init>", new String[]{"java.lang.String"}, "path-traversal");
+        SinkCheckers checkers = node.getCheckers();
+        Assert.assertSame(checkers, node.getCheckers());
+        Assert.assertTrue(checkers.getSourceChecker() instanceof PathTraversalCheck);
+        Assert.assertEquals(0, checkers.getSafeCheckers().length);
+        Assert.assertEquals(0, checkers.getServiceTraces().length);
+
+        node = newNode("okhttp3.Call", "execute", new String[]{}, "ssrf");
+        checkers = node.getCheckers();
+        Assert.assertTrue(checkers.getSourceChecker() instanceof SSRFSourceCheck);
+        Assert.assertEquals(1, checkers.getServiceTraces().length);
+        Assert.assertTrue(checkers.getServiceTraces()[0] instanceof HttpService);
+
+        node = newNode("javax.xml.parsers.DocumentBuilder", "parse", new String[]{"java.io.InputStream"}, "xxe");
+        checkers = node.getCheckers();
+        Assert.assertNull(checkers.getSourceChecker());
+        Assert.assertEquals(1, checkers.getSafeCheckers().length);
+        Assert.assertTrue(checkers.getSafeCheckers()[0] instanceof XXECheck);
+
+        node = newNode("com.alibaba.fastjson.JSON", "parse", new String[]{"java.lang.String"}, "unsafe-json-deserialize");
+        Assert.assertTrue(node.getCheckers().getSafeCheckers()[0] instanceof FastjsonCheck);
+    }
+
+    @Test
+    public void testRebindOnChange() {
+        SinkNode node = newNode("java.io.File", "<init>", new String[]{"java.lang.String"}, "path-traversal");
+        Assert.assertNotNull(node.getCheckers().getSourceChecker());
+        node.setVulType("sql-injection");
+        Assert.assertNull(node.getCheckers().getSourceChecker());
+    }
+}
@@ -1,10 +1,15 @@
 package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe;
 
+import io.dongtai.iast.common.state.State;
+import io.dongtai.iast.core.EngineManager;
+import io.dongtai.iast.core.handler.hookpoint.SpyDispatcherImpl;
+import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 import javax.xml.parsers.*;
 import java.io.IOException;
@@ -68,6 +73,28 @@ public class JavaxSAXParserTest extends XXECheckTest {
         Assert.assertEquals(NAME + "[C] disallow epe", realContent, getNode(parser));
     }
 
+    @Test
+    public void testVerdictCache() throws ParserConfigurationException, SAXException {
+        XXECheck check = new XXECheck();
+        SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+        MethodEvent event = new MethodEvent("javax.xml.parsers.SAXParser", "javax.xml.parsers.SAXParser", "parse",
+                "javax.xml.parsers.SAXParser.parse(org.xml.sax.InputSource,org.xml.sax.helpers.DefaultHandler)",
+                parser, new Object[]{new InputSource(new StringReader(getPayload())), new CustomContentHandler()}, null);
+        Assert.assertFalse(NAME + " default", check.isSafe(event, null));
+
+        // the setFeature hook reports the inner reader, the verdict of its parser is dropped
+        XMLReader reader = parser.getXMLReader();
+        reader.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        State state = EngineManager.AGENT_STATE.getState();
+        EngineManager.AGENT_STATE.setState(State.RUNNING);
+        try {
+            new SpyDispatcherImpl().xmlParserConfigured(reader);
+        } finally {
+            EngineManager.AGENT_STATE.setState(state);
+        }
+        Assert.assertTrue(NAME + " disallow-doctype-decl", check.isSafe(event, null));
+    }
+
     private String getNode(SAXParser parser) throws SAXException {
         String payload = getPayload();
 
@@ -1,5 +1,9 @@
 package io.dongtai.iast.core.handler.hookpoint.vulscan.dynamic.xxe;
 
+import io.dongtai.iast.common.state.State;
+import io.dongtai.iast.core.EngineManager;
+import io.dongtai.iast.core.handler.hookpoint.SpyDispatcherImpl;
+import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
 import org.junit.Assert;
 import org.junit.Test;
 import org.junit.function.ThrowingRunnable;
@@ -59,6 +63,43 @@ public class XMLInputFactoryTest extends XXECheckTest {
         });
     }
 
+    @Test
+    public void testVerdictCache() {
+        XXECheck check = new XXECheck();
+        SpyDispatcherImpl dispatcher = new SpyDispatcherImpl();
+        XMLInputFactory xif = XMLInputFactory.newInstance();
+        XMLInputFactory other = XMLInputFactory.newInstance();
+        MethodEvent event = newEvent(xif);
+        MethodEvent otherEvent = newEvent(other);
+        Assert.assertFalse(NAME + " default", check.isSafe(event, null));
+        Assert.assertFalse(NAME + " other default", check.isSafe(otherEvent, null));
+
+        xif.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        other.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        Assert.assertFalse(NAME + " cached verdict", check.isSafe(event, null));
+
+        State state = EngineManager.AGENT_STATE.getState();
+        EngineManager.AGENT_STATE.setState(State.RUNNING);
+        try {
+            // called by the setProperty hook on the configured instance
+            dispatcher.xmlParserConfigured(xif);
+            Assert.assertTrue(NAME + " disallow supportDTD", check.isSafe(event, null));
+            Assert.assertFalse(NAME + " other instance keeps its verdict", check.isSafe(otherEvent, null));
+
+            xif.setProperty(XMLInputFactory.SUPPORT_DTD, true);
+            dispatcher.xmlParserConfigured(xif);
+            Assert.assertFalse(NAME + " allow supportDTD again", check.isSafe(event, null));
+        } finally {
+            EngineManager.AGENT_STATE.setState(state);
+        }
+    }
+
+    private MethodEvent newEvent(XMLInputFactory xif) {
+        return new MethodEvent("javax.xml.stream.XMLInputFactory", "javax.xml.stream.XMLInputFactory",
+                "createXMLStreamReader", "javax.xml.stream.XMLInputFactory.createXMLStreamReader(java.io.Reader)",
+                xif, new Object[]{new StringReader(getPayload())}, null);
+    }
+
     private String getNode(XMLInputFactory xif) throws XMLStreamException {
         String payload = getPayload();
         XMLStreamReader reader = xif.createXMLStreamReader(new StringReader(payload));
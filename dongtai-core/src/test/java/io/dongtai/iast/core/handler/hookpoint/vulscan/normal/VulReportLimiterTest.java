@@ -0,0 +1,104 @@
+package io.dongtai.iast.core.handler.hookpoint.vulscan.normal;
+
+import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
+import io.dongtai.iast.core.handler.hookpoint.models.policy.SinkNode;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class VulReportLimiterTest {
+    private static final String COOKIE = "cookie-flags-missing";
+
+    @Test
+    public void testTryAcquire() {
+        VulReportLimiter limiter = new VulReportLimiter(16, 100);
+        Assert.assertTrue(limiter.tryAcquire(callSite(COOKIE, "login", 10), 0));
+        Assert.assertFalse("same call site in interval", limiter.tryAcquire(callSite(COOKIE, "login", 10), 50));
+        Assert.assertTrue("other line", limiter.tryAcquire(callSite(COOKIE, "login", 20), 50));
+        Assert.assertTrue("other method", limiter.tryAcquire(callSite(COOKIE, "logout", 10), 50));
+        Assert.assertTrue("other vul type", limiter.tryAcquire(callSite("crypto-weak-randomness", "login", 10), 50));
+        Assert.assertTrue("interval elapsed", limiter.tryAcquire(callSite(COOKIE, "login", 10), 100));
+        Assert.assertFalse(limiter.tryAcquire(callSite(COOKIE, "login", 10), 150));
+    }
+
+    @Test
+    public void testAcquireReportCallSite() {
+        RecordingScan scanner = new RecordingScan();
+        caller(scanner);
+        Assert.assertTrue(scanner.admitted);
+        Assert.assertEquals("hooked", scanner.stack[0].getMethodName());
+        Assert.assertEquals("caller", scanner.stack[1].getMethodName());
+        // the single frame key is the caller frame of the captured stack
+        Assert.assertFalse(AbstractNormalVulScan.REPORT_LIMITER.tryAcquire(
+                new AbstractNormalVulScan.CallSite(RecordingScan.VUL_TYPE, scanner.stack[1]), System.nanoTime()));
+
+        caller(scanner);
+        Assert.assertFalse("repeated call site", scanner.admitted);
+    }
+
+    @Test
+    public void testCallSite() {
+        StackTraceElement frame = new StackTraceElement("com.example.Foo", "login", "Foo.java", 10);
+        StackTraceElement same = new StackTraceElement("com.example.Foo", "login", null, 10);
+        Assert.assertEquals(new AbstractNormalVulScan.CallSite(COOKIE, frame), new AbstractNormalVulScan.CallSite(COOKIE, same));
+        Assert.assertEquals(new AbstractNormalVulScan.CallSite(COOKIE, frame).hashCode(),
+                new AbstractNormalVulScan.CallSite(COOKIE, same).hashCode());
+        Assert.assertEquals(new AbstractNormalVulScan.CallSite(COOKIE, null), new AbstractNormalVulScan.CallSite(COOKIE, null));
+        Assert.assertNotEquals(new AbstractNormalVulScan.CallSite(COOKIE, frame), new AbstractNormalVulScan.CallSite(COOKIE, null));
+    }
+
+    @Test
+    public void testBounded() {
+        VulReportLimiter limiter = new VulReportLimiter(4, 100);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(limiter.tryAcquire("a" + i, 0));
+        }
+        Assert.assertEquals(4, limiter.size());
+
+        // the expired keys are evicted first
+        Assert.assertTrue(limiter.tryAcquire("b", 100));
+        Assert.assertEquals(1, limiter.size());
+        Assert.assertFalse(limiter.tryAcquire("b", 101));
+
+        // none expired, shrinks below the bound
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(limiter.tryAcquire("c" + i, 101));
+        }
+        Assert.assertTrue(limiter.size() <= 3);
+    }
+
+    private static AbstractNormalVulScan.CallSite callSite(String vulType, String method, int line) {
+        return new AbstractNormalVulScan.CallSite(vulType, new StackTraceElement("com.example.Foo", method, "Foo.java", line));
+    }
+
+    private static void caller(RecordingScan scanner) {
+        hooked(scanner);
+    }
+
+    private static void hooked(RecordingScan scanner) {
+        dispatch(scanner);
+    }
+
+    /**
+     * SpyDispatcherImpl.collectMethod and SinkImpl.solveSink sit between the hooked method and the scanner
+     */
+    private static void dispatch(RecordingScan scanner) {
+        solve(scanner);
+    }
+
+    private static void solve(RecordingScan scanner) {
+        scanner.scan(null, null);
+    }
+
+    private static class RecordingScan extends AbstractNormalVulScan {
+        private static final String VUL_TYPE = "recording-scan";
+
+        private boolean admitted;
+        private StackTraceElement[] stack;
+
+        @Override
+        public void scan(MethodEvent event, SinkNode sinkNode) {
+            this.admitted = acquireReport(VUL_TYPE);
+            this.stack = getLatestStack();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package io.dongtai.iast.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+public class ReflectUtilsTest {
+    static class Base implements Serializable {
+        private String name = "base";
+
+        private String hello(String s) {
+            return "hello " + s;
+        }
+    }
+
+    static class Child extends Base implements Runnable {
+        private int count = 1;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Test
+    public void testField() throws Exception {
+        Field field = ReflectUtils.getDeclaredFieldFromSuperClassByName(Child.class, "name");
+        Assert.assertNotNull(field);
+        Assert.assertEquals("base", field.get(new Child()));
+        Assert.assertSame(field, ReflectUtils.getDeclaredFieldFromSuperClassByName(Child.class, "name"));
+        Assert.assertSame(field, ReflectUtils.getRecursiveField(Child.class, "name"));
+
+        Assert.assertNull(ReflectUtils.getDeclaredFieldFromClassByName(Child.class, "name"));
+        Assert.assertNull(ReflectUtils.getDeclaredFieldFromSuperClassByName(Child.class, "missing"));
+        Assert.assertNull(ReflectUtils.getDeclaredFieldFromSuperClassByName(Child.class, "missing"));
+        Assert.assertEquals(1, ReflectUtils.getFieldFromClass(Child.class, "count").getInt(new Child()));
+        try {
+            ReflectUtils.getFieldFromClass(Child.class, "name");
+            Assert.fail("field of super class");
+        } catch (NoSuchFieldException ignore) {
+        }
+    }
+
+    @Test
+    public void testMethod() throws Exception {
+        Method method = ReflectUtils.getDeclaredMethodFromSuperClass(Child.class, "hello", new Class[]{String.class});
+        Assert.assertNotNull(method);
+        Assert.assertEquals("hello a", method.invoke(new Child(), "a"));
+        Assert.assertSame(method,
+                ReflectUtils.getDeclaredMethodFromSuperClass(Child.class, "hello", new Class[]{String.class}));
+        Assert.assertNull(ReflectUtils.getDeclaredMethodFromSuperClass(Child.class, "hello", new Class[]{Object.class}));
+        Assert.assertNull(ReflectUtils.getDeclaredMethodFromClass(Child.class, "hello", new Class[]{String.class}));
+
+        Assert.assertNotNull(ReflectUtils.getPublicMethodFromClass(Child.class, "run"));
+        for (int i = 0; i < 2; i++) {
+            try {
+                ReflectUtils.getPublicMethodFromClass(Child.class, "hello", new Class[]{String.class});
+                Assert.fail("not public");
+            } catch (NoSuchMethodException ignore) {
+            }
+        }
+    }
+
+    @Test
+    public void testImplementsInterface() {
+        Assert.assertTrue(ReflectUtils.isImplementsInterface(Child.class, "java.lang.Runnable"));
+        Assert.assertTrue(ReflectUtils.isImplementsInterface(Child.class, "java.io.Serializable"));
+        Assert.assertFalse(ReflectUtils.isImplementsInterface(Child.class, "java.lang.Comparable"));
+        Assert.assertTrue(ReflectUtils.isImplementsInterface(Runnable.class, "java.lang.Runnable"));
+        Assert.assertFalse(ReflectUtils.isImplementsInterface(Child.class, Child.class.getName()));
+    }
+}
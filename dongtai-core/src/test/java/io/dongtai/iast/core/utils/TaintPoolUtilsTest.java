@@ -0,0 +1,66 @@
+package io.dongtai.iast.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class TaintPoolUtilsTest {
+    public static class Model {
+        private final String name;
+
+        public Model(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public List<String> getTags() {
+            return Arrays.asList("a", "b");
+        }
+
+        public int getAge() {
+            return 10;
+        }
+
+        public String getEmpty() {
+            return "";
+        }
+
+        public String getByName(String name) {
+            return name;
+        }
+
+        public String getFailed() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    static class PrivateModel extends Model {
+        PrivateModel(String name) {
+            super(name);
+        }
+    }
+
+    @Test
+    public void testParseCustomModel() {
+        Model model = new Model("foo");
+        Set<Object> values = TaintPoolUtils.parseCustomModel(model);
+        Assert.assertEquals(2, values.size());
+        Assert.assertTrue(values.contains("foo"));
+        Assert.assertTrue(values.contains(Arrays.asList("a", "b")));
+
+        // cached getters are bound to the class, not the instance
+        values = TaintPoolUtils.parseCustomModel(new Model("bar"));
+        Assert.assertTrue(values.contains("bar"));
+        Assert.assertFalse(values.contains("foo"));
+
+        values = TaintPoolUtils.parseCustomModel(new PrivateModel("baz"));
+        Assert.assertTrue(values.contains("baz"));
+
+        Assert.assertTrue("bootstrap class", TaintPoolUtils.parseCustomModel(new StringBuilder("x")).isEmpty());
+        Assert.assertTrue(TaintPoolUtils.parseCustomModel(null).isEmpty());
+    }
+}
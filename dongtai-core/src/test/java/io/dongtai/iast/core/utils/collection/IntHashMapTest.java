@@ -0,0 +1,67 @@
+package io.dongtai.iast.core.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public class IntHashMapTest {
+    @Test
+    public void testPutAndGet() {
+        IntHashMap<String> map = new IntHashMap<String>();
+        Assert.assertTrue("empty", map.isEmpty());
+        Assert.assertNull("get on empty", map.get(1));
+
+        Assert.assertNull("put 1", map.put(1, "a"));
+        Assert.assertNull("put 0", map.put(0, "zero"));
+        Assert.assertNull("put negative", map.put(-3, "neg"));
+        Assert.assertEquals("overwrite 1", "a", map.put(1, "b"));
+        Assert.assertEquals("size", 3, map.size());
+
+        Assert.assertEquals("get 1", "b", map.get(1));
+        Assert.assertEquals("get 0", "zero", map.get(0));
+        Assert.assertEquals("get negative", "neg", map.get(-3));
+        Assert.assertNull("get absent", map.get(2));
+        Assert.assertTrue("contains 0", map.containsKey(0));
+        Assert.assertFalse("contains absent", map.containsKey(2));
+    }
+
+    @Test
+    public void testInsertionOrderAgainstLinkedHashMap() {
+        IntHashMap<Integer> map = new IntHashMap<Integer>();
+        Map<Integer, Integer> expected = new LinkedHashMap<Integer, Integer>();
+        Random random = new Random(42);
+        for (int i = 0; i < 50000; i++) {
+            int key = random.nextInt(30000);
+            Assert.assertEquals("put " + key, expected.put(key, i), map.put(key, i));
+        }
+        Assert.assertEquals("size", expected.size(), map.size());
+        int pos = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Assert.assertEquals("key at " + pos, entry.getKey().intValue(), map.keyAt(pos));
+            Assert.assertEquals("value at " + pos, entry.getValue(), map.valueAt(pos));
+            Assert.assertEquals("get " + entry.getKey(), entry.getValue(), map.get(entry.getKey()));
+            pos++;
+        }
+    }
+
+    @Test
+    public void testClear() {
+        IntHashMap<String> map = new IntHashMap<String>();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, String.valueOf(i));
+        }
+        map.clear();
+        Assert.assertTrue("empty after clear", map.isEmpty());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertNull("get " + i + " after clear", map.get(i));
+        }
+
+        map.put(7, "seven");
+        Assert.assertEquals("size after reuse", 1, map.size());
+        Assert.assertEquals("first key after reuse", 7, map.keyAt(0));
+        Assert.assertEquals("get after reuse", "seven", map.get(7));
+    }
+}
@@ -0,0 +1,115 @@
+package io.dongtai.iast.core.utils.collection;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+public class WeakIdentityMapTest {
+    @Test
+    public void testIdentity() {
+        WeakIdentityMap<String> map = new WeakIdentityMap<String>(16);
+        Assert.assertTrue("empty", map.isEmpty());
+        Assert.assertFalse("null key", map.put(null, "a"));
+
+        String a = new String("foo");
+        String b = new String("foo");
+        Assert.assertTrue("put a", map.put(a, "a"));
+        Assert.assertEquals("get a", "a", map.get(a));
+        Assert.assertNull("equal but not same", map.get(b));
+        Assert.assertFalse("equal but not same", map.containsKey(b));
+
+        Assert.assertTrue("overwrite a", map.put(a, "aa"));
+        Assert.assertEquals("size", 1, map.size());
+        Assert.assertEquals("get a", "aa", map.get(a));
+
+        map.clear();
+        Assert.assertTrue("cleared", map.isEmpty());
+        Assert.assertNull("cleared", map.get(a));
+    }
+
+    @Test
+    public void testRemove() {
+        WeakIdentityMap<String> map = new WeakIdentityMap<String>(16);
+        String a = new String("foo");
+        String b = new String("foo");
+        map.put(a, "a");
+        map.put(b, "b");
+        Assert.assertNull("equal but not same", map.remove(new String("foo")));
+        Assert.assertEquals("remove a", "a", map.remove(a));
+        Assert.assertNull("removed", map.get(a));
+        Assert.assertNull("removed twice", map.remove(a));
+        Assert.assertEquals("keep b", "b", map.get(b));
+        Assert.assertEquals("size", 1, map.size());
+    }
+
+    @Test
+    public void testGrowAndBound() {
+        WeakIdentityMap<Integer> map = new WeakIdentityMap<Integer>(1000);
+        List<Object> keys = new ArrayList<Object>();
+        for (int i = 0; i < 1000; i++) {
+            Object key = new Object();
+            keys.add(key);
+            Assert.assertTrue("put " + i, map.put(key, i));
+        }
+        Assert.assertFalse("full", map.put(new Object(), -1));
+        Assert.assertEquals("size", 1000, map.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertEquals("get " + i, Integer.valueOf(i), map.get(keys.get(i)));
+        }
+        Assert.assertTrue("update when full", map.put(keys.get(0), -1));
+    }
+
+    @Test
+    public void testCollectedKeysExpunged() {
+        WeakIdentityMap<Integer> map = new WeakIdentityMap<Integer>(100);
+        Object retained = new Object();
+        map.put(retained, 0);
+        List<Object> keys = new ArrayList<Object>();
+        for (int i = 1; i < 100; i++) {
+            Object key = new Object();
+            keys.add(key);
+            map.put(key, i);
+        }
+        Assert.assertFalse("full", map.put(new Object(), -1));
+
+        // what the collector does when a key becomes unreachable
+        for (Object key : keys) {
+            Reference<Object> ref = map.getReference(key);
+            ref.clear();
+            Assert.assertTrue(ref.enqueue());
+        }
+        Assert.assertEquals("collected keys expunged", 1, map.size());
+        Assert.assertEquals("retained key", Integer.valueOf(0), map.get(retained));
+        Assert.assertNull("collected key", map.get(keys.get(0)));
+        Assert.assertTrue("room after expunge", map.put(new Object(), 1));
+    }
+
+    @Test
+    public void testKeysWeaklyHeld() throws InterruptedException {
+        WeakIdentityMap<Integer> map = new WeakIdentityMap<Integer>(16);
+        Object key = new Object();
+        map.put(key, 1);
+        ReferenceQueue<Object> queue = new ReferenceQueue<Object>();
+        WeakReference<Object> probe = new WeakReference<Object>(key, queue);
+        key = null;
+
+        // the probe is cleared in the same collection as the map entry, which may be enqueued a bit later
+        Reference<?> collected = null;
+        long deadline = System.currentTimeMillis() + 5000;
+        while (collected == null && System.currentTimeMillis() < deadline) {
+            System.gc();
+            collected = queue.remove(100);
+        }
+        Assume.assumeTrue("key not collected in time", collected == probe);
+        while (map.size() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(0, map.size());
+    }
+}
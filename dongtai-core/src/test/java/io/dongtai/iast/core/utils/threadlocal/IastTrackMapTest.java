@@ -0,0 +1,113 @@
+package io.dongtai.iast.core.utils.threadlocal;
+
+import io.dongtai.iast.core.handler.hookpoint.models.MethodEvent;
+import org.json.JSONArray;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+
+public class IastTrackMapTest {
+    private static MethodEvent newEvent(int invokeId, String value) {
+        MethodEvent event = new MethodEvent("foo.Bar", "foo.Bar", "baz", "foo.Bar.baz(java.lang.String)",
+                null, new Object[]{value}, value);
+        event.setInvokeId(invokeId);
+        event.setCallStack(new StackTraceElement("foo.Caller", "call", "Caller.java", invokeId));
+        event.addParameterValue(0, value, true);
+        event.setReturnValue(value, true);
+        event.addSourceHash(invokeId);
+        event.addTargetHash(invokeId + 1);
+        return event;
+    }
+
+    @Test
+    public void testRetainedBytes() {
+        IastTrackMap map = new IastTrackMap();
+        map.addTrackMethod(1, newEvent(1, "small"));
+        long small = map.getRetainedBytes();
+        Assert.assertTrue(small > 0);
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append('a');
+        }
+        map.addTrackMethod(2, newEvent(2, sb.toString()));
+        long large = map.getRetainedBytes() - small;
+        Assert.assertTrue("large values are accounted", large > small);
+        Assert.assertTrue("large values are rendered, not retained", large < 2 * 100000);
+
+        map.clear();
+        Assert.assertEquals(0, map.getRetainedBytes());
+    }
+
+    @Test
+    public void testSpill() throws IOException {
+        IastTrackMap map = new IastTrackMap();
+        map.addTrackMethod(1, newEvent(1, "a"));
+        map.addTrackMethod(2, newEvent(2, "b"));
+        Assert.assertTrue(map.spill());
+        Assert.assertEquals(0, map.size());
+        Assert.assertEquals(2, map.totalSize());
+        Assert.assertEquals(0, map.getRetainedBytes());
+
+        map.addTrackMethod(3, newEvent(3, "c"));
+        Assert.assertTrue(map.spill());
+        map.addTrackMethod(4, newEvent(4, "d"));
+        Assert.assertEquals(1, map.size());
+        Assert.assertEquals(4, map.totalSize());
+
+        StringBuilder out = new StringBuilder("[");
+        Assert.assertEquals(3, map.appendSpilled(out));
+        JSONArray methodPool = new JSONArray(out.append(']').toString());
+        Assert.assertEquals(3, methodPool.length());
+        for (int i = 0; i < methodPool.length(); i++) {
+            Assert.assertEquals(i + 1, methodPool.getJSONObject(i).getInt("invokeId"));
+        }
+        Assert.assertEquals("[b]*1", methodPool.getJSONObject(1).getString("retValue"));
+
+        map.clear();
+        Assert.assertEquals(0, map.totalSize());
+        out.setLength(0);
+        Assert.assertEquals(0, map.appendSpilled(out));
+        Assert.assertEquals(0, out.length());
+    }
+
+    @Test
+    public void testAppendSpilledUnreadable() {
+        IastTrackMap map = new IastTrackMap();
+        map.addTrackMethod(1, newEvent(1, "a"));
+        Assert.assertTrue(map.spill());
+        Assert.assertTrue(map.getSpillFile().delete());
+
+        StringBuilder out = new StringBuilder("[");
+        try {
+            map.appendSpilled(out);
+            Assert.fail();
+        } catch (IOException ignore) {
+        }
+        Assert.assertEquals("[", out.toString());
+        Assert.assertEquals(1, map.getSpilledCount());
+        map.clear();
+    }
+
+    @Test
+    public void testSpillFileOwnerOnly() throws IOException {
+        IastTrackMap map = new IastTrackMap();
+        map.addTrackMethod(1, newEvent(1, "password"));
+        Assert.assertTrue(map.spill());
+        File file = map.getSpillFile();
+        Assert.assertTrue(file.exists());
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            Assert.assertEquals("rw-------",
+                    PosixFilePermissions.toString(Files.getPosixFilePermissions(file.toPath())));
+        }
+
+        map.clear();
+        Assert.assertFalse(file.exists());
+        Assert.assertNull(map.getSpillFile());
+    }
+}
@@ -78,8 +78,11 @@ public enum ErrorCode {
     SPY_COLLECT_METHOD_FAILED(20303, "hookpoint collect method failed"),
     SPY_TRACE_FEIGN_INVOKE_FAILED(20304, "hookpoint trace feign invoke failed"),
     SPY_METHOD_POOL_OVER_CAPACITY(20305, "current request method pool size over capacity: {}"),
+    SPY_METHOD_POOL_SPILL_FAILED(20306, "current request method pool spill failed, retained bytes: {}"),
+    SPY_XML_PARSER_CONFIGURED_FAILED(20307, "hookpoint xml parser configured failed"),
     API_COLLECTOR_GET_API_THREAD_EXECUTE_FAILED(20311, "get api thread execute failed"),
     GRAPH_BUILD_AND_REPORT_FAILED(20321, "build and report request graph failed"),
+    GRAPH_READ_SPILLED_METHOD_POOL_FAILED(20322, "read spilled method pool failed, {} events are not reported"),
     TAINT_COMMAND_GET_PARAMETERS_FAILED(20351, "taint command get {} parameters failed"),
     TAINT_COMMAND_RANGE_PROCESS_FAILED(20352, "taint command range process failed"),
 
@@ -44,7 +44,7 @@ public class NopSpy implements SpyDispatcher {
      */
     @Override
     public Object cloneRequest(Object req, boolean isJakarta) {
-        return null;
+        return req;
     }
 
     /**
@@ -57,7 +57,7 @@ public class NopSpy implements SpyDispatcher {
      */
     @Override
     public Object cloneResponse(Object res, boolean isJakarta) {
-        return null;
+        return res;
     }
 
     /**
@@ -92,33 +92,27 @@ public class NopSpy implements SpyDispatcher {
     }
 
     /**
-     * mark for enter Source Entry Point
+     * mark for enter Propagator Entry Point
      *
-     * @since 1.3.1
+     * @since 1.8.2
      */
     @Override
-    public void enterPropagator(boolean skipScope) {
-
+    public int enterPropagatorScope(boolean skipScope) {
+        return 0;
     }
 
     /**
-     * mark for leave Source Entry Point
+     * mark for leave Propagator Entry Point
      *
-     * @since 1.3.1
+     * @since 1.8.2
      */
     @Override
-    public void leavePropagator(boolean skipScope) {
-
+    public boolean leavePropagatorScope(int scopeLevel, boolean skipScope) {
+        return false;
     }
 
-    /**
-     * Determines whether it is a layer 1 Propagator entry
-     *
-     * @return true if is a layer 1 Propagator entry; else false
-     * @since 1.3.1
-     */
     @Override
-    public boolean isFirstLevelPropagator() {
+    public boolean isTainted(Object obj) {
         return false;
     }
 
@@ -165,7 +159,7 @@ public class NopSpy implements SpyDispatcher {
 
     @Override
     public boolean isNotReplayRequest() {
-        return false;
+        return true;
     }
 
     /**
@@ -190,7 +184,7 @@ public class NopSpy implements SpyDispatcher {
     }
 
     @Override
-    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, String methodMatcher,
+    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, int policyId,
                                  String className, String matchedClassName, String methodName, String signature,
                                  boolean isStatic) {
         return false;
@@ -201,4 +195,9 @@ public class NopSpy implements SpyDispatcher {
                                     String className, String methodName, String signature) {
         return false;
     }
+
+    @Override
+    public void xmlParserConfigured(Object parser) {
+
+    }
 }
@@ -68,26 +68,33 @@ public interface SpyDispatcher {
     boolean isFirstLevelSource();
 
     /**
-     * mark for enter Source Entry Point
+     * mark for enter Propagator Entry Point
      *
-     * @since 1.3.1
+     * @param skipScope true if nested propagators are also tracked
+     * @return propagator scope level after enter, 0 if the scope is not entered
+     * @since 1.8.2
      */
-    void enterPropagator(boolean skipScope);
+    int enterPropagatorScope(boolean skipScope);
 
     /**
-     * mark for leave Source Entry Point
+     * mark for leave Propagator Entry Point
      *
-     * @since 1.3.1
+     * @param scopeLevel level returned by {@link #enterPropagatorScope(boolean)}
+     * @param skipScope  true if nested propagators are also tracked
+     * @return true if is a layer 1 Propagator entry and the method should be collected; else false
+     * @since 1.8.2
      */
-    void leavePropagator(boolean skipScope);
+    boolean leavePropagatorScope(int scopeLevel, boolean skipScope);
 
     /**
-     * Determines whether it is a layer 1 Propagator entry
+     * Determines whether the object is in the taint pool of current request. instrumented propagators check their
+     * source objects with it before capturing arguments, so that untainted calls do not allocate.
      *
-     * @return true if is a layer 1 Propagator entry; else false
-     * @since 1.3.1
+     * @param obj source object of the propagator
+     * @return true if the object or one of its array elements is tainted
+     * @since 1.8.2
      */
-    boolean isFirstLevelPropagator();
+    boolean isTainted(Object obj);
 
     /**
      * mark for enter Sink Entry Point
@@ -136,10 +143,24 @@ public interface SpyDispatcher {
                               String className, String matchClassName, String methodName, String signCode,
                               boolean isStatic, int handlerType);
 
-    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, String methodMatcher,
+    /**
+     * collect method event of source/propagator/sink policy node
+     *
+     * @param policyId policy node index assigned at transform time
+     * @since 1.8.2
+     */
+    public boolean collectMethod(Object instance, Object[] parameters, Object retObject, int policyId,
                                  String className, String matchedClassName, String methodName, String signature,
                                  boolean isStatic);
 
     boolean traceFeignInvoke(Object instance, Object[] parameters,
                              String className, String methodName, String signature);
+
+    /**
+     * features or properties of a xml parser or factory are changed, the cached xxe verdict of the instance is stale
+     *
+     * @param parser configured xml parser or factory
+     * @since 1.8.2
+     */
+    void xmlParserConfigured(Object parser);
 }
@@ -8,17 +8,86 @@ public class SpyDispatcherHandler {
 
     private static final SpyDispatcher nopSpy = new NopSpy();
 
+    /**
+     * the dispatcher seen by the hooked methods, switched to {@link NopSpy} when the engine is paused,
+     * without retransforming the classes
+     */
+    private static volatile SpyDispatcher activeDispatcher = nopSpy;
+
+    /**
+     * the dispatcher seen by the http entry enter/leave hooks, not switched off when the engine is paused, so that
+     * the requests in flight still leave the entry and clean the thread state
+     */
+    private static volatile SpyDispatcher entryDispatcher = nopSpy;
+
+    /**
+     * whether current thread is inside a tracked request, checked by the hooked methods before calling the
+     * dispatcher. the first check on a thread still creates its ThreadLocalMap entry, holding null.
+     */
+    private static final ThreadLocal<Boolean> IN_REQUEST = new ThreadLocal<Boolean>();
+
     private static SpyDispatcher dispatcher;
 
-    public static void setDispatcher(SpyDispatcher dispatcher) {
+    private static boolean enabled = true;
+
+    public static synchronized void setDispatcher(SpyDispatcher dispatcher) {
         SpyDispatcherHandler.dispatcher = dispatcher;
+        updateActiveDispatcher();
+    }
+
+    /**
+     * global switch of the hooks
+     *
+     * @param enabled false - all hooks go to {@link NopSpy}
+     * @since 1.8.2
+     */
+    public static synchronized void setEnabled(boolean enabled) {
+        if (SpyDispatcherHandler.enabled == enabled) {
+            return;
+        }
+        SpyDispatcherHandler.enabled = enabled;
+        updateActiveDispatcher();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
     }
 
     public static SpyDispatcher getDispatcher() {
-        return dispatcher;
+        return activeDispatcher;
+    }
+
+    /**
+     * @return dispatcher for the http entry enter/leave hooks, it checks the engine state by itself
+     * @since 1.8.2
+     */
+    public static SpyDispatcher getEntryDispatcher() {
+        return entryDispatcher;
+    }
+
+    /**
+     * @return true if current thread is inside a tracked request
+     * @since 1.8.2
+     */
+    public static boolean isInRequest() {
+        return IN_REQUEST.get() == Boolean.TRUE;
+    }
+
+    /**
+     * mark current thread enter or leave a tracked request
+     *
+     * @since 1.8.2
+     */
+    public static void setInRequest(boolean inRequest) {
+        IN_REQUEST.set(inRequest ? Boolean.TRUE : Boolean.FALSE);
     }
 
     public static void destroy() {
         setDispatcher(nopSpy);
     }
+
+    private static void updateActiveDispatcher() {
+        entryDispatcher = dispatcher != null ? dispatcher : nopSpy;
+        activeDispatcher = enabled ? entryDispatcher : nopSpy;
+    }
 }